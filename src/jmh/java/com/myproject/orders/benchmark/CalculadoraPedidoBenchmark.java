@@ -0,0 +1,34 @@
+package com.myproject.orders.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o cálculo em centavos ({@code long}) com o cálculo em {@code BigDecimal} nos tamanhos de
+ * {@link PedidoDeBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculadoraPedidoBenchmark {
+
+    @Benchmark
+    public BigDecimal centavos(PedidoDeBenchmark estado) {
+        return estado.calculadoraPedidoService.calcularValorTotalPedido(estado.pedido);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal(PedidoDeBenchmark estado) {
+        return estado.calculadoraPedidoService.calcularValorTotalPedidoEmBigDecimal(estado.pedido);
+    }
+}
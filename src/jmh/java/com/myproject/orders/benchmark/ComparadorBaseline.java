@@ -0,0 +1,114 @@
+package com.myproject.orders.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara o resultado JSON de uma execução do JMH com a baseline salva e termina com código 1 quando algum benchmark
+ * piora mais que o limite, em vazão (score) ou em bytes alocados por operação ({@code gc.alloc.rate.norm}).
+ * Argumentos: {@code <baseline.json> <resultado.json> <limite em %>}.
+ */
+public class ComparadorBaseline {
+
+    private static final String ALOCACAO_POR_OPERACAO = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Uso: ComparadorBaseline <baseline.json> <resultado.json> <limite em %>");
+            System.exit(2);
+        }
+        File baseline = new File(args[0]);
+        if (!baseline.isFile()) {
+            System.err.println("Baseline " + baseline + " não encontrada; salve uma com -Djmh.resultado=" + baseline);
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Medida> anteriores = ler(objectMapper.readTree(baseline));
+        Map<String, Medida> atuais = ler(objectMapper.readTree(new File(args[1])));
+        double limite = Double.parseDouble(args[2]);
+
+        int regressoes = 0;
+        System.out.printf("%-90s %14s %14s %9s %14s %14s %9s%n",
+                "Benchmark", "Score base", "Score atual", "Piora %", "B/op base", "B/op atual", "Piora %");
+        for (Map.Entry<String, Medida> entrada : atuais.entrySet()) {
+            Medida atual = entrada.getValue();
+            Medida anterior = anteriores.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf("%-90s %14s %14.2f%n", entrada.getKey(), "-", atual.score);
+                continue;
+            }
+            double pioraScore = atual.vazao
+                    ? piora(atual.score, anterior.score)
+                    : piora(anterior.score, atual.score);
+            double pioraAlocacao = piora(anterior.alocacao, atual.alocacao);
+            boolean regrediu = pioraScore > limite || pioraAlocacao > limite;
+            if (regrediu) {
+                regressoes++;
+            }
+            System.out.printf("%-90s %14.2f %14.2f %8.1f%% %14.1f %14.1f %8.1f%%%s%n", entrada.getKey(),
+                    anterior.score, atual.score, pioraScore, anterior.alocacao, atual.alocacao, pioraAlocacao,
+                    regrediu ? "  <-- REGRESSÃO" : "");
+        }
+
+        if (regressoes > 0) {
+            System.err.printf("%d benchmark(s) pioraram mais que %.1f%% em relação à baseline%n", regressoes, limite);
+            System.exit(1);
+        }
+        System.out.printf("Nenhuma piora acima de %.1f%% em relação à baseline%n", limite);
+    }
+
+    /**
+     * Piora percentual de {@code depois} em relação a {@code antes}, para métricas em que menor é melhor.
+     */
+    private static double piora(double antes, double depois) {
+        if (antes <= 0) {
+            return 0;
+        }
+        return (depois - antes) / antes * 100;
+    }
+
+    private static Map<String, Medida> ler(JsonNode resultado) {
+        Map<String, Medida> medidas = new TreeMap<>();
+        for (JsonNode execucao : resultado) {
+            JsonNode metrica = execucao.path("primaryMetric");
+            Medida medida = new Medida();
+            medida.vazao = "thrpt".equals(execucao.path("mode").asText());
+            medida.score = metrica.path("score").asDouble();
+            medida.alocacao = alocacao(execucao.path("secondaryMetrics"));
+            medidas.put(chave(execucao), medida);
+        }
+        return medidas;
+    }
+
+    private static double alocacao(JsonNode secundarias) {
+        Iterator<Map.Entry<String, JsonNode>> campos = secundarias.fields();
+        while (campos.hasNext()) {
+            Map.Entry<String, JsonNode> campo = campos.next();
+            // Versões antigas do JMH prefixam as métricas dos profilers com "·".
+            if (campo.getKey().endsWith(ALOCACAO_POR_OPERACAO)) {
+                return campo.getValue().path("score").asDouble();
+            }
+        }
+        return 0;
+    }
+
+    private static String chave(JsonNode execucao) {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        execucao.path("params").fields().forEachRemaining(campo -> parametros.put(campo.getKey(), campo.getValue().asText()));
+        String benchmark = execucao.path("benchmark").asText().replace("com.myproject.orders.benchmark.", "");
+        return benchmark + " [" + execucao.path("mode").asText() + "]" + (parametros.isEmpty() ? "" : " " + parametros);
+    }
+
+    private static class Medida {
+        private boolean vazao;
+        private double score;
+        private double alocacao;
+    }
+}
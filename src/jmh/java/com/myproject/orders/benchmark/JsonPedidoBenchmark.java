@@ -0,0 +1,82 @@
+package com.myproject.orders.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON dos pedidos nos dois caminhos: o {@code ObjectMapper} montado como o do Spring MVC (HTTP e outbox) e o
+ * {@code Jackson2JsonMessageConverter} declarado em {@link RabbitMQConfig} (entrada e saída pelo RabbitMQ).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonPedidoBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MessageConverter jsonMessageConverter = new RabbitMQConfig().jsonMessageConverter();
+
+    private byte[] requisicaoJson;
+    private byte[] respostaJson;
+    private Message mensagemEntrada;
+
+    @Setup(Level.Trial)
+    public void serializarEntradas(PedidoDeBenchmark estado) throws IOException {
+        requisicaoJson = objectMapper.writeValueAsBytes(estado.pedidoRequestDto);
+        respostaJson = objectMapper.writeValueAsBytes(estado.pedidoResponseDto);
+        mensagemEntrada = jsonMessageConverter.toMessage(estado.pedidoRequestDto, new MessageProperties());
+        mensagemEntrada.getMessageProperties().setInferredArgumentType(PedidoRequestDto.class);
+    }
+
+    @Benchmark
+    public PedidoRequestDto lerRequisicao() throws IOException {
+        return objectMapper.readValue(requisicaoJson, PedidoRequestDto.class);
+    }
+
+    @Benchmark
+    public byte[] escreverRequisicao(PedidoDeBenchmark estado) throws IOException {
+        return objectMapper.writeValueAsBytes(estado.pedidoRequestDto);
+    }
+
+    @Benchmark
+    public PedidoResponseDto lerResposta() throws IOException {
+        return objectMapper.readValue(respostaJson, PedidoResponseDto.class);
+    }
+
+    @Benchmark
+    public byte[] escreverResposta(PedidoDeBenchmark estado) throws IOException {
+        return objectMapper.writeValueAsBytes(estado.pedidoResponseDto);
+    }
+
+    @Benchmark
+    public Object converterMensagemEntrada() {
+        return jsonMessageConverter.fromMessage(mensagemEntrada);
+    }
+
+    @Benchmark
+    public Message converterMensagemSaida(PedidoDeBenchmark estado) {
+        return jsonMessageConverter.toMessage(estado.pedidoResponseDto, new MessageProperties());
+    }
+}
@@ -0,0 +1,120 @@
+package com.myproject.orders.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.adapters.PedidoPersistance;
+import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.helpers.CalculadoraPedidoService;
+import com.myproject.orders.infrastructure.messaging.GeradorPedidosSinteticos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Os dois caminhos de {@code GET /pedidos/{id}} sem o cache: o padrão, que carrega {@code PedidoEntity}, monta
+ * {@code Pedido} e {@code PedidoResponseDto} e serializa com o {@code ObjectMapper} do Spring Boot, e a projeção
+ * direta ({@code pedidos.leitura.projecao-direta=true}), que escreve o JSON a partir das linhas da consulta.
+ * {@code SampleTime} dá os percentis (p99 em {@code p0.99}) e o profiler {@code gc} dá os bytes alocados por leitura.
+ * Usa o mesmo contexto e as mesmas variáveis de banco de {@link PersistenciaBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LeituraPorIdBenchmark {
+
+    private static final int PEDIDOS_PRE_CARREGADOS = 1000;
+
+    @Param({"1", "10", "100"})
+    public int itensPorPedido;
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoPersistance pedidoPersistance;
+    private PedidoMapper pedidoMapper;
+    private ObjectMapper objectMapper;
+    private List<Long> ids;
+    private int leitura;
+
+    @Setup(Level.Trial)
+    public void subirContexto() {
+        contexto = new SpringApplicationBuilder(PersistenciaBenchmark.ContextoPersistencia.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "spring.datasource.url=" + variavel("BENCHMARK_DATASOURCE_URL", "jdbc:h2:mem:leitura;DB_CLOSE_DELAY=-1"),
+                        "spring.datasource.username=" + variavel("BENCHMARK_DATASOURCE_USERNAME", "sa"),
+                        "spring.datasource.password=" + variavel("BENCHMARK_DATASOURCE_PASSWORD", ""),
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "pedidos.persistencia.adapter=jpa")
+                .run();
+        pedidoPersistance = contexto.getBean(PedidoPersistance.class);
+        pedidoMapper = contexto.getBean(PedidoMapper.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+
+        GeradorPedidosSinteticos gerador = new GeradorPedidosSinteticos(GeradorPedidosSinteticos.Parametros.builder()
+                .itensMinimo(itensPorPedido)
+                .itensMaximo(itensPorPedido)
+                .build());
+        CalculadoraPedidoService calculadoraPedidoService = new CalculadoraPedidoService();
+        List<Pedido> pedidos = new ArrayList<>(PEDIDOS_PRE_CARREGADOS);
+        for (int i = 0; i < PEDIDOS_PRE_CARREGADOS; i++) {
+            Pedido pedido = pedidoMapper.toDomain(gerador.proximo());
+            pedido.setIdExterno("LEITURA-" + i);
+            pedido.setStatus(StatusPedido.PROCESSADO);
+            pedido.setValorTotal(calculadoraPedidoService.calcularValorTotalPedido(pedido));
+            pedidos.add(pedido);
+        }
+        ids = new ArrayList<>(PEDIDOS_PRE_CARREGADOS);
+        pedidoPersistance.salvarPedidos(pedidos).forEach(pedido -> ids.add(pedido.getId()));
+    }
+
+    @TearDown(Level.Trial)
+    public void derrubarContexto() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public byte[] mapearResponseDto() throws IOException {
+        Pedido pedido = pedidoPersistance.buscarPedidoPorId(proximoId()).orElseThrow();
+        return objectMapper.writeValueAsBytes(pedidoMapper.toResponseDto(pedido));
+    }
+
+    @Benchmark
+    public byte[] projecaoDireta() {
+        return pedidoPersistance.buscarPedidoJsonPorId(proximoId()).orElseThrow();
+    }
+
+    private static String variavel(String nome, String padrao) {
+        String valor = System.getenv(nome);
+        return valor != null ? valor : padrao;
+    }
+
+    private Long proximoId() {
+        return ids.get(leitura++ % ids.size());
+    }
+}
@@ -0,0 +1,50 @@
+package com.myproject.orders.benchmark;
+
+import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.helpers.CalculadoraPedidoService;
+import com.myproject.orders.infrastructure.messaging.GeradorPedidosSinteticos;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pedido de entrada com {@code itens} itens, gerado sempre igual pela mesma semente, e as formas dele que cada
+ * estágio do caminho quente recebe: domínio já precificado e DTO de saída.
+ */
+@State(Scope.Benchmark)
+public class PedidoDeBenchmark {
+
+    @Param({"1", "10", "100", "10000"})
+    public int itens;
+
+    public final PedidoMapper pedidoMapper = new PedidoMapper();
+    public final CalculadoraPedidoService calculadoraPedidoService = new CalculadoraPedidoService();
+
+    public PedidoRequestDto pedidoRequestDto;
+    public Pedido pedido;
+    public PedidoResponseDto pedidoResponseDto;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        pedidoRequestDto = new GeradorPedidosSinteticos(GeradorPedidosSinteticos.Parametros.builder()
+                .itensMinimo(itens)
+                .itensMaximo(itens)
+                .build())
+                .proximo();
+        pedido = pedidoMapper.toDomain(pedidoRequestDto);
+        pedido.setId(1L);
+        pedido.setStatus(StatusPedido.PROCESSADO);
+        pedido.setValorTotal(calculadoraPedidoService.calcularValorTotalPedido(pedido));
+        pedido.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        pedido.setUpdatedAt(pedido.getCreatedAt());
+        pedidoResponseDto = pedidoMapper.toResponseDto(pedido);
+    }
+}
@@ -0,0 +1,41 @@
+package com.myproject.orders.benchmark;
+
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.infrastructure.entity.PedidoEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversões do {@code PedidoMapper} feitas para cada pedido recebido: DTO de entrada para domínio, domínio para
+ * entidade JPA e domínio para o DTO publicado em {@code pedidos.saida}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PedidoMapperBenchmark {
+
+    @Benchmark
+    public Pedido paraDominio(PedidoDeBenchmark estado) {
+        return estado.pedidoMapper.toDomain(estado.pedidoRequestDto);
+    }
+
+    @Benchmark
+    public PedidoEntity paraEntidade(PedidoDeBenchmark estado) {
+        return estado.pedidoMapper.toEntity(estado.pedido);
+    }
+
+    @Benchmark
+    public PedidoResponseDto paraResposta(PedidoDeBenchmark estado) {
+        return estado.pedidoMapper.toResponseDto(estado.pedido);
+    }
+}
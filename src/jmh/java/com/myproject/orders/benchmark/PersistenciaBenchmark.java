@@ -0,0 +1,163 @@
+package com.myproject.orders.benchmark;
+
+import com.myproject.orders.application.adapters.PedidoPersistance;
+import com.myproject.orders.application.adapters.PedidoPersistanceJdbc;
+import com.myproject.orders.application.config.JpaAuditingConfig;
+import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.helpers.CalculadoraPedidoService;
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import com.myproject.orders.infrastructure.entity.PedidoEntity;
+import com.myproject.orders.infrastructure.messaging.GeradorPedidosSinteticos;
+import com.myproject.orders.infrastructure.repositories.PedidoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de gravação e leitura dos dois adaptadores de {@link PedidoPersistancePort} sobre o mesmo esquema, num
+ * contexto Spring só com banco, JPA e JDBC. Por padrão usa H2 em memória, o que isola o custo do próprio adaptador;
+ * para medir contra um PostgreSQL, exportar {@code BENCHMARK_DATASOURCE_URL}, {@code BENCHMARK_DATASOURCE_USERNAME}
+ * e {@code BENCHMARK_DATASOURCE_PASSWORD} antes de rodar (variáveis de ambiente chegam ao fork do JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenciaBenchmark {
+
+    private static final int PEDIDOS_PRE_CARREGADOS = 1000;
+
+    @Param({"jpa", "jdbc"})
+    public String adapter;
+
+    @Param({"100"})
+    public int pedidosPorLote;
+
+    @Param({"5"})
+    public int itensPorPedido;
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoPersistancePort pedidoPersistancePort;
+    private List<Pedido> lote;
+    private List<Long> idsGravados;
+    private long sequencia;
+    private int leitura;
+
+    @Setup(Level.Trial)
+    public void subirContexto() {
+        contexto = new SpringApplicationBuilder(ContextoPersistencia.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "spring.datasource.url=" + variavel("BENCHMARK_DATASOURCE_URL", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1"),
+                        "spring.datasource.username=" + variavel("BENCHMARK_DATASOURCE_USERNAME", "sa"),
+                        "spring.datasource.password=" + variavel("BENCHMARK_DATASOURCE_PASSWORD", ""),
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "pedidos.persistencia.adapter=" + adapter)
+                .run();
+        pedidoPersistancePort = contexto.getBean(PedidoPersistancePort.class);
+
+        GeradorPedidosSinteticos gerador = new GeradorPedidosSinteticos(GeradorPedidosSinteticos.Parametros.builder()
+                .itensMinimo(itensPorPedido)
+                .itensMaximo(itensPorPedido)
+                .build());
+        PedidoMapper pedidoMapper = new PedidoMapper();
+        CalculadoraPedidoService calculadoraPedidoService = new CalculadoraPedidoService();
+        lote = new ArrayList<>(pedidosPorLote);
+        for (int i = 0; i < pedidosPorLote; i++) {
+            Pedido pedido = pedidoMapper.toDomain(gerador.proximo());
+            pedido.setStatus(StatusPedido.PROCESSANDO);
+            pedido.setValorTotal(calculadoraPedidoService.calcularValorTotalPedido(pedido));
+            lote.add(pedido);
+        }
+
+        idsGravados = new ArrayList<>(PEDIDOS_PRE_CARREGADOS);
+        while (idsGravados.size() < PEDIDOS_PRE_CARREGADOS) {
+            inserirLote().forEach(pedido -> idsGravados.add(pedido.getId()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void derrubarContexto() {
+        contexto.close();
+    }
+
+    /**
+     * Operações por segundo são lotes; pedidos por segundo = score * {@code pedidosPorLote}.
+     */
+    @Benchmark
+    public List<Pedido> inserirLote() {
+        for (Pedido pedido : lote) {
+            pedido.setIdExterno("BENCH-" + sequencia++);
+        }
+        return pedidoPersistancePort.salvarPedidos(lote);
+    }
+
+    @Benchmark
+    public Optional<Pedido> buscarPorId() {
+        return pedidoPersistancePort.buscarPedidoPorId(proximoId());
+    }
+
+    @Benchmark
+    public Page<Pedido> listarPagina() {
+        return pedidoPersistancePort.listarPedidos(PageRequest.of(leitura++ % 50, 20));
+    }
+
+    private static String variavel(String nome, String padrao) {
+        String valor = System.getenv(nome);
+        return valor != null ? valor : padrao;
+    }
+
+    private Long proximoId() {
+        return idsGravados.get(leitura++ % idsGravados.size());
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, JdbcTemplateAutoConfiguration.class, TransactionAutoConfiguration.class,
+            JacksonAutoConfiguration.class})
+    @EntityScan(basePackageClasses = PedidoEntity.class)
+    @EnableJpaRepositories(basePackageClasses = PedidoRepository.class)
+    @Import({JpaAuditingConfig.class, PedidoMapper.class, PedidoPersistance.class, PedidoPersistanceJdbc.class})
+    static class ContextoPersistencia {
+    }
+}
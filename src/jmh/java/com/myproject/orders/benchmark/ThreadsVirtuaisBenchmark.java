@@ -0,0 +1,135 @@
+package com.myproject.orders.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o modelo de threads de plataforma (pool fixo, como os 200 workers padrão do Tomcat) com threads virtuais
+ * para requisições que passam quase todo o tempo bloqueadas em I/O (JDBC/AMQP simulados com sleep).
+ * <p>
+ * {@code requisicoes} mede vazão; o contador {@code kbPorRequisicaoEmVoo} mede a memória residente (VmRSS, só Linux)
+ * acrescentada por requisição estacionada. Rodar com {@code mvn -Pjava21,benchmark test-compile exec:exec -Djmh.filtro=ThreadsVirtuais}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g"})
+public class ThreadsVirtuaisBenchmark {
+
+    private static final int THREADS_PLATAFORMA = 200;
+
+    @Param({"plataforma", "virtual"})
+    private String modelo;
+
+    @Param({"200", "2000"})
+    private int requisicoesEmVoo;
+
+    @Param({"5"})
+    private long latenciaIoMs;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        executor = criarExecutor(modelo);
+    }
+
+    @TearDown(Level.Trial)
+    public void parar() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cada invocação dispara {@code requisicoesEmVoo} requisições e espera todas: ops/s x requisicoesEmVoo = requisições/s.
+     */
+    @Benchmark
+    public int requisicoes(Memoria memoria) throws InterruptedException {
+        CountDownLatch estacionadas = new CountDownLatch(requisicoesEmVoo);
+        CountDownLatch concluidas = new CountDownLatch(requisicoesEmVoo);
+        for (int i = 0; i < requisicoesEmVoo; i++) {
+            executor.execute(() -> {
+                estacionadas.countDown();
+                try {
+                    Thread.sleep(latenciaIoMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concluidas.countDown();
+            });
+        }
+        if (estacionadas.await(latenciaIoMs, TimeUnit.MILLISECONDS)) {
+            memoria.amostrar(requisicoesEmVoo);
+        }
+        concluidas.await();
+        return requisicoesEmVoo;
+    }
+
+    static ExecutorService criarExecutor(String modelo) throws Exception {
+        if ("virtual".equals(modelo)) {
+            // Via reflexão para o projeto continuar compilando em Java 17 sem o perfil java21.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        return Executors.newFixedThreadPool(THREADS_PLATAFORMA);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memoria {
+
+        public long kbPorRequisicaoEmVoo;
+
+        private long rssBaseKb;
+
+        @Setup(Level.Iteration)
+        public void medirBase() throws IOException {
+            kbPorRequisicaoEmVoo = 0;
+            System.gc();
+            rssBaseKb = lerRssKb();
+        }
+
+        void amostrar(int requisicoesEmVoo) {
+            try {
+                long delta = Math.max(lerRssKb() - rssBaseKb, 0);
+                kbPorRequisicaoEmVoo = Math.max(kbPorRequisicaoEmVoo, delta / requisicoesEmVoo);
+            } catch (IOException ignorada) {
+                // Fora do Linux não há /proc; fica só a vazão.
+            }
+        }
+
+        private static long lerRssKb() throws IOException {
+            Path status = Path.of("/proc/self/status");
+            if (!Files.exists(status)) {
+                return 0;
+            }
+            for (String linha : Files.readAllLines(status)) {
+                if (linha.startsWith("VmRSS:")) {
+                    return Long.parseLong(linha.replaceAll("\\D", ""));
+                }
+            }
+            return 0;
+        }
+    }
+}
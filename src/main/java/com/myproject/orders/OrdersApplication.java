@@ -5,10 +5,12 @@ import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @OpenAPIDefinition(info = @Info(title = "Ambev Pedidos API", version = "1.0", description = "API para gerenciamento de pedidos e produtos"))
 @EnableRabbit
+@EnableScheduling
 public class OrdersApplication {
 
 	public static void main(String[] args) {
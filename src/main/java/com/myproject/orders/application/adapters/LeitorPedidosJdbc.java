@@ -0,0 +1,223 @@
+package com.myproject.orders.application.adapters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.Item;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Leituras de pedidos com itens feitas direto em JDBC, numa consulta só, usadas pelos dois adaptadores de persistência.
+ */
+final class LeitorPedidosJdbc {
+
+    private static final int TAMANHO_LOTE_LEITURA_EXPORTACAO = 1000;
+
+    private static final String SQL_PEDIDOS_COM_ITENS = "SELECT p.id, p.id_externo, p.status, p.valor_total, p.created_at, p.updated_at, " +
+            "i.id AS item_id, i.produto_id, i.valor_unitario, i.quantidade, i.valor_total_item, " +
+            "i.created_at AS item_created_at, i.updated_at AS item_updated_at " +
+            "FROM pedido p LEFT JOIN item i ON i.pedido_id = p.id WHERE 1 = 1";
+
+    private static final String SQL_PEDIDO_POR_ID = SQL_PEDIDOS_COM_ITENS + " AND p.id = ? ORDER BY i.id";
+
+    private LeitorPedidosJdbc() {
+    }
+
+    static void exportar(JdbcTemplate jdbcTemplate, FiltroExportacao filtro, Consumer<Pedido> consumidor) {
+        StringBuilder sql = new StringBuilder(SQL_PEDIDOS_COM_ITENS);
+        List<Object> parametros = new ArrayList<>();
+        if (filtro.getStatus() != null) {
+            sql.append(" AND p.status = ?");
+            parametros.add(filtro.getStatus().name());
+        }
+        if (filtro.getCriadoDe() != null) {
+            sql.append(" AND p.created_at >= ?");
+            parametros.add(filtro.getCriadoDe());
+        }
+        if (filtro.getCriadoAte() != null) {
+            sql.append(" AND p.created_at < ?");
+            parametros.add(filtro.getCriadoAte());
+        }
+        sql.append(" ORDER BY p.id, i.id");
+
+        AgrupadorPedidos agrupador = new AgrupadorPedidos(consumidor);
+        jdbcTemplate.query(conexao -> {
+            PreparedStatement comando = conexao.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            comando.setFetchSize(TAMANHO_LOTE_LEITURA_EXPORTACAO);
+            for (int i = 0; i < parametros.size(); i++) {
+                comando.setObject(i + 1, parametros.get(i));
+            }
+            return comando;
+        }, agrupador);
+        agrupador.finalizar();
+    }
+
+    static Optional<Pedido> buscarPorId(JdbcTemplate jdbcTemplate, Long id) {
+        List<Pedido> pedidos = new ArrayList<>(1);
+        AgrupadorPedidos agrupador = new AgrupadorPedidos(pedidos::add);
+        jdbcTemplate.query(SQL_PEDIDO_POR_ID, agrupador, id);
+        agrupador.finalizar();
+        return pedidos.stream().findFirst();
+    }
+
+    /**
+     * Pedidos na ordem de {@code ids}; ids sem pedido são ignorados.
+     */
+    static List<Pedido> buscarPorIds(JdbcTemplate jdbcTemplate, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = SQL_PEDIDOS_COM_ITENS + " AND p.id IN (" + marcadores(ids.size()) + ") ORDER BY p.id, i.id";
+        List<Pedido> pedidos = new ArrayList<>(ids.size());
+        AgrupadorPedidos agrupador = new AgrupadorPedidos(pedidos::add);
+        jdbcTemplate.query(sql, agrupador, ids.toArray());
+        agrupador.finalizar();
+        Map<Long, Pedido> pedidosPorId = pedidos.stream().collect(Collectors.toMap(Pedido::getId, Function.identity()));
+        return ids.stream().map(pedidosPorId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Escreve o JSON de {@code PedidoResponseDto} direto das linhas do banco, sem montar entidade, domínio nem DTO.
+     */
+    static Optional<byte[]> buscarJson(JdbcTemplate jdbcTemplate, JsonFactory jsonFactory, Long id) {
+        ByteArrayBuilder json = new ByteArrayBuilder();
+        boolean encontrado;
+        try (JsonGenerator gerador = jsonFactory.createGenerator(json)) {
+            EscritorPedidoJson escritor = new EscritorPedidoJson(gerador);
+            jdbcTemplate.query(SQL_PEDIDO_POR_ID, escritor, id);
+            encontrado = escritor.finalizar();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return encontrado ? Optional.of(json.toByteArray()) : Optional.empty();
+    }
+
+    static String marcadores(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    private static class AgrupadorPedidos implements RowCallbackHandler {
+
+        private final Consumer<Pedido> consumidor;
+        private Pedido pedidoAtual;
+
+        private AgrupadorPedidos(Consumer<Pedido> consumidor) {
+            this.consumidor = consumidor;
+        }
+
+        @Override
+        public void processRow(ResultSet linha) throws SQLException {
+            long id = linha.getLong("id");
+            if (pedidoAtual == null || pedidoAtual.getId() != id) {
+                finalizar();
+                pedidoAtual = new Pedido(id, linha.getString("id_externo"), StatusPedido.valueOf(linha.getString("status")),
+                        linha.getBigDecimal("valor_total"), new ArrayList<>(),
+                        linha.getObject("created_at", LocalDateTime.class), linha.getObject("updated_at", LocalDateTime.class), null);
+            }
+            long itemId = linha.getLong("item_id");
+            if (!linha.wasNull()) {
+                pedidoAtual.getItens().add(new Item(itemId, linha.getString("produto_id"), linha.getBigDecimal("valor_unitario"),
+                        linha.getInt("quantidade"), linha.getBigDecimal("valor_total_item"), null,
+                        linha.getObject("item_created_at", LocalDateTime.class), linha.getObject("item_updated_at", LocalDateTime.class)));
+            }
+        }
+
+        private void finalizar() {
+            if (pedidoAtual != null) {
+                consumidor.accept(pedidoAtual);
+                pedidoAtual = null;
+            }
+        }
+    }
+
+    /**
+     * Mesmos campos, ordem e formatos que o Jackson do Spring produz para {@code PedidoResponseDto}: nulos incluídos
+     * e datas em ISO-8601. As datas do pedido vêm depois dos itens no DTO, por isso ficam guardadas até o fim.
+     */
+    private static class EscritorPedidoJson implements RowCallbackHandler {
+
+        private final JsonGenerator gerador;
+        private boolean pedidoAberto;
+        private LocalDateTime criadoEm;
+        private LocalDateTime atualizadoEm;
+
+        private EscritorPedidoJson(JsonGenerator gerador) {
+            this.gerador = gerador;
+        }
+
+        @Override
+        public void processRow(ResultSet linha) throws SQLException {
+            try {
+                if (!pedidoAberto) {
+                    pedidoAberto = true;
+                    gerador.writeStartObject();
+                    gerador.writeNumberField("id", linha.getLong("id"));
+                    gerador.writeStringField("idExterno", linha.getString("id_externo"));
+                    gerador.writeStringField("status", linha.getString("status"));
+                    gerador.writeFieldName("valorTotal");
+                    gerador.writeNumber(linha.getBigDecimal("valor_total"));
+                    gerador.writeFieldName("itens");
+                    gerador.writeStartArray();
+                    criadoEm = linha.getObject("created_at", LocalDateTime.class);
+                    atualizadoEm = linha.getObject("updated_at", LocalDateTime.class);
+                }
+                linha.getLong("item_id");
+                if (!linha.wasNull()) {
+                    gerador.writeStartObject();
+                    gerador.writeStringField("produtoId", linha.getString("produto_id"));
+                    gerador.writeFieldName("valorUnitario");
+                    gerador.writeNumber(linha.getBigDecimal("valor_unitario"));
+                    gerador.writeNumberField("quantidade", linha.getInt("quantidade"));
+                    gerador.writeFieldName("valorTotalItem");
+                    gerador.writeNumber(linha.getBigDecimal("valor_total_item"));
+                    escreverData("createdAt", linha.getObject("item_created_at", LocalDateTime.class));
+                    escreverData("updatedAt", linha.getObject("item_updated_at", LocalDateTime.class));
+                    gerador.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void escreverData(String campo, LocalDateTime data) throws IOException {
+            gerador.writeFieldName(campo);
+            if (data == null) {
+                gerador.writeNull();
+            } else {
+                gerador.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(data));
+            }
+        }
+
+        private boolean finalizar() throws IOException {
+            if (pedidoAberto) {
+                gerador.writeEndArray();
+                escreverData("createdAt", criadoEm);
+                escreverData("updatedAt", atualizadoEm);
+                gerador.writeEndObject();
+            }
+            return pedidoAberto;
+        }
+    }
+}
@@ -1,33 +1,110 @@
 package com.myproject.orders.application.adapters;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
 import com.myproject.orders.domain.exception.RecursoNaoEncontratoException;
 import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import com.myproject.orders.infrastructure.entity.ItemEntity;
 import com.myproject.orders.infrastructure.entity.PedidoEntity;
+import com.myproject.orders.infrastructure.entity.PedidoOutboxEntity;
+import com.myproject.orders.infrastructure.repositories.PedidoOutboxRepository;
 import com.myproject.orders.infrastructure.repositories.PedidoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
+@ConditionalOnProperty(name = "pedidos.persistencia.adapter", havingValue = "jpa", matchIfMissing = true)
 public class PedidoPersistance implements PedidoPersistancePort {
 
     @Autowired
     private PedidoRepository pedidoRepository;
 
+    @Autowired
+    private PedidoOutboxRepository pedidoOutboxRepository;
+
     @Autowired
     private PedidoMapper pedidoMapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Transactional(readOnly = true)
     @Override
     public Page<Pedido> listarPedidos(Pageable pageable) {
-        Page<PedidoEntity> pedidosEntitiesPage = pedidoRepository.findAll(pageable);
-        return pedidosEntitiesPage.map(pedidoMapper::toDomain);
+        Page<Long> idsPage = pedidoRepository.buscarIdsPaginados(pageable);
+        return new PageImpl<>(buscarNaOrdem(idsPage.getContent()), pageable, idsPage.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Pedido> listarPedidosAposCursor(CursorPedido cursor, int limite) {
+        List<Long> ids = cursor == null
+                ? pedidoRepository.buscarPrimeirosIdsPorCriacao(Limit.of(limite))
+                : pedidoRepository.buscarIdsAposCursor(cursor.getCriadoEm(), cursor.getId(), Limit.of(limite));
+        return buscarNaOrdem(ids);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportarPedidos(FiltroExportacao filtro, Consumer<Pedido> consumidor) {
+        LeitorPedidosJdbc.exportar(jdbcTemplate, filtro, consumidor);
+    }
+
+    /**
+     * Mantém a ordem dos ids. Um pedido apagado entre a consulta dos ids e a dos pedidos fica fora do resultado.
+     */
+    private List<Pedido> buscarNaOrdem(List<Long> ids) {
+        Map<Long, PedidoEntity> pedidosPorId = buscarComItensPorIds(ids);
+        return ids.stream()
+                .map(pedidosPorId::get)
+                .filter(Objects::nonNull)
+                .map(pedidoMapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Página ou cursor vazio não vai ao banco.
+     */
+    private Map<Long, PedidoEntity> buscarComItensPorIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return pedidoRepository.buscarComItensPorIds(ids).stream()
+                .collect(Collectors.toMap(PedidoEntity::getId, Function.identity()));
     }
 
     @Transactional(readOnly = true)
@@ -37,11 +114,58 @@ public class PedidoPersistance implements PedidoPersistancePort {
         return pedidoEntityOptional.map(pedidoMapper::toDomain);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<byte[]> buscarPedidoJsonPorId(Long id) {
+        return LeitorPedidosJdbc.buscarJson(jdbcTemplate, objectMapper.getFactory(), id);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public boolean buscarPedidoPorIdExterno(String id) {
-        Optional<PedidoEntity> pedidoOptional = pedidoRepository.buscarPedidoPorIdExterno(id);
-        return pedidoOptional.isPresent();
+        return pedidoRepository.existsByIdExterno(id);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Set<String> buscarIdsExternosExistentes(Collection<String> idsExternos) {
+        if (idsExternos.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(pedidoRepository.buscarIdsExternosExistentes(idsExternos));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void percorrerIdsExternos(Consumer<String> consumidor) {
+        try (Stream<String> idsExternos = pedidoRepository.listarTodosIdsExternos()) {
+            idsExternos.forEach(consumidor);
+        }
+    }
+
+    @Transactional
+    @Override
+    public Optional<Pedido> inserirPedidoSeNovo(Pedido pedido) {
+        LocalDateTime agora = LocalDateTime.now();
+        Optional<Long> idGerado = pedidoRepository.inserirSeNaoExistir(
+                pedido.getIdExterno(), pedido.getStatus().name(), pedido.getValorTotal(), agora);
+        if (idGerado.isEmpty()) {
+            return Optional.empty();
+        }
+
+        PedidoEntity pedidoEntity = pedidoMapper.toEntity(pedido);
+        pedidoEntity.setId(idGerado.get());
+        pedidoEntity.setCreatedAt(agora);
+        pedidoEntity.setUpdatedAt(agora);
+
+        PedidoEntity referencia = pedidoRepository.getReferenceById(idGerado.get());
+        for (ItemEntity itemEntity : pedidoEntity.getItens()) {
+            itemEntity.setPedido(referencia);
+            entityManager.persist(itemEntity);
+        }
+        Pedido pedidoSalvo = pedidoMapper.toDomain(pedidoEntity);
+        pedidoSalvo.setRastreamento(pedido.getRastreamento());
+        return Optional.of(pedidoSalvo);
     }
 
     @Transactional
@@ -51,6 +175,62 @@ public class PedidoPersistance implements PedidoPersistancePort {
         return pedidoMapper.toDomain(pedidoRepository.save(pedidoEntity));
     }
 
+    @Transactional
+    @Override
+    public boolean atualizarStatus(Long id, StatusPedido atual, StatusPedido novo) {
+        return pedidoRepository.atualizarStatus(id, atual, novo, LocalDateTime.now()) == 1;
+    }
+
+    /**
+     * A linha do outbox entra na mesma transação da troca de status: ou os dois ficam gravados, ou nenhum.
+     */
+    @Transactional
+    @Override
+    public boolean atualizarStatusERegistrarEvento(Long id, StatusPedido atual, StatusPedido novo, PedidoResponseDto evento) {
+        if (pedidoRepository.atualizarStatus(id, atual, novo, LocalDateTime.now()) != 1) {
+            return false;
+        }
+        pedidoOutboxRepository.save(criarEvento(evento));
+        return true;
+    }
+
+    @Transactional
+    @Override
+    public List<Pedido> salvarPedidos(List<Pedido> pedidos) {
+        List<PedidoEntity> pedidoEntities = pedidos.stream()
+                .map(pedidoMapper::toEntity)
+                .collect(Collectors.toList());
+        List<Pedido> pedidosSalvos = pedidoMapper.toDomain(pedidoRepository.saveAll(pedidoEntities));
+        for (int i = 0; i < pedidosSalvos.size(); i++) {
+            pedidosSalvos.get(i).setRastreamento(pedidos.get(i).getRastreamento());
+        }
+        return pedidosSalvos;
+    }
+
+    @Transactional
+    @Override
+    public List<Pedido> salvarPedidosERegistrarEventos(List<Pedido> pedidos) {
+        List<Pedido> pedidosSalvos = salvarPedidos(pedidos);
+        pedidoOutboxRepository.saveAll(pedidosSalvos.stream()
+                .map(pedido -> criarEvento(pedidoMapper.toResponseDto(pedido)))
+                .collect(Collectors.toList()));
+        return pedidosSalvos;
+    }
+
+    private PedidoOutboxEntity criarEvento(PedidoResponseDto evento) {
+        try {
+            return PedidoOutboxEntity.builder()
+                    .pedidoId(evento.getId())
+                    .idExterno(evento.getIdExterno())
+                    .payload(objectMapper.writeValueAsString(evento))
+                    .traceId(evento.getRastreamento() != null ? evento.getRastreamento().getTraceId() : null)
+                    .produzidoEm(evento.getRastreamento() != null ? evento.getRastreamento().getProduzidoEm() : null)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o evento do pedido " + evento.getId(), e);
+        }
+    }
+
     @Transactional
     @Override
     public void deletarPedido(Long id) {
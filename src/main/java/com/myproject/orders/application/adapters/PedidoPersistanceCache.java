@@ -0,0 +1,182 @@
+package com.myproject.orders.application.adapters;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Primary
+@Component
+public class PedidoPersistanceCache implements PedidoPersistancePort, MeterBinder {
+
+    private static final String NOME_CACHE = "pedidos";
+
+    @Autowired
+    @Qualifier("pedidoPersistance")
+    private PedidoPersistancePort pedidoPersistance;
+
+    private final AsyncCache<Long, Pedido> pedidosPorId;
+
+    public PedidoPersistanceCache(@Value("${pedidos.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                                  @Value("${pedidos.cache.ttl-segundos:300}") long ttlSegundos) {
+        this.pedidosPorId = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * A leitura no banco acontece fora do lock do mapa do cache: dentro dele só entra um future vazio.
+     * Com {@code Cache.get(chave, loader)} a consulta rodaria dentro de um bloco synchronized do
+     * ConcurrentHashMap e prenderia a thread carregadora quando a requisição roda numa thread virtual.
+     * Leituras concorrentes da mesma chave continuam esperando uma única consulta.
+     */
+    @Override
+    public Optional<Pedido> buscarPedidoPorId(Long id) {
+        CompletableFuture<Pedido> carga = new CompletableFuture<>();
+        AtomicBoolean responsavelPelaCarga = new AtomicBoolean();
+        CompletableFuture<Pedido> pedido = pedidosPorId.get(id, (chave, executor) -> {
+            responsavelPelaCarga.set(true);
+            return carga;
+        });
+        if (responsavelPelaCarga.get()) {
+            try {
+                carga.complete(pedidoPersistance.buscarPedidoPorId(id).orElse(null));
+            } catch (Throwable e) {
+                // Qualquer falha, inclusive Error, precisa concluir o future; senão as leituras seguintes da chave
+                // ficariam presas no join() para sempre.
+                carga.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(pedido.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException causa ? causa : e;
+        }
+    }
+
+    @Override
+    public Optional<byte[]> buscarPedidoJsonPorId(Long id) {
+        return pedidoPersistance.buscarPedidoJsonPorId(id);
+    }
+
+    @Override
+    public Page<Pedido> listarPedidos(Pageable pageable) {
+        return pedidoPersistance.listarPedidos(pageable);
+    }
+
+    @Override
+    public List<Pedido> listarPedidosAposCursor(CursorPedido cursor, int limite) {
+        return pedidoPersistance.listarPedidosAposCursor(cursor, limite);
+    }
+
+    @Override
+    public void exportarPedidos(FiltroExportacao filtro, Consumer<Pedido> consumidor) {
+        pedidoPersistance.exportarPedidos(filtro, consumidor);
+    }
+
+    @Override
+    public boolean buscarPedidoPorIdExterno(String id) {
+        return pedidoPersistance.buscarPedidoPorIdExterno(id);
+    }
+
+    @Override
+    public Set<String> buscarIdsExternosExistentes(Collection<String> idsExternos) {
+        return pedidoPersistance.buscarIdsExternosExistentes(idsExternos);
+    }
+
+    @Override
+    public void percorrerIdsExternos(Consumer<String> consumidor) {
+        pedidoPersistance.percorrerIdsExternos(consumidor);
+    }
+
+    @Override
+    public Optional<Pedido> inserirPedidoSeNovo(Pedido pedido) {
+        return pedidoPersistance.inserirPedidoSeNovo(pedido);
+    }
+
+    @Override
+    public Pedido salvarPedido(Pedido pedido) {
+        Pedido pedidoSalvo = pedidoPersistance.salvarPedido(pedido);
+        pedidosPorId.synchronous().invalidate(pedidoSalvo.getId());
+        return pedidoSalvo;
+    }
+
+    @Override
+    public boolean atualizarStatus(Long id, StatusPedido atual, StatusPedido novo) {
+        boolean atualizado = pedidoPersistance.atualizarStatus(id, atual, novo);
+        pedidosPorId.synchronous().invalidate(id);
+        return atualizado;
+    }
+
+    @Override
+    public boolean atualizarStatusERegistrarEvento(Long id, StatusPedido atual, StatusPedido novo, PedidoResponseDto evento) {
+        boolean atualizado = pedidoPersistance.atualizarStatusERegistrarEvento(id, atual, novo, evento);
+        pedidosPorId.synchronous().invalidate(id);
+        return atualizado;
+    }
+
+    @Override
+    public List<Pedido> salvarPedidos(List<Pedido> pedidos) {
+        List<Pedido> pedidosSalvos = pedidoPersistance.salvarPedidos(pedidos);
+        invalidar(pedidosSalvos);
+        return pedidosSalvos;
+    }
+
+    @Override
+    public List<Pedido> salvarPedidosERegistrarEventos(List<Pedido> pedidos) {
+        List<Pedido> pedidosSalvos = pedidoPersistance.salvarPedidosERegistrarEventos(pedidos);
+        invalidar(pedidosSalvos);
+        return pedidosSalvos;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        CompletableFuture<Pedido> pedido = pedidosPorId.getIfPresent(id);
+        boolean emCache = pedido != null && pedido.isDone() && !pedido.isCompletedExceptionally() && pedido.join() != null;
+        return emCache || pedidoPersistance.existsById(id);
+    }
+
+    @Override
+    public void deletarPedido(Long id) {
+        pedidoPersistance.deletarPedido(id);
+        pedidosPorId.synchronous().invalidate(id);
+    }
+
+    private void invalidar(List<Pedido> pedidos) {
+        pedidosPorId.synchronous().invalidateAll(pedidos.stream().map(Pedido::getId).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pedidosPorId.synchronous(), NOME_CACHE);
+    }
+}
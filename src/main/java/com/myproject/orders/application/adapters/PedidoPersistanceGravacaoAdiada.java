@@ -0,0 +1,279 @@
+package com.myproject.orders.application.adapters;
+
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.exception.PedidoDuplicadoException;
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Gravação adiada (write-behind) do modo {@code pedidos.entrada.modo=gravacao-adiada}. {@link #agendarGravacao}
+ * só coloca o pedido num buffer limitado; uma thread grava o buffer a cada {@code lote} pedidos ou quando o mais
+ * antigo completa {@code espera-maxima-ms}, numa única transação com inserts em lote, e conclui o futuro de cada
+ * pedido depois do commit. Quem agenda reage à conclusão em {@link #executorDeConclusao()}, para que acks e
+ * publicações não tomem o tempo da thread de gravação. Buffer cheio bloqueia quem agenda. Se a transação do grupo falhar, cada pedido é
+ * gravado sozinho, para que um pedido ruim não derrube o grupo inteiro. Só a gravação passa por aqui: as
+ * consultas continuam no {@link PedidoPersistancePort} de sempre.
+ */
+@Component
+@ConditionalOnProperty(name = "pedidos.entrada.modo", havingValue = "gravacao-adiada")
+public class PedidoPersistanceGravacaoAdiada {
+
+    private static final Logger logger = LoggerFactory.getLogger(PedidoPersistanceGravacaoAdiada.class);
+
+    private static final long ESPERA_POLL_MS = 100;
+
+    @Autowired
+    @Qualifier("pedidoPersistanceCache")
+    private PedidoPersistancePort pedidoPersistance;
+
+    @Value("${pedidos.saida.outbox.habilitado:true}")
+    private boolean outboxHabilitado;
+
+    private final BlockingQueue<GravacaoPendente> buffer;
+    private final int tamanhoLote;
+    private final long esperaMaximaNanos;
+    private final ExecutorService gravador;
+    private final ExecutorService conclusao;
+
+    private final DistributionSummary tamanhoDoGrupo;
+    private final Timer duracaoDoCommit;
+    private final Timer latencia;
+    private final Counter gruposComFalha;
+    private volatile boolean ativo;
+
+    public PedidoPersistanceGravacaoAdiada(MeterRegistry registry,
+                                           @Value("${pedidos.persistencia.gravacao-adiada.capacidade:2048}") int capacidade,
+                                           @Value("${pedidos.persistencia.gravacao-adiada.lote:200}") int tamanhoLote,
+                                           @Value("${pedidos.persistencia.gravacao-adiada.espera-maxima-ms:10}") long esperaMaximaMs,
+                                           @Value("${pedidos.persistencia.gravacao-adiada.threads-conclusao:2}") int threadsConclusao) {
+        this.buffer = new ArrayBlockingQueue<>(capacidade);
+        this.tamanhoLote = tamanhoLote;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.gravador = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "gravacao-adiada");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger contadorConclusao = new AtomicInteger();
+        this.conclusao = Executors.newFixedThreadPool(threadsConclusao, tarefa -> {
+            Thread thread = new Thread(tarefa, "gravacao-adiada-conclusao-" + contadorConclusao.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tamanhoDoGrupo = DistributionSummary.builder("pedidos.persistencia.gravacao-adiada.grupo")
+                .description("Pedidos gravados por transação")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.duracaoDoCommit = Timer.builder("pedidos.persistencia.gravacao-adiada.commit")
+                .description("Duração da transação de cada grupo")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.latencia = Timer.builder("pedidos.persistencia.gravacao-adiada.latencia")
+                .description("Tempo entre o agendamento do pedido e o commit do seu grupo")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.gruposComFalha = Counter.builder("pedidos.persistencia.gravacao-adiada.falhas")
+                .description("Grupos cuja transação falhou e foram gravados pedido a pedido")
+                .register(registry);
+        Gauge.builder("pedidos.persistencia.gravacao-adiada.buffer", buffer, BlockingQueue::size)
+                .description("Pedidos aguardando gravação")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        gravador.execute(this::gravarContinuamente);
+        logger.info("Gravação adiada iniciada (lote: {}, espera máxima: {} ms).", tamanhoLote, TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos));
+    }
+
+    /**
+     * Os listeners param antes deste bean, então o que ainda está no buffer é gravado antes de a thread terminar, e
+     * as conclusões desses pedidos rodam antes de o executor de conclusão parar.
+     */
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        gravador.shutdown();
+        if (!gravador.awaitTermination(5, TimeUnit.SECONDS)) {
+            gravador.shutdownNow();
+        }
+        conclusao.shutdown();
+        if (!conclusao.awaitTermination(5, TimeUnit.SECONDS)) {
+            conclusao.shutdownNow();
+        }
+        logger.info("Gravação adiada parada; mensagens sem ack serão reentregues pelo broker.");
+    }
+
+    /**
+     * Executor em que quem agenda deve tratar a conclusão do futuro ({@code whenCompleteAsync}). O futuro é concluído
+     * na thread de gravação, e um callback síncrono ali atrasaria o grupo seguinte.
+     */
+    public Executor executorDeConclusao() {
+        return conclusao;
+    }
+
+    /**
+     * Bloqueia enquanto o buffer estiver cheio. O futuro é concluído pela thread de gravação: com o pedido salvo
+     * depois do commit, ou com o erro da gravação individual ({@link PedidoDuplicadoException} se o idExterno já
+     * existir). Se a thread de gravação tiver parado, o pedido é recusado com {@link IllegalStateException}.
+     */
+    public CompletableFuture<Pedido> agendarGravacao(Pedido pedido) {
+        if (!ativo) {
+            throw new IllegalStateException(format("Gravação adiada parada; pedido {0} não foi aceito.", pedido.getIdExterno()));
+        }
+        GravacaoPendente pendente = new GravacaoPendente(pedido);
+        try {
+            buffer.put(pendente);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(format("Interrompido ao agendar a gravação do pedido {0}.", pedido.getIdExterno()), e);
+        }
+        if (!ativo && buffer.remove(pendente)) {
+            // A thread parou entre a verificação acima e o put, e já esvaziou o buffer: ninguém gravaria o pedido.
+            throw new IllegalStateException(format("Gravação adiada parada; pedido {0} não foi aceito.", pedido.getIdExterno()));
+        }
+        return pendente.futuro;
+    }
+
+    /**
+     * Ao sair do laço, por parada ou por erro inesperado, {@code ativo} fica falso antes de o buffer ser esvaziado,
+     * para que {@link #agendarGravacao} passe a recusar pedidos em vez de bloquear os listeners num buffer que
+     * ninguém mais consome. O grupo em andamento e o que restou no buffer falham e voltam pela retentativa.
+     */
+    private void gravarContinuamente() {
+        List<GravacaoPendente> grupo = List.of();
+        try {
+            while (ativo || !buffer.isEmpty()) {
+                GravacaoPendente primeiro = buffer.poll(ESPERA_POLL_MS, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                grupo = new ArrayList<>(tamanhoLote);
+                grupo.add(primeiro);
+                completarGrupo(grupo, primeiro.agendadoEm + esperaMaximaNanos);
+                gravar(grupo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Erro inesperado na thread de gravação adiada; novos pedidos serão recusados: {}", e.getMessage(), e);
+        }
+        ativo = false;
+        List<GravacaoPendente> restantes = new ArrayList<>(grupo);
+        buffer.drainTo(restantes);
+        restantes.forEach(pendente -> pendente.futuro.completeExceptionally(
+                new IllegalStateException("Gravação adiada parada antes de gravar o pedido " + pendente.pedido.getIdExterno())));
+    }
+
+    /**
+     * Junta o que já está no buffer e espera pelo resto do grupo até o prazo do pedido mais antigo.
+     */
+    private void completarGrupo(List<GravacaoPendente> grupo, long prazo) throws InterruptedException {
+        while (grupo.size() < tamanhoLote) {
+            if (buffer.drainTo(grupo, tamanhoLote - grupo.size()) > 0) {
+                continue;
+            }
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0) {
+                return;
+            }
+            GravacaoPendente pendente = buffer.poll(restante, TimeUnit.NANOSECONDS);
+            if (pendente == null) {
+                return;
+            }
+            grupo.add(pendente);
+        }
+    }
+
+    private void gravar(List<GravacaoPendente> grupo) {
+        tamanhoDoGrupo.record(grupo.size());
+        List<Pedido> pedidos = grupo.stream().map(pendente -> pendente.pedido).collect(Collectors.toList());
+        List<Pedido> pedidosSalvos;
+        long inicio = System.nanoTime();
+        try {
+            pedidosSalvos = salvar(pedidos);
+            duracaoDoCommit.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            gruposComFalha.increment();
+            logger.warn("Falha ao gravar grupo com {} pedidos, gravando individualmente. Erro: {}", grupo.size(), e.getMessage());
+            grupo.forEach(this::gravarIsolado);
+            return;
+        }
+        for (int i = 0; i < grupo.size(); i++) {
+            concluir(grupo.get(i), pedidosSalvos.get(i));
+        }
+    }
+
+    private void gravarIsolado(GravacaoPendente pendente) {
+        try {
+            concluir(pendente, salvar(List.of(pendente.pedido)).get(0));
+        } catch (Exception e) {
+            pendente.futuro.completeExceptionally(traduzirFalha(pendente.pedido, e));
+        }
+    }
+
+    /**
+     * Sozinho, o pedido só falha por violar a unicidade do idExterno ou por erro do banco; o primeiro caso vira
+     * {@link PedidoDuplicadoException}, que não deve ser retentado.
+     */
+    private Exception traduzirFalha(Pedido pedido, Exception erro) {
+        try {
+            if (pedidoPersistance.buscarPedidoPorIdExterno(pedido.getIdExterno())) {
+                return new PedidoDuplicadoException(format("Pedido com ID Externo {0} já existe no sistema.", pedido.getIdExterno()));
+            }
+        } catch (Exception consulta) {
+            erro.addSuppressed(consulta);
+        }
+        logger.error("Erro ao gravar o pedido {} fora do grupo: {}", pedido.getIdExterno(), erro.getMessage(), erro);
+        return erro;
+    }
+
+    private List<Pedido> salvar(List<Pedido> pedidos) {
+        return outboxHabilitado
+                ? pedidoPersistance.salvarPedidosERegistrarEventos(pedidos)
+                : pedidoPersistance.salvarPedidos(pedidos);
+    }
+
+    private void concluir(GravacaoPendente pendente, Pedido pedidoSalvo) {
+        latencia.record(System.nanoTime() - pendente.agendadoEm, TimeUnit.NANOSECONDS);
+        pendente.futuro.complete(pedidoSalvo);
+    }
+
+    private static final class GravacaoPendente {
+        private final Pedido pedido;
+        private final long agendadoEm = System.nanoTime();
+        private final CompletableFuture<Pedido> futuro = new CompletableFuture<>();
+
+        private GravacaoPendente(Pedido pedido) {
+            this.pedido = pedido;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.myproject.orders.application.adapters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.Item;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Mesma persistência de {@link PedidoPersistance} em {@code JdbcTemplate}, sem contexto de persistência: nada de
+ * dirty checking, merge no {@code save} nem proxies. Inserções de pedidos, itens e eventos do outbox vão em
+ * {@code batchUpdate}. Ativado com {@code pedidos.persistencia.adapter=jdbc}; o esquema continua sendo o das
+ * entidades JPA, e o relay do outbox continua em JPA.
+ */
+@Component("pedidoPersistance")
+@ConditionalOnProperty(name = "pedidos.persistencia.adapter", havingValue = "jdbc")
+public class PedidoPersistanceJdbc implements PedidoPersistancePort {
+
+    /**
+     * Mesmo {@code allocationSize} das entidades: cada valor da sequência reserva o bloco que termina nele, como no
+     * otimizador pooled do Hibernate, então os dois adaptadores podem se alternar sobre o mesmo banco.
+     */
+    private static final int TAMANHO_BLOCO_IDS = 50;
+
+    private static final int TAMANHO_LOTE_LEITURA_IDS = 10000;
+
+    private static final Map<String, String> COLUNAS_ORDENAVEIS = Map.of(
+            "id", "id",
+            "idExterno", "id_externo",
+            "status", "status",
+            "valorTotal", "valor_total",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private static final String SQL_INSERIR_PEDIDO = "INSERT INTO pedido (id, id_externo, status, valor_total, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Sem alvo no {@code ON CONFLICT}: o id vem da sequência, então só a unicidade do idExterno pode conflitar, e a
+     * forma sem alvo também roda no H2 em modo PostgreSQL dos testes de contrato.
+     */
+    private static final String SQL_INSERIR_PEDIDO_SE_NOVO = SQL_INSERIR_PEDIDO + " ON CONFLICT DO NOTHING";
+
+    private static final String SQL_ATUALIZAR_PEDIDO = "UPDATE pedido SET id_externo = ?, status = ?, valor_total = ?, updated_at = ? " +
+            "WHERE id = ?";
+
+    private static final String SQL_INSERIR_ITEM = "INSERT INTO item (id, produto_id, valor_unitario, quantidade, valor_total_item, " +
+            "pedido_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_INSERIR_EVENTO = "INSERT INTO pedido_outbox (id, pedido_id, id_externo, payload, tentativas, " +
+            "trace_id, produzido_em, created_at, updated_at) VALUES (?, ?, ?, ?, 0, ?, ?, ?, ?)";
+
+    private static final String SQL_ATUALIZAR_STATUS = "UPDATE pedido SET status = ?, updated_at = ? WHERE id = ? AND status = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PedidoMapper pedidoMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final SequenciaEmBlocos idsPedido = new SequenciaEmBlocos("pedido_seq");
+    private final SequenciaEmBlocos idsItem = new SequenciaEmBlocos("item_seq");
+    private final SequenciaEmBlocos idsEvento = new SequenciaEmBlocos("pedido_outbox_seq");
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Pedido> listarPedidos(Pageable pageable) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM pedido");
+        List<String> ordenacao = new ArrayList<>();
+        for (Sort.Order ordem : pageable.getSort()) {
+            String coluna = COLUNAS_ORDENAVEIS.get(ordem.getProperty());
+            if (coluna == null) {
+                throw new IllegalArgumentException("Propriedade de ordenação desconhecida: " + ordem.getProperty());
+            }
+            ordenacao.add(coluna + (ordem.isAscending() ? " ASC" : " DESC"));
+        }
+        if (!ordenacao.isEmpty()) {
+            sql.append(" ORDER BY ").append(String.join(", ", ordenacao));
+        }
+        if (pageable.isPaged()) {
+            sql.append(" LIMIT ").append(pageable.getPageSize()).append(" OFFSET ").append(pageable.getOffset());
+        }
+        List<Long> ids = jdbcTemplate.queryForList(sql.toString(), Long.class);
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pedido", Long.class);
+        return new PageImpl<>(LeitorPedidosJdbc.buscarPorIds(jdbcTemplate, ids), pageable, total == null ? 0 : total);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Pedido> listarPedidosAposCursor(CursorPedido cursor, int limite) {
+        List<Long> ids = cursor == null
+                ? jdbcTemplate.queryForList("SELECT id FROM pedido ORDER BY created_at, id LIMIT ?", Long.class, limite)
+                : jdbcTemplate.queryForList("SELECT id FROM pedido WHERE created_at >= ? AND (created_at > ? OR id > ?) " +
+                        "ORDER BY created_at, id LIMIT ?", Long.class,
+                cursor.getCriadoEm(), cursor.getCriadoEm(), cursor.getId(), limite);
+        return LeitorPedidosJdbc.buscarPorIds(jdbcTemplate, ids);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportarPedidos(FiltroExportacao filtro, Consumer<Pedido> consumidor) {
+        LeitorPedidosJdbc.exportar(jdbcTemplate, filtro, consumidor);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<Pedido> buscarPedidoPorId(Long id) {
+        return LeitorPedidosJdbc.buscarPorId(jdbcTemplate, id);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<byte[]> buscarPedidoJsonPorId(Long id) {
+        return LeitorPedidosJdbc.buscarJson(jdbcTemplate, objectMapper.getFactory(), id);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public boolean buscarPedidoPorIdExterno(String id) {
+        return contar("SELECT COUNT(*) FROM pedido WHERE id_externo = ?", id) > 0;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Set<String> buscarIdsExternosExistentes(Collection<String> idsExternos) {
+        if (idsExternos.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id_externo FROM pedido WHERE id_externo IN (" +
+                LeitorPedidosJdbc.marcadores(idsExternos.size()) + ")", String.class, idsExternos.toArray()));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void percorrerIdsExternos(Consumer<String> consumidor) {
+        jdbcTemplate.query(conexao -> {
+            PreparedStatement comando = conexao.prepareStatement("SELECT id_externo FROM pedido",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            comando.setFetchSize(TAMANHO_LOTE_LEITURA_IDS);
+            return comando;
+        }, (RowCallbackHandler) linha -> consumidor.accept(linha.getString(1)));
+    }
+
+    /**
+     * O id é reservado antes do INSERT; se o idExterno já existir ele é descartado, como acontece com a sequência
+     * no adaptador JPA.
+     */
+    @Transactional
+    @Override
+    public Optional<Pedido> inserirPedidoSeNovo(Pedido pedido) {
+        LocalDateTime agora = LocalDateTime.now();
+        Pedido pedidoSalvo = copiarComIds(pedido, agora);
+        if (jdbcTemplate.update(SQL_INSERIR_PEDIDO_SE_NOVO, parametrosPedido(pedidoSalvo)) == 0) {
+            return Optional.empty();
+        }
+        inserirItens(List.of(pedidoSalvo));
+        return Optional.of(pedidoSalvo);
+    }
+
+    /**
+     * Pedido com id é atualizado e tem os itens regravados, como o merge com {@code orphanRemoval} do JPA.
+     */
+    @Transactional
+    @Override
+    public Pedido salvarPedido(Pedido pedido) {
+        if (pedido.getId() == null) {
+            return salvarPedidos(List.of(pedido)).get(0);
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        jdbcTemplate.update(SQL_ATUALIZAR_PEDIDO, pedido.getIdExterno(), pedido.getStatus().name(), pedido.getValorTotal(),
+                agora, pedido.getId());
+        jdbcTemplate.update("DELETE FROM item WHERE pedido_id = ?", pedido.getId());
+        Pedido pedidoSalvo = copiarComIds(pedido, agora);
+        pedidoSalvo.setCreatedAt(pedido.getCreatedAt());
+        inserirItens(List.of(pedidoSalvo));
+        return pedidoSalvo;
+    }
+
+    @Transactional
+    @Override
+    public boolean atualizarStatus(Long id, StatusPedido atual, StatusPedido novo) {
+        return jdbcTemplate.update(SQL_ATUALIZAR_STATUS, novo.name(), LocalDateTime.now(), id, atual.name()) == 1;
+    }
+
+    /**
+     * A linha do outbox entra na mesma transação da troca de status: ou os dois ficam gravados, ou nenhum.
+     */
+    @Transactional
+    @Override
+    public boolean atualizarStatusERegistrarEvento(Long id, StatusPedido atual, StatusPedido novo, PedidoResponseDto evento) {
+        if (!atualizarStatus(id, atual, novo)) {
+            return false;
+        }
+        inserirEventos(List.of(evento));
+        return true;
+    }
+
+    @Transactional
+    @Override
+    public List<Pedido> salvarPedidos(List<Pedido> pedidos) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Pedido> pedidosSalvos = pedidos.stream()
+                .map(pedido -> copiarComIds(pedido, agora))
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(SQL_INSERIR_PEDIDO, pedidosSalvos.stream()
+                .map(this::parametrosPedido)
+                .collect(Collectors.toList()));
+        inserirItens(pedidosSalvos);
+        return pedidosSalvos;
+    }
+
+    @Transactional
+    @Override
+    public List<Pedido> salvarPedidosERegistrarEventos(List<Pedido> pedidos) {
+        List<Pedido> pedidosSalvos = salvarPedidos(pedidos);
+        inserirEventos(pedidosSalvos.stream()
+                .map(pedidoMapper::toResponseDto)
+                .collect(Collectors.toList()));
+        return pedidosSalvos;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public boolean existsById(Long id) {
+        return contar("SELECT COUNT(*) FROM pedido WHERE id = ?", id) > 0;
+    }
+
+    @Transactional
+    @Override
+    public void deletarPedido(Long id) {
+        jdbcTemplate.update("DELETE FROM item WHERE pedido_id = ?", id);
+        jdbcTemplate.update("DELETE FROM pedido WHERE id = ?", id);
+    }
+
+    private long contar(String sql, Object parametro) {
+        Long total = jdbcTemplate.queryForObject(sql, Long.class, parametro);
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Cópia do pedido com ids novos (o do pedido só se ainda não tiver) e datas de gravação, como o {@code save}
+     * do JPA devolve uma instância nova.
+     */
+    private Pedido copiarComIds(Pedido pedido, LocalDateTime agora) {
+        Long id = pedido.getId() != null ? pedido.getId() : idsPedido.proximo(jdbcTemplate);
+        List<Item> itens = new ArrayList<>();
+        if (pedido.getItens() != null) {
+            for (Item item : pedido.getItens()) {
+                itens.add(new Item(item.getId() != null ? item.getId() : idsItem.proximo(jdbcTemplate), item.getProdutoId(),
+                        item.getValorUnitario(), item.getQuantidade(), item.getValorTotalItem(), null,
+                        item.getCreatedAt() != null ? item.getCreatedAt() : agora, agora));
+            }
+        }
+        return new Pedido(id, pedido.getIdExterno(), pedido.getStatus(), pedido.getValorTotal(), itens, agora, agora,
+                pedido.getRastreamento());
+    }
+
+    private Object[] parametrosPedido(Pedido pedido) {
+        return new Object[]{pedido.getId(), pedido.getIdExterno(), pedido.getStatus().name(), pedido.getValorTotal(),
+                pedido.getCreatedAt(), pedido.getUpdatedAt()};
+    }
+
+    private void inserirItens(List<Pedido> pedidos) {
+        List<Object[]> parametros = new ArrayList<>();
+        for (Pedido pedido : pedidos) {
+            for (Item item : pedido.getItens()) {
+                parametros.add(new Object[]{item.getId(), item.getProdutoId(), item.getValorUnitario(), item.getQuantidade(),
+                        item.getValorTotalItem(), pedido.getId(), item.getCreatedAt(), item.getUpdatedAt()});
+            }
+        }
+        if (!parametros.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERIR_ITEM, parametros);
+        }
+    }
+
+    private void inserirEventos(List<PedidoResponseDto> eventos) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Object[]> parametros = new ArrayList<>(eventos.size());
+        for (PedidoResponseDto evento : eventos) {
+            parametros.add(new Object[]{idsEvento.proximo(jdbcTemplate), evento.getId(), evento.getIdExterno(), serializar(evento),
+                    evento.getRastreamento() != null ? evento.getRastreamento().getTraceId() : null,
+                    evento.getRastreamento() != null ? evento.getRastreamento().getProduzidoEm() : null,
+                    agora, agora});
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERIR_EVENTO, parametros);
+    }
+
+    private String serializar(PedidoResponseDto evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o evento do pedido " + evento.getId(), e);
+        }
+    }
+
+    /**
+     * Reserva ids em blocos de {@link #TAMANHO_BLOCO_IDS}: uma ida ao banco a cada 50 ids.
+     */
+    private static class SequenciaEmBlocos {
+
+        private final String sequencia;
+        private DataFieldMaxValueIncrementer incrementador;
+        private long proximo = 1;
+        private long ultimo;
+
+        private SequenciaEmBlocos(String sequencia) {
+            this.sequencia = sequencia;
+        }
+
+        private synchronized long proximo(JdbcTemplate jdbcTemplate) {
+            if (proximo > ultimo) {
+                if (incrementador == null) {
+                    incrementador = criarIncrementador(jdbcTemplate.getDataSource());
+                }
+                ultimo = incrementador.nextLongValue();
+                proximo = Math.max(1, ultimo - TAMANHO_BLOCO_IDS + 1);
+            }
+            return proximo++;
+        }
+
+        private DataFieldMaxValueIncrementer criarIncrementador(DataSource dataSource) {
+            try {
+                String banco = JdbcUtils.commonDatabaseName(
+                        JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+                return "H2".equals(banco)
+                        ? new H2SequenceMaxValueIncrementer(dataSource, sequencia)
+                        : new PostgresSequenceMaxValueIncrementer(dataSource, sequencia);
+            } catch (Exception e) {
+                throw new IllegalStateException("Não foi possível identificar o banco para a sequência " + sequencia, e);
+            }
+        }
+    }
+}
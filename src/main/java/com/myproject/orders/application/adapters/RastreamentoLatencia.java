@@ -0,0 +1,87 @@
+package com.myproject.orders.application.adapters;
+
+import com.myproject.orders.application.presenters.responses.LatenciaEstagioResponseDto;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Um timer {@code pedidos.latencia{estagio}} por estágio, com percentis calculados na aplicação sobre uma janela
+ * deslizante (para o endpoint) e histograma publicado (para agregar entre instâncias no backend de métricas).
+ * Contagem e média são acumuladas desde a subida da aplicação; percentis e máximo valem só para a janela.
+ */
+@Component
+public class RastreamentoLatencia implements RastreamentoPort {
+
+    private static final double[] PERCENTIS = {0.5, 0.99, 0.999};
+
+    private final Map<EstagioLatencia, Timer> timers = new EnumMap<>(EstagioLatencia.class);
+
+    public RastreamentoLatencia(MeterRegistry registry,
+                                @Value("${pedidos.latencia.janela-segundos:120}") long janelaSegundos) {
+        for (EstagioLatencia estagio : EstagioLatencia.values()) {
+            timers.put(estagio, Timer.builder("pedidos.latencia")
+                    .description("Tempo gasto pelo pedido em cada estágio, do enfileiramento à publicação em pedidos.saida")
+                    .tag("estagio", estagio.name().toLowerCase())
+                    .publishPercentiles(PERCENTIS)
+                    .percentilePrecision(2)
+                    .publishPercentileHistogram()
+                    .distributionStatisticExpiry(Duration.ofSeconds(janelaSegundos))
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public void registrar(EstagioLatencia estagio, long duracaoNanos) {
+        if (duracaoNanos >= 0) {
+            timers.get(estagio).record(duracaoNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void registrarDesdeProducao(EstagioLatencia estagio, Rastreamento rastreamento) {
+        if (rastreamento != null && rastreamento.getProduzidoEm() != null) {
+            registrar(estagio, TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - rastreamento.getProduzidoEm()));
+        }
+    }
+
+    @Override
+    public List<LatenciaEstagioResponseDto> resumir() {
+        return timers.entrySet().stream()
+                .map(entrada -> resumir(entrada.getKey(), entrada.getValue().takeSnapshot()))
+                .collect(Collectors.toList());
+    }
+
+    private static LatenciaEstagioResponseDto resumir(EstagioLatencia estagio, HistogramSnapshot snapshot) {
+        return LatenciaEstagioResponseDto.builder()
+                .estagio(estagio)
+                .contagem(snapshot.count())
+                .mediaMs(snapshot.mean(TimeUnit.MILLISECONDS))
+                .p50Ms(percentil(snapshot, 0.5))
+                .p99Ms(percentil(snapshot, 0.99))
+                .p999Ms(percentil(snapshot, 0.999))
+                .maximoMs(snapshot.max(TimeUnit.MILLISECONDS))
+                .build();
+    }
+
+    private static double percentil(HistogramSnapshot snapshot, double percentil) {
+        return Arrays.stream(snapshot.percentileValues())
+                .filter(valor -> valor.percentile() == percentil)
+                .mapToDouble(valor -> valor.value(TimeUnit.MILLISECONDS))
+                .findFirst()
+                .orElse(0);
+    }
+}
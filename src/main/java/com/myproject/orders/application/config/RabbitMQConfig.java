@@ -4,10 +4,19 @@ import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class RabbitMQConfig {
@@ -20,6 +29,37 @@ public class RabbitMQConfig {
     public static final String ROUTING_KEY_SAIDA = "pedidos.saida";
     public static final String QUEUE_PEDIDOS_ENTRADA_DLQ = "pedidos.entrada.dlq";
     public static final String EXCHANGE_DLX = "dlx.exchange";
+    public static final String EXCHANGE_RETENTATIVAS = "pedidos.retentativas.exchange";
+    public static final List<String> QUEUES_PEDIDOS_ENTRADA_ESPERA =
+            List.of("pedidos.entrada.espera.1s", "pedidos.entrada.espera.10s", "pedidos.entrada.espera.60s");
+    private static final List<Long> ESPERAS_MS = List.of(1_000L, 10_000L, 60_000L);
+    /** Carimbados pelo produtor em pedidos.entrada e repassados pela aplicação para pedidos.saida. */
+    public static final String HEADER_TRACE_ID = "x-pedidos-trace-id";
+    public static final String HEADER_PRODUZIDO_EM = "x-pedidos-produzido-em";
+
+    @Value("${pedidos.entrada.lote.tamanho:100}")
+    private int tamanhoLote;
+
+    @Value("${pedidos.entrada.lote.espera-maxima-ms:500}")
+    private long esperaMaximaLoteMs;
+
+    @Value("${pedidos.entrada.pipeline.prefetch:500}")
+    private int prefetchPipeline;
+
+    @Value("${pedidos.entrada.consumidores.minimo:1}")
+    private int consumidoresMinimo;
+
+    @Value("${pedidos.entrada.consumidores.maximo:10}")
+    private int consumidoresMaximo;
+
+    @Value("${pedidos.entrada.prefetch.minimo:10}")
+    private int prefetchMinimo;
+
+    @Value("${pedidos.entrada.autoescalonamento.habilitado:true}")
+    private boolean autoescalonamento;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuais;
 
     @Bean
     public Queue pedidosEntradaQueue() {
@@ -74,12 +114,82 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(pedidosEntradaDlqQueue).to(dlxExchange).with(QUEUE_PEDIDOS_ENTRADA_DLQ);
     }
 
+    /**
+     * Filas de espera sem consumidor: a mensagem expira pelo TTL e o dead-letter a devolve para {@code pedidos.entrada}.
+     * O TTL faz parte da declaração, então mudar um atraso exige uma fila com outro nome.
+     */
+    @Bean
+    public Declarables retentativasDeclarables() {
+        DirectExchange exchange = new DirectExchange(EXCHANGE_RETENTATIVAS);
+        List<Declarable> declaraveis = new ArrayList<>();
+        declaraveis.add(exchange);
+        for (int i = 0; i < QUEUES_PEDIDOS_ENTRADA_ESPERA.size(); i++) {
+            Queue fila = QueueBuilder.durable(QUEUES_PEDIDOS_ENTRADA_ESPERA.get(i))
+                    .ttl(ESPERAS_MS.get(i).intValue())
+                    .deadLetterExchange(EXCHANGE_PEDIDOS)
+                    .deadLetterRoutingKey(ROUTING_KEY_ENTRADA)
+                    .build();
+            declaraveis.add(fila);
+            declaraveis.add(BindingBuilder.bind(fila).to(exchange).with(fila.getName()));
+        }
+        return new Declarables(declaraveis);
+    }
+
+    /**
+     * Com o autoescalonamento ligado, quem mexe em consumidores e prefetch é o AutoescalonadorConsumidores;
+     * sem ele, fica o escalonamento próprio do container entre o mínimo e o máximo.
+     * A primeira falha já vai para o recuperador, que reagenda a mensagem numa fila de espera em vez de
+     * segurar a thread do consumidor com retentativas locais.
+     */
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               MessageRecoverer encaminhadorRetentativas) {
+        SimpleRabbitListenerContainerFactory factory = criarListenerContainerFactory(connectionFactory);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(encaminhadorRetentativas)
+                .build());
+        factory.setPrefetchCount(prefetchMinimo);
+        if (!autoescalonamento) {
+            factory.setMaxConcurrentConsumers(consumidoresMaximo);
+        }
+        return factory;
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitBatchListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = criarListenerContainerFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(tamanhoLote);
+        factory.setBatchReceiveTimeout(esperaMaximaLoteMs);
+        factory.setPrefetchCount(Math.max(tamanhoLote, AbstractMessageListenerContainer.DEFAULT_PREFETCH_COUNT));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * O listener só entrega a mensagem ao pipeline (ou à gravação adiada); o ack vem depois, do estágio de
+     * confirmação ou do commit do grupo. O prefetch limita quantas mensagens ficam em voo ao mesmo tempo.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitPipelineListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = criarListenerContainerFactory(connectionFactory);
+        factory.setPrefetchCount(prefetchPipeline);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
+    private SimpleRabbitListenerContainerFactory criarListenerContainerFactory(ConnectionFactory connectionFactory) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
         factory.setDefaultRequeueRejected(false);
+        factory.setConcurrentConsumers(consumidoresMinimo);
+        // As factories são montadas à mão, então não herdam o executor virtual que o Boot aplicaria sozinho.
+        if (threadsVirtuais && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("pedidos-listener-"));
+        }
         return factory;
     }
 
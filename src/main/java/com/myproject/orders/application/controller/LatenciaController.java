@@ -0,0 +1,32 @@
+package com.myproject.orders.application.controller;
+
+import com.myproject.orders.application.presenters.responses.LatenciaEstagioResponseDto;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/pedidos/latencias")
+public class LatenciaController {
+
+    @Autowired
+    RastreamentoPort rastreamentoPort;
+
+    @Operation(summary = "Latência por estágio", description = "Retorna p50, p99 e p999 de cada estágio do pedido, do enfileiramento à publicação em pedidos.saida, na janela recente desta instância.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Latências retornadas com sucesso."),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.")
+    })
+    @GetMapping("")
+    public ResponseEntity<List<LatenciaEstagioResponseDto>> listarLatencias() {
+        return ResponseEntity.ok(rastreamentoPort.resumir());
+    }
+}
@@ -1,11 +1,23 @@
 package com.myproject.orders.application.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.PaginaPorCursor;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
+import com.myproject.orders.domain.enums.StatusPedido;
 import com.myproject.orders.domain.ports.in.PedidoUseCasePort;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
@@ -14,13 +26,24 @@ import lombok.NoArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/pedidos")
@@ -34,6 +57,15 @@ public class PedidoController {
     @Autowired
     PedidoMapper pedidoMapper;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${pedidos.lote.http.tamanho-chunk:500}")
+    int tamanhoChunkLote;
+
+    @Value("${pedidos.leitura.projecao-direta:false}")
+    boolean projecaoDireta;
+
     private static final Logger logger = LoggerFactory.getLogger(PedidoController.class);
 
     @Operation(summary = "Buscar todos os pedidos", description = "Retorna todos os pedidos encontrados.")
@@ -55,16 +87,52 @@ public class PedidoController {
         return ResponseEntity.ok(pedidosResponseDtoPage);
     }
 
+    @Operation(summary = "Buscar pedidos por cursor", description = "Retorna a próxima página de pedidos a partir do cursor informado, em ordem de criação, sem contagem total.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de pedidos retornada com sucesso."),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido."),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginaPorCursor<PedidoResponseDto>> listarPedidosPorCursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "tamanho", defaultValue = "10") int tamanho) {
+        PaginaPorCursor<Pedido> pagina = pedidoUseCasePort.listarPedidosPorCursor(cursor, tamanho);
+        return ResponseEntity.ok(pagina.map(pedidoMapper::toResponseDto));
+    }
+
+    @Operation(summary = "Exportar pedidos", description = "Transmite os pedidos com seus itens em NDJSON, um pedido por linha, filtrando por status e período de criação.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada com sucesso."),
+            @ApiResponse(responseCode = "400", description = "Filtros inválidos."),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarPedidos(
+            @RequestParam(value = "status", required = false) StatusPedido status,
+            @RequestParam(value = "criadoDe", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime criadoDe,
+            @RequestParam(value = "criadoAte", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime criadoAte) {
+        FiltroExportacao filtro = new FiltroExportacao(status, criadoDe, criadoAte);
+        StreamingResponseBody corpo = saida -> {
+            pedidoUseCasePort.exportarPedidos(filtro, pedido -> escreverLinha(saida, pedidoMapper.toResponseDto(pedido)));
+            saida.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
+
     @Operation(summary = "Buscar pedido pelo Id.", description = "Recebe e retorna o pedido com respectivo id.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Pedido encontrado com sucesso."),
+            @ApiResponse(responseCode = "200", description = "Pedido encontrado com sucesso.",
+                    content = @Content(schema = @Schema(implementation = PedidoResponseDto.class))),
             @ApiResponse(responseCode = "400", description = "Dados da requisição inválidos."),
             @ApiResponse(responseCode = "404", description = "Pedido não encontrado."),
             @ApiResponse(responseCode = "500", description = "Erro interno no servidor.")
     })
     @GetMapping("/{id}")
-    @Cacheable(value = "pedidos", key = "#id")
-    public ResponseEntity<PedidoResponseDto> buscarPedidoPorId(@PathVariable(value = "id") Long id) {
+    public ResponseEntity<?> buscarPedidoPorId(@PathVariable(value = "id") Long id) {
+        if (projecaoDireta) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(pedidoUseCasePort.buscarPedidoJsonPorId(id));
+        }
         Pedido pedido = pedidoUseCasePort.buscarPedidoPorId(id);
         PedidoResponseDto pedidoResponseDto = pedidoMapper.toResponseDto(pedido);
         return ResponseEntity.ok(pedidoResponseDto);
@@ -85,6 +153,41 @@ public class PedidoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
     }
 
+    @Operation(summary = "Criar pedidos em lote", description = "Recebe um array JSON ou um fluxo NDJSON de PedidoRequestDto e responde em NDJSON com o resultado de cada linha.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; o resultado de cada pedido vem em sua linha."),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.")
+    })
+    @PostMapping(value = "/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> salvarPedidosEmLote(InputStream corpo) {
+        StreamingResponseBody resposta = saida -> {
+            List<PedidoRequestDto> chunk = new ArrayList<>(tamanhoChunkLote);
+            int proximaLinha = 1;
+            try (MappingIterator<PedidoRequestDto> pedidos = objectMapper.readerFor(PedidoRequestDto.class).readValues(corpo)) {
+                while (pedidos.hasNextValue()) {
+                    try {
+                        chunk.add(pedidos.nextValue());
+                    } catch (DatabindException e) {
+                        processarChunk(chunk, proximaLinha - chunk.size(), saida);
+                        escreverFalhaDeLeitura(saida, proximaLinha++, e);
+                        continue;
+                    }
+                    proximaLinha++;
+                    if (chunk.size() == tamanhoChunkLote) {
+                        processarChunk(chunk, proximaLinha - chunk.size(), saida);
+                    }
+                }
+            } catch (StreamReadException e) {
+                processarChunk(chunk, proximaLinha - chunk.size(), saida);
+                escreverFalhaDeLeitura(saida, proximaLinha, e);
+            }
+            processarChunk(chunk, proximaLinha - chunk.size(), saida);
+            logger.info("Lote recebido via REST com {} linhas processado.", proximaLinha - 1);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(resposta);
+    }
+
     @Operation(summary = "Deletar um pedido", description = "Rcebe e deleta o pedido com respectivo id.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Pedido deletado com sucesso."),
@@ -97,4 +200,30 @@ public class PedidoController {
         pedidoUseCasePort.deletarPedido(id);
         return ResponseEntity.noContent().build();
     }
+
+    private void escreverLinha(OutputStream saida, Object linha) {
+        try {
+            saida.write(objectMapper.writeValueAsBytes(linha));
+            saida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void processarChunk(List<PedidoRequestDto> chunk, int primeiraLinha, OutputStream saida) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ResultadoProcessamento> resultados = pedidoUseCasePort.processarPedidosEmLote(chunk);
+        for (int i = 0; i < resultados.size(); i++) {
+            escreverLinha(saida, pedidoMapper.toResultadoLoteResponseDto(primeiraLinha + i, resultados.get(i)));
+        }
+        saida.flush();
+        chunk.clear();
+    }
+
+    private void escreverFalhaDeLeitura(OutputStream saida, int linha, JsonProcessingException e) {
+        ResultadoProcessamento falha = ResultadoProcessamento.falha(null, SituacaoProcessamento.INVALIDO, e.getOriginalMessage());
+        escreverLinha(saida, pedidoMapper.toResultadoLoteResponseDto(linha, falha));
+    }
 }
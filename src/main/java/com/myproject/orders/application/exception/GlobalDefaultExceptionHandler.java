@@ -1,5 +1,6 @@
 package com.myproject.orders.application.exception;
 
+import com.myproject.orders.domain.exception.CursorInvalidoException;
 import com.myproject.orders.domain.exception.PedidoDuplicadoException;
 import com.myproject.orders.domain.exception.RecursoJaExisteException;
 import com.myproject.orders.domain.exception.RecursoNaoEncontratoException;
@@ -30,6 +31,14 @@ public class GlobalDefaultExceptionHandler extends ResponseEntityExceptionHandle
 
     }
 
+    @ExceptionHandler(CursorInvalidoException.class)
+    protected ResponseEntity<ProblemDetail> handleInvalidCursor(CursorInvalidoException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problemDetail.setTitle(HttpStatus.BAD_REQUEST.getReasonPhrase());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+    }
+
     @ExceptionHandler(PedidoDuplicadoException.class)
     protected ResponseEntity<ProblemDetail> handleResourceConflict(PedidoDuplicadoException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
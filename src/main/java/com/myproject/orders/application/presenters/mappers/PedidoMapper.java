@@ -4,8 +4,10 @@ import com.myproject.orders.application.presenters.requests.ItemRequestDto;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.ItemResponseDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.application.presenters.responses.ResultadoLoteResponseDto;
 import com.myproject.orders.domain.entities.Item;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
 import com.myproject.orders.infrastructure.entity.ItemEntity;
 import com.myproject.orders.infrastructure.entity.PedidoEntity;
 import org.springframework.stereotype.Component;
@@ -20,6 +22,7 @@ public class PedidoMapper {
     public Pedido toDomain(PedidoRequestDto pedidoRequestDto) {
         Pedido pedido = new Pedido();
         pedido.setIdExterno(pedidoRequestDto.getIdExterno());
+        pedido.setRastreamento(pedidoRequestDto.getRastreamento());
 
         if (pedidoRequestDto.getItens() != null) {
             List<Item> itens = pedidoRequestDto.getItens().stream()
@@ -151,6 +154,7 @@ public class PedidoMapper {
         pedidoResponseDto.setValorTotal(pedido.getValorTotal());
         pedidoResponseDto.setCreatedAt(pedido.getCreatedAt());
         pedidoResponseDto.setUpdatedAt(pedido.getUpdatedAt());
+        pedidoResponseDto.setRastreamento(pedido.getRastreamento());
 
         if (pedido.getItens() != null && !pedido.getItens().isEmpty()) {
             List<ItemResponseDto> itemResponseDtos = pedido.getItens().stream()
@@ -173,4 +177,14 @@ public class PedidoMapper {
         itemResponseDto.setUpdatedAt(item.getUpdatedAt());
         return itemResponseDto;
     }
-}
\ No newline at end of file
+
+    public ResultadoLoteResponseDto toResultadoLoteResponseDto(int linha, ResultadoProcessamento resultado) {
+        ResultadoLoteResponseDto resultadoLoteResponseDto = new ResultadoLoteResponseDto();
+        resultadoLoteResponseDto.setLinha(linha);
+        resultadoLoteResponseDto.setIdExterno(resultado.getIdExterno());
+        resultadoLoteResponseDto.setSituacao(resultado.getSituacao());
+        resultadoLoteResponseDto.setPedidoId(resultado.getPedidoId());
+        resultadoLoteResponseDto.setMensagem(resultado.getMensagem());
+        return resultadoLoteResponseDto;
+    }
+}
@@ -1,5 +1,7 @@
 package com.myproject.orders.application.presenters.requests;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.myproject.orders.domain.entities.Rastreamento;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -18,4 +20,7 @@ public class PedidoRequestDto {
     private String idExterno;
     @NotNull(message = "A lista de itens não pode ser nula.")
     private List<ItemRequestDto> itens;
+
+    @JsonIgnore
+    private Rastreamento rastreamento;
 }
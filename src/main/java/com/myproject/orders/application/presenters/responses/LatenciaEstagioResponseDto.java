@@ -0,0 +1,21 @@
+package com.myproject.orders.application.presenters.responses;
+
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LatenciaEstagioResponseDto {
+    private EstagioLatencia estagio;
+    private long contagem;
+    private double mediaMs;
+    private double p50Ms;
+    private double p99Ms;
+    private double p999Ms;
+    private double maximoMs;
+}
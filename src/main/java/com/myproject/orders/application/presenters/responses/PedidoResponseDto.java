@@ -1,6 +1,8 @@
 package com.myproject.orders.application.presenters.responses;
 
 import com.myproject.orders.domain.enums.StatusPedido;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.myproject.orders.domain.entities.Rastreamento;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,4 +25,7 @@ public class PedidoResponseDto {
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    @JsonIgnore
+    private Rastreamento rastreamento;
 }
@@ -0,0 +1,19 @@
+package com.myproject.orders.application.presenters.responses;
+
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoLoteResponseDto {
+    private int linha;
+    private String idExterno;
+    private SituacaoProcessamento situacao;
+    private Long pedidoId;
+    private String mensagem;
+}
@@ -0,0 +1,44 @@
+package com.myproject.orders.domain.entities;
+
+import com.myproject.orders.domain.exception.CursorInvalidoException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import static java.text.MessageFormat.format;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPedido {
+
+    private static final String SEPARADOR = "|";
+
+    private LocalDateTime criadoEm;
+    private Long id;
+
+    public static CursorPedido posicaoDe(Pedido pedido) {
+        return new CursorPedido(pedido.getCreatedAt(), pedido.getId());
+    }
+
+    public String codificar() {
+        String posicao = criadoEm + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorPedido decodificar(String cursor) throws CursorInvalidoException {
+        try {
+            String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = posicao.lastIndexOf(SEPARADOR);
+            return new CursorPedido(LocalDateTime.parse(posicao.substring(0, separador)),
+                    Long.parseLong(posicao.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new CursorInvalidoException(format("Cursor de paginação inválido: {0}", cursor));
+        }
+    }
+}
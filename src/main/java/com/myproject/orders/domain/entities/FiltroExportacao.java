@@ -0,0 +1,17 @@
+package com.myproject.orders.domain.entities;
+
+import com.myproject.orders.domain.enums.StatusPedido;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiltroExportacao {
+    private StatusPedido status;
+    private LocalDateTime criadoDe;
+    private LocalDateTime criadoAte;
+}
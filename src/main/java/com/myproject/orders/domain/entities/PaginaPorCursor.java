@@ -0,0 +1,21 @@
+package com.myproject.orders.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaPorCursor<T> {
+    private List<T> conteudo;
+    private String proximoCursor;
+
+    public <R> PaginaPorCursor<R> map(Function<? super T, ? extends R> conversor) {
+        return new PaginaPorCursor<>(conteudo.stream().map(conversor).collect(Collectors.toList()), proximoCursor);
+    }
+}
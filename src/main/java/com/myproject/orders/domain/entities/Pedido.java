@@ -22,6 +22,9 @@ public class Pedido {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    /** Não é persistido junto do pedido; só acompanha o processamento até a mensagem de saída. */
+    private Rastreamento rastreamento;
+
     public boolean processandoPedido() {
         return this.getStatus() == StatusPedido.PROCESSANDO;
     }
@@ -0,0 +1,19 @@
+package com.myproject.orders.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Identifica um pedido de ponta a ponta: o trace-id e o instante (epoch ms) em que o produtor o enfileirou,
+ * vindos dos cabeçalhos da mensagem de entrada e repassados para a mensagem de saída.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Rastreamento {
+    private String traceId;
+    private Long produzidoEm;
+}
@@ -0,0 +1,28 @@
+package com.myproject.orders.domain.entities;
+
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoProcessamento {
+    private String idExterno;
+    private SituacaoProcessamento situacao;
+    private Long pedidoId;
+    private String mensagem;
+
+    public static ResultadoProcessamento processado(Pedido pedido) {
+        return new ResultadoProcessamento(pedido.getIdExterno(), SituacaoProcessamento.PROCESSADO, pedido.getId(), null);
+    }
+
+    public static ResultadoProcessamento falha(String idExterno, SituacaoProcessamento situacao, String mensagem) {
+        return new ResultadoProcessamento(idExterno, situacao, null, mensagem);
+    }
+
+    public boolean processadoComSucesso() {
+        return this.getSituacao() == SituacaoProcessamento.PROCESSADO;
+    }
+}
@@ -0,0 +1,11 @@
+package com.myproject.orders.domain.enums;
+
+public enum EstagioLatencia {
+    FILA,
+    DECODIFICACAO,
+    CALCULO,
+    PERSISTENCIA,
+    OUTBOX,
+    PUBLICACAO,
+    TOTAL
+}
@@ -0,0 +1,8 @@
+package com.myproject.orders.domain.enums;
+
+public enum SituacaoProcessamento {
+    PROCESSADO,
+    DUPLICADO,
+    INVALIDO,
+    ERRO
+}
@@ -0,0 +1,7 @@
+package com.myproject.orders.domain.exception;
+
+public class CursorInvalidoException extends RuntimeException{
+    public CursorInvalidoException(String message) {
+        super(message);
+    }
+}
@@ -7,10 +7,35 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.util.Objects;
 
+/**
+ * Calcula em {@code long} (valores na escala do preço, até centavos) e só cria os {@code BigDecimal} do resultado.
+ * Preço com mais de 2 casas, escala negativa, mais de 12 dígitos ou qualquer estouro de {@code long} faz o pedido
+ * inteiro ser recalculado em {@code BigDecimal}. Nos dois caminhos o resultado é idêntico, inclusive na escala.
+ */
 @Service
 public class CalculadoraPedidoService {
 
+    private static final int ESCALA_MAXIMA = 2;
+
+    /**
+     * Com até 12 dígitos, {@code doubleValue()} recupera o valor sem escala exatamente e sem alocar.
+     */
+    private static final int PRECISAO_MAXIMA = 12;
+
+    private static final long[] POTENCIAS_DE_DEZ = {1, 10, 100};
+
     public BigDecimal calcularValorTotalPedido(Pedido pedido) {
+        if (Objects.isNull(pedido.getItens()) || pedido.getItens().isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal valorTotalDoPedido = calcularEmCentavos(pedido);
+        return valorTotalDoPedido != null ? valorTotalDoPedido : calcularValorTotalPedidoEmBigDecimal(pedido);
+    }
+
+    /**
+     * Caminho de referência, usado quando o valor não cabe em {@code long}.
+     */
+    public BigDecimal calcularValorTotalPedidoEmBigDecimal(Pedido pedido) {
         BigDecimal valorTotalDoPedido = BigDecimal.ZERO;
 
         if (Objects.nonNull(pedido.getItens()) && !pedido.getItens().isEmpty()) {
@@ -25,4 +50,36 @@ public class CalculadoraPedidoService {
         }
         return valorTotalDoPedido;
     }
+
+    /**
+     * Retorna {@code null} quando algum item exige o caminho em {@code BigDecimal}.
+     */
+    private BigDecimal calcularEmCentavos(Pedido pedido) {
+        long totalEmCentavos = 0;
+        int escalaDoTotal = 0;
+        try {
+            for (Item item : pedido.getItens()) {
+                BigDecimal valorUnitario = item.getValorUnitario();
+                int quantidade = item.getQuantidade();
+                if (valorUnitario == null) {
+                    item.setValorTotalItem(BigDecimal.ZERO);
+                    continue;
+                }
+                int escala = valorUnitario.scale();
+                if (escala < 0 || escala > ESCALA_MAXIMA || valorUnitario.precision() > PRECISAO_MAXIMA) {
+                    return null;
+                }
+                long valorSemEscala = Math.round(valorUnitario.doubleValue() * POTENCIAS_DE_DEZ[escala]);
+                long totalItemSemEscala = Math.multiplyExact(valorSemEscala, (long) quantidade);
+                item.setValorTotalItem(quantidade == 1 ? valorUnitario : BigDecimal.valueOf(totalItemSemEscala, escala));
+                totalEmCentavos = Math.addExact(totalEmCentavos,
+                        Math.multiplyExact(totalItemSemEscala, POTENCIAS_DE_DEZ[ESCALA_MAXIMA - escala]));
+                escalaDoTotal = Math.max(escalaDoTotal, escala);
+            }
+        } catch (ArithmeticException estouro) {
+            return null;
+        }
+        // Todos os itens têm escala <= escalaDoTotal, então a divisão é exata.
+        return BigDecimal.valueOf(totalEmCentavos / POTENCIAS_DE_DEZ[ESCALA_MAXIMA - escalaDoTotal], escalaDoTotal);
+    }
 }
@@ -0,0 +1,246 @@
+package com.myproject.orders.domain.helpers;
+
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Filtro de Bloom escalável com os idExterno já gravados: "certamente ausente" dispensa a consulta ao banco.
+ * O índice único em {@code pedido.id_externo} continua sendo a garantia final contra duplicidade.
+ */
+@Component
+public class DuplicateFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateFilter.class);
+
+    private static final double RAZAO_APERTO_FALSO_POSITIVO = 0.5;
+    private static final int FATOR_CRESCIMENTO = 2;
+
+    @Autowired
+    private PedidoPersistancePort pedidoPersistancePort;
+
+    private final boolean habilitado;
+    private final long capacidadeInicial;
+    private final double taxaFalsoPositivo;
+    private final long memoriaMaximaBytes;
+
+    private final List<Segmento> segmentos = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lockCrescimento = new ReentrantLock();
+    private volatile boolean aquecido;
+    private volatile boolean limiteMemoriaAtingido;
+
+    private final LongAdder consultasAusentes = new LongAdder();
+    private final LongAdder consultasTalvezPresentes = new LongAdder();
+    private final LongAdder falsosPositivos = new LongAdder();
+
+    public DuplicateFilter(@Value("${pedidos.filtro-duplicidade.habilitado:true}") boolean habilitado,
+                           @Value("${pedidos.filtro-duplicidade.capacidade-inicial:1000000}") long capacidadeInicial,
+                           @Value("${pedidos.filtro-duplicidade.taxa-falso-positivo:0.01}") double taxaFalsoPositivo,
+                           @Value("${pedidos.filtro-duplicidade.memoria-maxima-mb:64}") long memoriaMaximaMb) {
+        this.habilitado = habilitado;
+        this.capacidadeInicial = capacidadeInicial;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.memoriaMaximaBytes = memoriaMaximaMb * 1024 * 1024;
+        this.segmentos.add(new Segmento(capacidadeInicial, taxaFalsoPositivo * (1 - RAZAO_APERTO_FALSO_POSITIVO)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        if (!habilitado) {
+            logger.info("Filtro de duplicidade desabilitado.");
+            return;
+        }
+        long inicio = System.nanoTime();
+        LongAdder carregados = new LongAdder();
+        pedidoPersistancePort.percorrerIdsExternos(idExterno -> {
+            adicionar(idExterno);
+            carregados.increment();
+        });
+        aquecido = true;
+        logger.info("Filtro de duplicidade aquecido com {} idExterno em {} ms ({} segmentos, {} bytes).",
+                carregados.sum(), (System.nanoTime() - inicio) / 1_000_000, segmentos.size(), memoriaUtilizadaBytes());
+    }
+
+    public boolean isAtivo() {
+        return habilitado && aquecido;
+    }
+
+    public boolean talvezContenha(String idExterno) {
+        if (!isAtivo()) {
+            return true;
+        }
+        long h1 = hash(idExterno);
+        long h2 = misturar(h1 + 0x9E3779B97F4A7C15L) | 1L;
+        for (Segmento segmento : segmentos) {
+            if (segmento.talvezContenha(h1, h2)) {
+                consultasTalvezPresentes.increment();
+                return true;
+            }
+        }
+        consultasAusentes.increment();
+        return false;
+    }
+
+    public List<String> talvezPresentes(Collection<String> idsExternos) {
+        return idsExternos.stream().filter(this::talvezContenha).collect(Collectors.toList());
+    }
+
+    public void adicionar(String idExterno) {
+        if (!habilitado) {
+            return;
+        }
+        long h1 = hash(idExterno);
+        long h2 = misturar(h1 + 0x9E3779B97F4A7C15L) | 1L;
+        segmentoParaEscrita().adicionar(h1, h2);
+    }
+
+    public void registrarFalsoPositivo() {
+        falsosPositivos.increment();
+    }
+
+    public long getConsultasAusentes() {
+        return consultasAusentes.sum();
+    }
+
+    public long getConsultasTalvezPresentes() {
+        return consultasTalvezPresentes.sum();
+    }
+
+    public long getFalsosPositivos() {
+        return falsosPositivos.sum();
+    }
+
+    public long memoriaUtilizadaBytes() {
+        return segmentos.stream().mapToLong(Segmento::tamanhoEmBytes).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pedidos.filtro.duplicidade.consultas", consultasAusentes, LongAdder::sum)
+                .tag("resultado", "ausente")
+                .description("Consultas respondidas pelo filtro sem ir ao banco")
+                .register(registry);
+        FunctionCounter.builder("pedidos.filtro.duplicidade.consultas", consultasTalvezPresentes, LongAdder::sum)
+                .tag("resultado", "talvez-presente")
+                .description("Consultas que precisaram confirmar a existência no banco")
+                .register(registry);
+        FunctionCounter.builder("pedidos.filtro.duplicidade.falsos.positivos", falsosPositivos, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("pedidos.filtro.duplicidade.memoria", this, DuplicateFilter::memoriaUtilizadaBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("pedidos.filtro.duplicidade.elementos", segmentos,
+                        lista -> lista.stream().mapToLong(segmento -> segmento.elementos.sum()).sum())
+                .register(registry);
+    }
+
+    private Segmento segmentoParaEscrita() {
+        Segmento atual = segmentos.get(segmentos.size() - 1);
+        if (atual.elementos.sum() < atual.capacidade || limiteMemoriaAtingido) {
+            return atual;
+        }
+        lockCrescimento.lock();
+        try {
+            atual = segmentos.get(segmentos.size() - 1);
+            if (atual.elementos.sum() < atual.capacidade || limiteMemoriaAtingido) {
+                return atual;
+            }
+            int indice = segmentos.size();
+            long capacidade = capacidadeInicial * (long) Math.pow(FATOR_CRESCIMENTO, indice);
+            double taxa = taxaFalsoPositivo * (1 - RAZAO_APERTO_FALSO_POSITIVO) * Math.pow(RAZAO_APERTO_FALSO_POSITIVO, indice);
+            if (memoriaUtilizadaBytes() + Segmento.bytesNecessarios(capacidade, taxa) > memoriaMaximaBytes) {
+                limiteMemoriaAtingido = true;
+                logger.warn("Filtro de duplicidade atingiu o limite de {} bytes; a taxa de falso positivo vai aumentar.", memoriaMaximaBytes);
+                return atual;
+            }
+            Segmento novo = new Segmento(capacidade, taxa);
+            segmentos.add(novo);
+            logger.info("Filtro de duplicidade cresceu para {} segmentos (capacidade do novo: {}).", segmentos.size(), capacidade);
+            return novo;
+        } finally {
+            lockCrescimento.unlock();
+        }
+    }
+
+    private static long hash(String valor) {
+        long h = 0xCBF29CE484222325L ^ valor.length();
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return misturar(h);
+    }
+
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Segmento {
+        private final AtomicLongArray bits;
+        private final long numeroBits;
+        private final int numeroHashes;
+        private final long capacidade;
+        private final LongAdder elementos = new LongAdder();
+
+        private Segmento(long capacidade, double taxaFalsoPositivo) {
+            this.capacidade = capacidade;
+            this.numeroBits = calcularNumeroBits(capacidade, taxaFalsoPositivo);
+            this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / capacidade * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((numeroBits + 63) / 64));
+        }
+
+        private static long calcularNumeroBits(long capacidade, double taxaFalsoPositivo) {
+            long numeroBits = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+            return Math.min(Math.max(numeroBits, 64), (long) Integer.MAX_VALUE * 64);
+        }
+
+        private static long bytesNecessarios(long capacidade, double taxaFalsoPositivo) {
+            return (calcularNumeroBits(capacidade, taxaFalsoPositivo) + 63) / 64 * Long.BYTES;
+        }
+
+        private boolean talvezContenha(long h1, long h2) {
+            for (int i = 0; i < numeroHashes; i++) {
+                long indice = Math.floorMod(h1 + i * h2, numeroBits);
+                if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void adicionar(long h1, long h2) {
+            for (int i = 0; i < numeroHashes; i++) {
+                long indice = Math.floorMod(h1 + i * h2, numeroBits);
+                long mascara = 1L << indice;
+                bits.accumulateAndGet((int) (indice >>> 6), mascara, (atual, bit) -> atual | bit);
+            }
+            elementos.increment();
+        }
+
+        private long tamanhoEmBytes() {
+            return (long) bits.length() * Long.BYTES;
+        }
+    }
+}
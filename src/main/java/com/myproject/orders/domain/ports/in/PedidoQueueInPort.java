@@ -1,9 +1,21 @@
 package com.myproject.orders.domain.ports.in;
 
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.core.Message;
 import org.springframework.messaging.handler.annotation.Payload;
 
+import java.util.List;
+
 public interface PedidoQueueInPort {
 
+    void receiveRawMessage(Message mensagem);
+
     void receiveMessage(@Payload PedidoRequestDto pedidoRequestDto);
+
+    void receiveMessages(List<Message> mensagens, Channel channel);
+
+    void receiveMessagePipeline(Message mensagem, Channel channel);
+
+    void receiveMessageGravacaoAdiada(Message mensagem, Channel channel);
 }
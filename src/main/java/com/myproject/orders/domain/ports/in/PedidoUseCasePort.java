@@ -1,19 +1,39 @@
 package com.myproject.orders.domain.ports.in;
 
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.PaginaPorCursor;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface PedidoUseCasePort {
 
     Page<Pedido> listarPedidos(Pageable pageable);
 
+    PaginaPorCursor<Pedido> listarPedidosPorCursor(String cursor, int tamanho);
+
+    void exportarPedidos(FiltroExportacao filtro, Consumer<Pedido> consumidor);
+
     Pedido buscarPedidoPorId(Long id);
 
+    byte[] buscarPedidoJsonPorId(Long id);
+
     Pedido processarPedidoCore(Pedido pedido);
 
     Pedido processarPedidoRecebido(PedidoRequestDto pedidoRequestDto);
 
+    List<ResultadoProcessamento> processarPedidosEmLote(List<PedidoRequestDto> pedidosRequestDto);
+
+    List<ResultadoProcessamento> processarPedidosPrecificados(List<Pedido> pedidos);
+
+    Pedido prepararPedidoParaGravacao(PedidoRequestDto pedidoRequestDto);
+
+    void concluirPedidoGravado(Pedido pedidoSalvo, long duracaoGravacaoNanos);
+
     void deletarPedido(Long id);
 }
@@ -1,21 +1,52 @@
 package com.myproject.orders.domain.ports.out;
 
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface PedidoPersistancePort {
 
     Page<Pedido> listarPedidos(Pageable pageable);
 
+    List<Pedido> listarPedidosAposCursor(CursorPedido cursor, int limite);
+
+    void exportarPedidos(FiltroExportacao filtro, Consumer<Pedido> consumidor);
+
     Optional<Pedido> buscarPedidoPorId(Long id);
 
+    /**
+     * Pedido já serializado como {@code PedidoResponseDto}; não passa pelo cache.
+     */
+    Optional<byte[]> buscarPedidoJsonPorId(Long id);
+
     boolean buscarPedidoPorIdExterno(String id);
 
+    Set<String> buscarIdsExternosExistentes(Collection<String> idsExternos);
+
+    void percorrerIdsExternos(Consumer<String> consumidor);
+
+    Optional<Pedido> inserirPedidoSeNovo(Pedido pedido);
+
     Pedido salvarPedido(Pedido pedido);
 
+    boolean atualizarStatus(Long id, StatusPedido atual, StatusPedido novo);
+
+    boolean atualizarStatusERegistrarEvento(Long id, StatusPedido atual, StatusPedido novo, PedidoResponseDto evento);
+
+    List<Pedido> salvarPedidos(List<Pedido> pedidos);
+
+    List<Pedido> salvarPedidosERegistrarEventos(List<Pedido> pedidos);
+
     boolean existsById(Long id);
 
     void deletarPedido(Long id);
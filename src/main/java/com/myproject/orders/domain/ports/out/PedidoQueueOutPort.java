@@ -2,6 +2,10 @@ package com.myproject.orders.domain.ports.out;
 
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface PedidoQueueOutPort {
     void publishMessage(PedidoResponseDto pedidoResponseDto);
+
+    CompletableFuture<Void> publishMessageAsync(PedidoResponseDto pedidoResponseDto);
 }
@@ -0,0 +1,19 @@
+package com.myproject.orders.domain.ports.out;
+
+import com.myproject.orders.application.presenters.responses.LatenciaEstagioResponseDto;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+
+import java.util.List;
+
+public interface RastreamentoPort {
+
+    void registrar(EstagioLatencia estagio, long duracaoNanos);
+
+    /**
+     * Registra o tempo decorrido desde que o produtor enfileirou o pedido; ignora pedidos sem rastreamento.
+     */
+    void registrarDesdeProducao(EstagioLatencia estagio, Rastreamento rastreamento);
+
+    List<LatenciaEstagioResponseDto> resumir();
+}
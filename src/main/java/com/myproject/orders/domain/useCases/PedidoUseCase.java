@@ -3,25 +3,47 @@ package com.myproject.orders.domain.useCases;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.PaginaPorCursor;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
 import com.myproject.orders.domain.enums.StatusPedido;
 import com.myproject.orders.domain.exception.PedidoDuplicadoException;
 import com.myproject.orders.domain.exception.RecursoNaoEncontratoException;
 import com.myproject.orders.domain.helpers.CalculadoraPedidoService;
+import com.myproject.orders.domain.helpers.DuplicateFilter;
 import com.myproject.orders.domain.ports.in.PedidoUseCasePort;
 import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
 import com.myproject.orders.domain.ports.out.PedidoQueueOutPort;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
 import com.myproject.orders.infrastructure.repositories.PedidoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static java.text.MessageFormat.format;
 
@@ -45,39 +67,236 @@ public class PedidoUseCase implements PedidoUseCasePort {
     @Autowired
     PedidoPersistancePort pedidoPersistancePort;
 
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private DuplicateFilter duplicateFilter;
+
+    @Autowired
+    private RastreamentoPort rastreamentoPort;
+
+    @Value("${pedidos.saida.outbox.habilitado:true}")
+    private boolean outboxHabilitado;
+
     private static final Logger logger = LoggerFactory.getLogger(PedidoUseCase.class);
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     @Override
     public Pedido processarPedidoRecebido(PedidoRequestDto pedidoRequestDto) {
         Pedido pedido = pedidoMapper.toDomain(pedidoRequestDto);
-        validarDuplicidade(pedido.getIdExterno());
         return processarPedidoCore(pedido);
     }
 
     @Override
     public Pedido processarPedidoCore(Pedido pedido) {
+        long inicio = System.nanoTime();
         BigDecimal valorTotalDoPedido = calculadoraPedidoService.calcularValorTotalPedido(pedido);
         pedido.setValorTotal(valorTotalDoPedido);
         pedido.setStatus(StatusPedido.PROCESSANDO);
+        rastreamentoPort.registrar(EstagioLatencia.CALCULO, System.nanoTime() - inicio);
 
-        Pedido pedidoSalvo = pedidoPersistancePort.salvarPedido(pedido);
+        validarDuplicidade(pedido.getIdExterno());
+        inicio = System.nanoTime();
+        Pedido pedidoSalvo = inserirPedidoSeNovo(pedido);
+        duplicateFilter.adicionar(pedidoSalvo.getIdExterno());
         logger.info("Pedido {} (ID Externo: {}) salvo com status inicial: {}", pedidoSalvo.getId(), pedidoSalvo.getIdExterno(), pedidoSalvo.getStatus());
 
-        pedidoSalvo.setStatus(StatusPedido.PROCESSADO);
-        Pedido pedidoFinal = pedidoPersistancePort.salvarPedido(pedidoSalvo);
-        logger.info("Pedido {} (ID Externo: {}) salvo com status: {}", pedidoFinal.getId(), pedidoFinal.getIdExterno(), pedidoFinal.getStatus());
+        PedidoResponseDto pedidoResponseDto = concluirPedido(pedidoSalvo);
+        rastreamentoPort.registrar(EstagioLatencia.PERSISTENCIA, System.nanoTime() - inicio);
+        logger.info("Pedido {} (ID Externo: {}) salvo com status: {}", pedidoSalvo.getId(), pedidoSalvo.getIdExterno(), pedidoSalvo.getStatus());
+
+        if (!outboxHabilitado) {
+            pedidoQueueOutPort.publishMessage(pedidoResponseDto);
+        }
+        return pedidoSalvo;
+    }
+
+    @Override
+    public List<ResultadoProcessamento> processarPedidosEmLote(List<PedidoRequestDto> pedidosRequestDto) {
+        List<ResultadoProcessamento> resultados = new ArrayList<>(Collections.nCopies(pedidosRequestDto.size(), null));
+        Map<Integer, Pedido> pedidosValidos = new LinkedHashMap<>();
+
+        for (int i = 0; i < pedidosRequestDto.size(); i++) {
+            PedidoRequestDto pedidoRequestDto = pedidosRequestDto.get(i);
+            Set<ConstraintViolation<PedidoRequestDto>> violacoes = validator.validate(pedidoRequestDto);
+            if (!violacoes.isEmpty()) {
+                String mensagem = violacoes.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(" "));
+                resultados.set(i, ResultadoProcessamento.falha(pedidoRequestDto.getIdExterno(), SituacaoProcessamento.INVALIDO, mensagem));
+            } else {
+                pedidosValidos.put(i, pedidoMapper.toDomain(pedidoRequestDto));
+            }
+        }
+
+        gravarLote(pedidosValidos, resultados, true);
+        return resultados;
+    }
+
+    /**
+     * Grava num único lote pedidos que já chegaram validados e precificados (estágio de persistência do pipeline).
+     */
+    @Override
+    public List<ResultadoProcessamento> processarPedidosPrecificados(List<Pedido> pedidos) {
+        List<ResultadoProcessamento> resultados = new ArrayList<>(Collections.nCopies(pedidos.size(), null));
+        Map<Integer, Pedido> pedidosValidos = new LinkedHashMap<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            pedidosValidos.put(i, pedidos.get(i));
+        }
+        gravarLote(pedidosValidos, resultados, false);
+        return resultados;
+    }
+
+    /**
+     * Primeira metade do modo de gravação adiada: valida, precifica e confere a duplicidade, deixando o pedido
+     * pronto para ser gravado já como PROCESSADO no grupo em que cair. Inválido lança
+     * {@link ConstraintViolationException}; duplicado, {@link PedidoDuplicadoException}.
+     */
+    @Override
+    public Pedido prepararPedidoParaGravacao(PedidoRequestDto pedidoRequestDto) {
+        Set<ConstraintViolation<PedidoRequestDto>> violacoes = validator.validate(pedidoRequestDto);
+        if (!violacoes.isEmpty()) {
+            throw new ConstraintViolationException(violacoes);
+        }
+        Pedido pedido = pedidoMapper.toDomain(pedidoRequestDto);
+        long inicio = System.nanoTime();
+        pedido.setValorTotal(calculadoraPedidoService.calcularValorTotalPedido(pedido));
+        rastreamentoPort.registrar(EstagioLatencia.CALCULO, System.nanoTime() - inicio);
+        validarDuplicidade(pedido.getIdExterno());
+        pedido.setStatus(StatusPedido.PROCESSADO);
+        return pedido;
+    }
+
+    /**
+     * Segunda metade, chamada depois do commit do grupo: o pedido passa a contar no filtro de duplicidade e,
+     * sem outbox, o evento de saída é publicado aqui.
+     */
+    @Override
+    public void concluirPedidoGravado(Pedido pedidoSalvo, long duracaoGravacaoNanos) {
+        rastreamentoPort.registrar(EstagioLatencia.PERSISTENCIA, duracaoGravacaoNanos);
+        duplicateFilter.adicionar(pedidoSalvo.getIdExterno());
+        if (!outboxHabilitado) {
+            pedidoQueueOutPort.publishMessage(pedidoMapper.toResponseDto(pedidoSalvo));
+        }
+    }
+
+    private void gravarLote(Map<Integer, Pedido> pedidosValidos, List<ResultadoProcessamento> resultados, boolean precificar) {
+        Set<String> idsExternos = pedidosValidos.values().stream().map(Pedido::getIdExterno).collect(Collectors.toSet());
+        List<String> idsExternosParaConsultar = duplicateFilter.talvezPresentes(idsExternos);
+        Set<String> idsExternosExistentes = idsExternosParaConsultar.isEmpty()
+                ? Collections.emptySet()
+                : pedidoPersistancePort.buscarIdsExternosExistentes(idsExternosParaConsultar);
+        if (duplicateFilter.isAtivo()) {
+            for (int i = idsExternosExistentes.size(); i < idsExternosParaConsultar.size(); i++) {
+                duplicateFilter.registrarFalsoPositivo();
+            }
+        }
+        Set<String> idsExternosDoLote = new HashSet<>();
+
+        Map<Integer, Pedido> pedidosNovos = new LinkedHashMap<>();
+        pedidosValidos.forEach((indice, pedido) -> {
+            String idExterno = pedido.getIdExterno();
+            if (idsExternosExistentes.contains(idExterno) || !idsExternosDoLote.add(idExterno)) {
+                logger.warn("Tentativa de criar pedido duplicado com idExterno: {}", idExterno);
+                resultados.set(indice, ResultadoProcessamento.falha(idExterno, SituacaoProcessamento.DUPLICADO,
+                        format("Pedido com ID Externo {0} já existe no sistema.", idExterno)));
+                return;
+            }
+            if (precificar) {
+                long inicio = System.nanoTime();
+                pedido.setValorTotal(calculadoraPedidoService.calcularValorTotalPedido(pedido));
+                rastreamentoPort.registrar(EstagioLatencia.CALCULO, System.nanoTime() - inicio);
+            }
+            // O lote inteiro é gravado numa única transação, então o estado intermediário PROCESSANDO
+            // nunca ficaria visível fora dela: o pedido já é persistido como PROCESSADO.
+            pedido.setStatus(StatusPedido.PROCESSADO);
+            pedidosNovos.put(indice, pedido);
+        });
+
+        if (!pedidosNovos.isEmpty()) {
+            salvarEPublicarLote(pedidosNovos, resultados);
+        }
+        logger.info("Lote com {} pedidos processado. Novos: {}", resultados.size(), pedidosNovos.size());
+    }
+
+    private void salvarEPublicarLote(Map<Integer, Pedido> pedidosNovos, List<ResultadoProcessamento> resultados) {
+        List<Pedido> pedidosSalvos;
+        try {
+            List<Pedido> pedidos = new ArrayList<>(pedidosNovos.values());
+            long inicio = System.nanoTime();
+            pedidosSalvos = outboxHabilitado
+                    ? pedidoPersistancePort.salvarPedidosERegistrarEventos(pedidos)
+                    : pedidoPersistancePort.salvarPedidos(pedidos);
+            // Cada pedido do lote esperou a transação inteira.
+            long duracao = System.nanoTime() - inicio;
+            pedidos.forEach(pedido -> rastreamentoPort.registrar(EstagioLatencia.PERSISTENCIA, duracao));
+        } catch (Exception e) {
+            logger.warn("Falha ao gravar lote com {} pedidos, processando individualmente. Erro: {}", pedidosNovos.size(), e.getMessage());
+            pedidosNovos.forEach((indice, pedido) -> resultados.set(indice, processarPedidoIsolado(pedido)));
+            return;
+        }
+
+        List<Integer> indices = new ArrayList<>(pedidosNovos.keySet());
+        for (int i = 0; i < pedidosSalvos.size(); i++) {
+            Pedido pedidoSalvo = pedidosSalvos.get(i);
+            duplicateFilter.adicionar(pedidoSalvo.getIdExterno());
+            try {
+                if (!outboxHabilitado) {
+                    pedidoQueueOutPort.publishMessage(pedidoMapper.toResponseDto(pedidoSalvo));
+                }
+                resultados.set(indices.get(i), ResultadoProcessamento.processado(pedidoSalvo));
+            } catch (Exception e) {
+                resultados.set(indices.get(i), ResultadoProcessamento.falha(pedidoSalvo.getIdExterno(), SituacaoProcessamento.ERRO, e.getMessage()));
+            }
+        }
+    }
 
-        PedidoResponseDto pedidoResponseDto = pedidoMapper.toResponseDto(pedidoFinal);
-        pedidoQueueOutPort.publishMessage(pedidoResponseDto);
-        return pedidoFinal;
+    private ResultadoProcessamento processarPedidoIsolado(Pedido pedido) {
+        try {
+            return ResultadoProcessamento.processado(processarPedidoCore(pedido));
+        } catch (PedidoDuplicadoException e) {
+            return ResultadoProcessamento.falha(pedido.getIdExterno(), SituacaoProcessamento.DUPLICADO, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Erro ao processar pedido {} do lote: {}", pedido.getIdExterno(), e.getMessage(), e);
+            return ResultadoProcessamento.falha(pedido.getIdExterno(), SituacaoProcessamento.ERRO, e.getMessage());
+        }
+    }
+
+    /**
+     * Com o outbox habilitado, o evento de saída é gravado na mesma transação da troca de status
+     * e publicado depois pelo relay, sem esperar o broker aqui.
+     */
+    private PedidoResponseDto concluirPedido(Pedido pedido) {
+        StatusPedido statusAtual = pedido.getStatus();
+        pedido.setStatus(StatusPedido.PROCESSADO);
+        PedidoResponseDto pedidoResponseDto = pedidoMapper.toResponseDto(pedido);
+        boolean atualizado = outboxHabilitado
+                ? pedidoPersistancePort.atualizarStatusERegistrarEvento(pedido.getId(), statusAtual, StatusPedido.PROCESSADO, pedidoResponseDto)
+                : pedidoPersistancePort.atualizarStatus(pedido.getId(), statusAtual, StatusPedido.PROCESSADO);
+        if (!atualizado) {
+            pedido.setStatus(statusAtual);
+            throw new IllegalStateException(format("Pedido {0} não está mais com status {1}.", pedido.getId(), statusAtual));
+        }
+        return pedidoResponseDto;
     }
 
     private void validarDuplicidade(String idExterno) throws PedidoDuplicadoException {
-        var pedidoOptional = pedidoPersistancePort.buscarPedidoPorIdExterno(idExterno);
-        if (pedidoOptional) {
+        if (!duplicateFilter.isAtivo() || !duplicateFilter.talvezContenha(idExterno)) {
+            return;
+        }
+        if (pedidoPersistancePort.buscarPedidoPorIdExterno(idExterno)) {
             logger.warn("Tentativa de criar pedido duplicado com idExterno: {}", idExterno);
             throw new PedidoDuplicadoException(format("Pedido com ID Externo {0} já existe no sistema.", idExterno));
         }
+        duplicateFilter.registrarFalsoPositivo();
+    }
+
+    private Pedido inserirPedidoSeNovo(Pedido pedido) throws PedidoDuplicadoException {
+        return pedidoPersistancePort.inserirPedidoSeNovo(pedido).orElseThrow(() -> {
+            logger.warn("Tentativa de criar pedido duplicado com idExterno: {}", pedido.getIdExterno());
+            duplicateFilter.adicionar(pedido.getIdExterno());
+            return new PedidoDuplicadoException(format("Pedido com ID Externo {0} já existe no sistema.", pedido.getIdExterno()));
+        });
     }
 
     @Override
@@ -96,6 +315,35 @@ public class PedidoUseCase implements PedidoUseCasePort {
         }
     }
 
+    @Override
+    public PaginaPorCursor<Pedido> listarPedidosPorCursor(String cursor, int tamanho) {
+        int tamanhoPagina = Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA);
+        CursorPedido posicao = cursor == null || cursor.isBlank() ? null : CursorPedido.decodificar(cursor);
+
+        List<Pedido> pedidos = pedidoPersistancePort.listarPedidosAposCursor(posicao, tamanhoPagina + 1);
+        if (pedidos.size() <= tamanhoPagina) {
+            return new PaginaPorCursor<>(pedidos, null);
+        }
+        List<Pedido> pagina = pedidos.subList(0, tamanhoPagina);
+        return new PaginaPorCursor<>(pagina, CursorPedido.posicaoDe(pagina.get(tamanhoPagina - 1)).codificar());
+    }
+
+    @Override
+    public void exportarPedidos(FiltroExportacao filtro, Consumer<Pedido> consumidor) {
+        logger.info("Iniciando exportação de pedidos. Filtro: {}", filtro);
+        AtomicLong exportados = new AtomicLong();
+        try {
+            pedidoPersistancePort.exportarPedidos(filtro, pedido -> {
+                consumidor.accept(pedido);
+                exportados.incrementAndGet();
+            });
+            logger.info("Exportação de pedidos concluída. Total exportado: {}", exportados.get());
+        } catch (Exception e) {
+            logger.warn("Exportação de pedidos interrompida após {} pedidos. Erro: {}", exportados.get(), e.getMessage());
+            throw e;
+        }
+    }
+
     @Override
     public Pedido buscarPedidoPorId(Long id) throws RecursoNaoEncontratoException {
         logger.info("Iniciando busca de pedido por ID: {}", id);
@@ -116,6 +364,16 @@ public class PedidoUseCase implements PedidoUseCasePort {
         }
     }
 
+    @Override
+    public byte[] buscarPedidoJsonPorId(Long id) throws RecursoNaoEncontratoException {
+        return pedidoPersistancePort.buscarPedidoJsonPorId(id)
+                .orElseThrow(() -> {
+                    String errorMessage = format("Registro não encontrado com código {0}", id);
+                    logger.warn(errorMessage);
+                    return new RecursoNaoEncontratoException(errorMessage);
+                });
+    }
+
     @Override
     public void deletarPedido(Long id) {
         if (!pedidoPersistancePort.existsById(id)) {
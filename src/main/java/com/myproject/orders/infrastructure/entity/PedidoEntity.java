@@ -13,11 +13,14 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "pedido")
+@Table(name = "pedido",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pedido_id_externo", columnNames = "id_externo"),
+        indexes = @Index(name = "idx_pedido_created_at_id", columnList = "created_at, id"))
 public class PedidoEntity extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedido_seq")
+    @SequenceGenerator(name = "pedido_seq", sequenceName = "pedido_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
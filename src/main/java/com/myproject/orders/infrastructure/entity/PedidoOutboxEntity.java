@@ -0,0 +1,45 @@
+package com.myproject.orders.infrastructure.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "pedido_outbox",
+        indexes = @Index(name = "idx_pedido_outbox_enviado_em_id", columnList = "enviado_em, id"))
+public class PedidoOutboxEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedido_outbox_seq")
+    @SequenceGenerator(name = "pedido_outbox_seq", sequenceName = "pedido_outbox_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "pedido_id", nullable = false)
+    private Long pedidoId;
+
+    @Column(name = "id_externo")
+    private String idExterno;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "tentativas", nullable = false)
+    private int tentativas;
+
+    @Column(name = "enviado_em")
+    private LocalDateTime enviadoEm;
+
+    @Column(name = "trace_id")
+    private String traceId;
+
+    /** Instante (epoch ms) em que o produtor enfileirou o pedido de entrada. */
+    @Column(name = "produzido_em")
+    private Long produzidoEm;
+}
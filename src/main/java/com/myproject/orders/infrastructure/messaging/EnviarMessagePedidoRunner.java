@@ -1,71 +1,138 @@
 package com.myproject.orders.infrastructure.messaging;
 
 
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.core.Message;
-import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.core.MessageProperties;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
 
+/**
+ * Gerador de carga do profile 'sender': publica as linhas de um arquivo JSONL em {@code pedidos.entrada}.
+ * <p>
+ * O arquivo é dividido em trechos, um por canal, e cada publicador lê o seu por janelas mapeadas em memória,
+ * sem carregar o arquivo inteiro no heap. Cada canal publica com confirmação e limita as mensagens sem confirmação.
+ * Com {@code pedidos.sender.taxa-alvo} > 0 a publicação é ritmada; com 0, vai na taxa máxima. O caminho do arquivo
+ * pode vir como primeiro argumento. No fim, informa a vazão atingida e os percentis da latência de confirmação.
+ */
 @Component
 @Profile("sender")
-@AllArgsConstructor
-@NoArgsConstructor(force = true)
 public class EnviarMessagePedidoRunner implements CommandLineRunner {
 
-    @Autowired
-    private RabbitTemplate rabbitTemplate;
-
     private static final String QUEUE_NAME = "pedidos.entrada";
 
-    private static final String FILE_PATH = "pedidos.jsonl";
+    private static final long TAMANHO_JANELA = 64L * 1024 * 1024;
+
+    private static final AMQP.BasicProperties PROPRIEDADES = new AMQP.BasicProperties.Builder()
+            .contentType(MessageProperties.CONTENT_TYPE_JSON)
+            .contentEncoding("UTF-8")
+            .deliveryMode(2)
+            .build();
 
     private static final Logger logger = LoggerFactory.getLogger(EnviarMessagePedidoRunner.class);
 
+    @Autowired
+    private CachingConnectionFactory connectionFactory;
+
+    private final String arquivo;
+    private final int canais;
+    private final int taxaAlvo;
+    private final int repeticoes;
+    private final long duracaoSegundos;
+    private final int maximoEmVooPorCanal;
+    private final long timeoutConfirmacaoMs;
+
+    private final AtomicBoolean parar = new AtomicBoolean();
+    private final LongAdder enviadas = new LongAdder();
+    private final LongAdder confirmadas = new LongAdder();
+    private final LongAdder recusadas = new LongAdder();
+    private final Timer latenciaConfirmacao;
+
+    public EnviarMessagePedidoRunner(@Value("${pedidos.sender.arquivo:pedidos.jsonl}") String arquivo,
+                                     @Value("${pedidos.sender.canais:4}") int canais,
+                                     @Value("${pedidos.sender.taxa-alvo:0}") int taxaAlvo,
+                                     @Value("${pedidos.sender.repeticoes:1}") int repeticoes,
+                                     @Value("${pedidos.sender.duracao-segundos:0}") long duracaoSegundos,
+                                     @Value("${pedidos.sender.maximo-em-voo-por-canal:1000}") int maximoEmVooPorCanal,
+                                     @Value("${pedidos.sender.timeout-confirmacao-ms:30000}") long timeoutConfirmacaoMs) {
+        if (repeticoes == 0 && duracaoSegundos <= 0) {
+            throw new IllegalArgumentException("pedidos.sender.repeticoes=0 (repetir sem fim) exige pedidos.sender.duracao-segundos.");
+        }
+        this.arquivo = arquivo;
+        this.canais = canais;
+        this.taxaAlvo = taxaAlvo;
+        this.repeticoes = repeticoes;
+        this.duracaoSegundos = duracaoSegundos;
+        this.maximoEmVooPorCanal = maximoEmVooPorCanal;
+        this.timeoutConfirmacaoMs = timeoutConfirmacaoMs;
+        this.latenciaConfirmacao = Timer.builder("pedidos.sender.confirmacao")
+                .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(new SimpleMeterRegistry());
+    }
+
     @Override
     public void run(String... args) throws Exception {
+        Path caminho = Path.of(Arrays.stream(args).filter(arg -> !arg.startsWith("--")).findFirst().orElse(arquivo));
         logger.info("-----------------------------------------------------");
         logger.info("Iniciando PedidoMessageSenderRunner (profile 'sender' ativo)");
-        logger.info("Lendo pedidos do arquivo: {}" , FILE_PATH);
-        logger.info("Enviando para a fila: {}" , QUEUE_NAME);
+        logger.info("Lendo pedidos do arquivo: {}", caminho);
+        logger.info("Enviando para a fila: {} em {} canais, {}", QUEUE_NAME, canais,
+                taxaAlvo > 0 ? "taxa alvo de " + taxaAlvo + " msg/s" : "taxa máxima");
         logger.info("-----------------------------------------------------");
 
-        int messagesSent = 0;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String trimmedLine = line.trim();
-                if (!trimmedLine.isEmpty()) {
-                    MessageProperties properties = new MessageProperties();
-                    properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
-                    properties.setContentEncoding("UTF-8");
-                    byte[] jsonBytes = trimmedLine.getBytes(StandardCharsets.UTF_8);
-                    Message message = MessageBuilder.withBody(jsonBytes)
-                            .andProperties(properties)
-                            .build();
-                    rabbitTemplate.send(QUEUE_NAME, message);
-
-                    messagesSent++;
-                    logger.info(" [x] Enviado pedido #{}: '{}...' ", messagesSent, trimmedLine.substring(0, Math.min(trimmedLine.length(), 80)));
-                }
+        try (FileChannel arquivoCanal = FileChannel.open(caminho, StandardOpenOption.READ);
+             Connection conexao = connectionFactory.getRabbitConnectionFactory().newConnection("pedidos-sender")) {
+            List<long[]> trechos = dividirEmTrechos(arquivoCanal, canais);
+            List<Thread> threads = new ArrayList<>(trechos.size());
+            long inicio = System.nanoTime();
+            for (int i = 0; i < trechos.size(); i++) {
+                Publicador publicador = new Publicador(conexao.createChannel(), arquivoCanal, trechos.get(i), trechos.size(), inicio);
+                Thread thread = new Thread(publicador, "pedidos-sender-" + (i + 1));
+                thread.start();
+                threads.add(thread);
             }
-            logger.info("\n--- Concluído o envio de {} pedidos. ---", messagesSent);
-
+            aguardar(threads, inicio);
+            relatar(System.nanoTime() - inicio);
         } catch (IOException e) {
-            logger.error("Erro ao ler o arquivo de pedidos: {} - {}", FILE_PATH, e.getMessage(), e);
+            logger.error("Erro ao ler o arquivo de pedidos: {} - {}", caminho, e.getMessage(), e);
             logger.error("Certifique-se de que o arquivo existe e o caminho está correto.");
         } catch (Exception e) {
             logger.error("Ocorreu um erro inesperado durante o envio: {}", e.getMessage(), e);
@@ -73,4 +140,202 @@ public class EnviarMessagePedidoRunner implements CommandLineRunner {
             logger.info("-----------------------------------------------------");
         }
     }
+
+    private void aguardar(List<Thread> threads, long inicio) throws InterruptedException {
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+                if (thread.isAlive()) {
+                    double segundos = (System.nanoTime() - inicio) / 1e9;
+                    logger.info("Progresso: {} enviadas, {} confirmadas ({} msg/s)", enviadas.sum(), confirmadas.sum(),
+                            Math.round(confirmadas.sum() / segundos));
+                }
+            }
+        }
+    }
+
+    private void relatar(long duracaoNanos) {
+        double segundos = duracaoNanos / 1e9;
+        HistogramSnapshot snapshot = latenciaConfirmacao.takeSnapshot();
+        logger.info("--- Concluído o envio: {} enviadas, {} confirmadas, {} recusadas em {} s ({} msg/s) ---",
+                enviadas.sum(), confirmadas.sum(), recusadas.sum(), String.format("%.1f", segundos),
+                Math.round(confirmadas.sum() / segundos));
+        StringBuilder percentis = new StringBuilder();
+        for (ValueAtPercentile percentil : snapshot.percentileValues()) {
+            percentis.append(String.format(" p%s=%.2fms", BigDecimal.valueOf(percentil.percentile() * 100).stripTrailingZeros().toPlainString(), percentil.value(TimeUnit.MILLISECONDS)));
+        }
+        logger.info("Latência de confirmação:{} max={}ms", percentis,
+                String.format("%.2f", snapshot.max(TimeUnit.MILLISECONDS)));
+    }
+
+    /**
+     * Trace-id e instante de envio (epoch ms) de cada mensagem, para a aplicação medir a latência de ponta a ponta.
+     */
+    static AMQP.BasicProperties carimbar(AMQP.BasicProperties base) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        return base.builder()
+                .headers(Map.of(
+                        RabbitMQConfig.HEADER_TRACE_ID, new UUID(aleatorio.nextLong(), aleatorio.nextLong()).toString(),
+                        RabbitMQConfig.HEADER_PRODUZIDO_EM, System.currentTimeMillis()))
+                .build();
+    }
+
+    /**
+     * Divide o arquivo em até {@code partes} trechos [inicio, fim) que começam sempre no início de uma linha.
+     */
+    static List<long[]> dividirEmTrechos(FileChannel arquivoCanal, int partes) throws IOException {
+        long tamanho = arquivoCanal.size();
+        List<long[]> trechos = new ArrayList<>(partes);
+        long inicio = 0;
+        for (int i = 1; i <= partes && inicio < tamanho; i++) {
+            long fim = i == partes ? tamanho : proximoInicioDeLinha(arquivoCanal, tamanho * i / partes, tamanho);
+            if (fim > inicio) {
+                trechos.add(new long[]{inicio, fim});
+                inicio = fim;
+            }
+        }
+        return trechos;
+    }
+
+    private static long proximoInicioDeLinha(FileChannel arquivoCanal, long posicao, long tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (posicao < tamanho) {
+            buffer.clear();
+            int lidos = arquivoCanal.read(buffer, posicao);
+            for (int i = 0; i < lidos; i++) {
+                if (buffer.get(i) == '\n') {
+                    return posicao + i + 1;
+                }
+            }
+            posicao += lidos;
+        }
+        return tamanho;
+    }
+
+    /**
+     * Entrega ao consumidor cada linha não vazia do trecho, mapeando o arquivo em janelas. Retorna {@code false}
+     * se o consumidor pediu para parar.
+     */
+    static boolean percorrerLinhas(FileChannel arquivoCanal, long inicio, long fim, Predicate<byte[]> consumidor) throws IOException {
+        long posicao = inicio;
+        while (posicao < fim) {
+            long tamanhoJanela = Math.min(TAMANHO_JANELA, fim - posicao);
+            MappedByteBuffer janela = arquivoCanal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoJanela);
+            boolean ultimaJanela = posicao + tamanhoJanela >= fim;
+            int inicioLinha = 0;
+            for (int i = 0; i < tamanhoJanela; i++) {
+                if (janela.get(i) == '\n') {
+                    if (!entregar(janela, inicioLinha, i, consumidor)) {
+                        return false;
+                    }
+                    inicioLinha = i + 1;
+                }
+            }
+            if (ultimaJanela) {
+                return entregar(janela, inicioLinha, (int) tamanhoJanela, consumidor);
+            }
+            if (inicioLinha == 0) {
+                throw new IllegalStateException("Linha maior que a janela de leitura na posição " + posicao);
+            }
+            posicao += inicioLinha;
+        }
+        return true;
+    }
+
+    private static boolean entregar(MappedByteBuffer janela, int inicio, int fim, Predicate<byte[]> consumidor) {
+        while (inicio < fim && Character.isWhitespace(janela.get(inicio))) {
+            inicio++;
+        }
+        while (fim > inicio && Character.isWhitespace(janela.get(fim - 1))) {
+            fim--;
+        }
+        if (inicio == fim) {
+            return true;
+        }
+        byte[] linha = new byte[fim - inicio];
+        janela.get(inicio, linha);
+        return consumidor.test(linha);
+    }
+
+    private final class Publicador implements Runnable {
+        private final Channel canal;
+        private final FileChannel arquivoCanal;
+        private final long[] trecho;
+        private final Semaphore emVoo = new Semaphore(maximoEmVooPorCanal);
+        private final ConcurrentNavigableMap<Long, Long> enviadasEm = new ConcurrentSkipListMap<>();
+        private final long intervaloNanos;
+        private final long prazo;
+        private long proximoEnvio;
+
+        private Publicador(Channel canal, FileChannel arquivoCanal, long[] trecho, int publicadores, long inicio) {
+            this.canal = canal;
+            this.arquivoCanal = arquivoCanal;
+            this.trecho = trecho;
+            this.intervaloNanos = taxaAlvo > 0 ? TimeUnit.SECONDS.toNanos(publicadores) / taxaAlvo : 0;
+            this.prazo = duracaoSegundos > 0 ? inicio + TimeUnit.SECONDS.toNanos(duracaoSegundos) : Long.MAX_VALUE;
+            this.proximoEnvio = inicio;
+        }
+
+        @Override
+        public void run() {
+            try {
+                canal.confirmSelect();
+                canal.addConfirmListener((seq, multiplas) -> confirmar(seq, multiplas, true),
+                        (seq, multiplas) -> confirmar(seq, multiplas, false));
+                for (int volta = 0; repeticoes == 0 || volta < repeticoes; volta++) {
+                    if (!percorrerLinhas(arquivoCanal, trecho[0], trecho[1], this::publicar)) {
+                        break;
+                    }
+                }
+                canal.waitForConfirms(timeoutConfirmacaoMs);
+            } catch (Exception e) {
+                logger.error("Publicador {} interrompido: {}", Thread.currentThread().getName(), e.getMessage(), e);
+                parar.set(true);
+            } finally {
+                try {
+                    canal.close();
+                } catch (Exception ignorada) {
+                    // A conexão é fechada em seguida de qualquer forma.
+                }
+            }
+        }
+
+        private boolean publicar(byte[] corpo) {
+            long agora = System.nanoTime();
+            if (parar.get() || agora >= prazo) {
+                return false;
+            }
+            if (intervaloNanos > 0) {
+                proximoEnvio += intervaloNanos;
+                if (proximoEnvio > agora) {
+                    LockSupport.parkNanos(proximoEnvio - agora);
+                }
+            }
+            try {
+                emVoo.acquire();
+                enviadasEm.put(canal.getNextPublishSeqNo(), System.nanoTime());
+                canal.basicPublish("", QUEUE_NAME, carimbar(PROPRIEDADES), corpo);
+                enviadas.increment();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void confirmar(long seq, boolean multiplas, boolean ack) {
+            ConcurrentNavigableMap<Long, Long> confirmacoes = multiplas
+                    ? enviadasEm.headMap(seq, true)
+                    : enviadasEm.subMap(seq, true, seq, true);
+            long agora = System.nanoTime();
+            for (Long enviadaEm : confirmacoes.values()) {
+                latenciaConfirmacao.record(agora - enviadaEm, TimeUnit.NANOSECONDS);
+                (ack ? confirmadas : recusadas).increment();
+                emVoo.release();
+            }
+            confirmacoes.clear();
+        }
+    }
 }
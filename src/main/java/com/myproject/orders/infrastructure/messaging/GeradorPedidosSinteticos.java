@@ -0,0 +1,125 @@
+package com.myproject.orders.infrastructure.messaging;
+
+import com.myproject.orders.application.presenters.requests.ItemRequestDto;
+import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Gera pedidos sintéticos de forma determinística: a mesma semente e os mesmos parâmetros produzem
+ * exatamente a mesma sequência. Não é thread-safe; cada gerador deve ser usado por uma única thread.
+ */
+public class GeradorPedidosSinteticos {
+
+    @Data
+    @Builder
+    public static class Parametros {
+        @Builder.Default
+        private long semente = 42;
+        @Builder.Default
+        private String prefixo = "SINT";
+        @Builder.Default
+        private int itensMinimo = 1;
+        @Builder.Default
+        private int itensMaximo = 5;
+        /** Fração de pedidos grandes, com {@code itensPedidoGrande} itens. */
+        @Builder.Default
+        private double proporcaoPedidoGrande = 0.0;
+        @Builder.Default
+        private int itensPedidoGrande = 500;
+        @Builder.Default
+        private int quantidadeMaximaPorItem = 10;
+        @Builder.Default
+        private int cardinalidadeProdutos = 10_000;
+        /** Expoente da Zipf sobre os produtos; 0 é uniforme, valores perto de 1 concentram num punhado de produtos. */
+        @Builder.Default
+        private double concentracaoProdutos = 0.0;
+        @Builder.Default
+        private BigDecimal precoMinimo = new BigDecimal("1.00");
+        @Builder.Default
+        private BigDecimal precoMaximo = new BigDecimal("500.00");
+        /** Fração de pedidos que repetem o idExterno de um pedido já gerado. */
+        @Builder.Default
+        private double proporcaoDuplicados = 0.0;
+    }
+
+    private final Parametros parametros;
+    private final SplittableRandom aleatorio;
+    private final double[] distribuicaoAcumulada;
+    private long idsGerados;
+
+    public GeradorPedidosSinteticos(Parametros parametros) {
+        this.parametros = parametros;
+        this.aleatorio = new SplittableRandom(parametros.getSemente());
+        this.distribuicaoAcumulada = parametros.getConcentracaoProdutos() > 0
+                ? distribuicaoZipf(parametros.getCardinalidadeProdutos(), parametros.getConcentracaoProdutos())
+                : null;
+    }
+
+    public PedidoRequestDto proximo() {
+        long numero;
+        if (idsGerados > 0 && aleatorio.nextDouble() < parametros.getProporcaoDuplicados()) {
+            numero = aleatorio.nextLong(idsGerados);
+        } else {
+            numero = idsGerados++;
+        }
+        int quantidadeItens = aleatorio.nextDouble() < parametros.getProporcaoPedidoGrande()
+                ? parametros.getItensPedidoGrande()
+                : aleatorio.nextInt(parametros.getItensMinimo(), parametros.getItensMaximo() + 1);
+
+        List<ItemRequestDto> itens = new ArrayList<>(quantidadeItens);
+        for (int i = 0; i < quantidadeItens; i++) {
+            int produto = sortearProduto();
+            itens.add(ItemRequestDto.builder()
+                    .produtoId(idProduto(produto))
+                    .valorUnitario(precoDoProduto(produto))
+                    .quantidade(aleatorio.nextInt(1, parametros.getQuantidadeMaximaPorItem() + 1))
+                    .build());
+        }
+        return PedidoRequestDto.builder()
+                .idExterno(parametros.getPrefixo() + "-" + parametros.getSemente() + "-" + numero)
+                .itens(itens)
+                .build();
+    }
+
+    private int sortearProduto() {
+        if (distribuicaoAcumulada == null) {
+            return aleatorio.nextInt(parametros.getCardinalidadeProdutos());
+        }
+        int posicao = Arrays.binarySearch(distribuicaoAcumulada, aleatorio.nextDouble());
+        return Math.min(posicao >= 0 ? posicao : -posicao - 1, distribuicaoAcumulada.length - 1);
+    }
+
+    private String idProduto(int produto) {
+        return "PROD-" + produto;
+    }
+
+    /**
+     * O preço depende só da semente e do produto, então o mesmo produto tem o mesmo preço em todos os pedidos.
+     */
+    private BigDecimal precoDoProduto(int produto) {
+        double fracao = new SplittableRandom(parametros.getSemente() * 31 + produto).nextDouble();
+        BigDecimal faixa = parametros.getPrecoMaximo().subtract(parametros.getPrecoMinimo());
+        return parametros.getPrecoMinimo().add(faixa.multiply(BigDecimal.valueOf(fracao))).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static double[] distribuicaoZipf(int cardinalidade, double expoente) {
+        double[] acumulada = new double[cardinalidade];
+        double soma = 0;
+        for (int i = 0; i < cardinalidade; i++) {
+            soma += 1.0 / Math.pow(i + 1, expoente);
+            acumulada[i] = soma;
+        }
+        for (int i = 0; i < cardinalidade; i++) {
+            acumulada[i] /= soma;
+        }
+        return acumulada;
+    }
+}
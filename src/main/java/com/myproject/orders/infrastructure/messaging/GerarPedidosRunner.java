@@ -0,0 +1,195 @@
+package com.myproject.orders.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gera pedidos sintéticos sem arquivo de entrada (profile 'gerador') e os envia para {@code pedidos.entrada},
+ * para {@code POST /pedidos} ou para um arquivo JSONL que depois pode ser publicado pelo profile 'sender'.
+ * Com a mesma semente, a carga se repete igual, o que permite reproduzir cenários de produto quente,
+ * pedido grande e rajada de duplicados.
+ */
+@Component
+@Profile("gerador")
+public class GerarPedidosRunner implements CommandLineRunner {
+
+    private static final String QUEUE_NAME = "pedidos.entrada";
+
+    private static final int CONFIRMACOES_POR_LOTE = 1000;
+
+    private static final AMQP.BasicProperties PROPRIEDADES = new AMQP.BasicProperties.Builder()
+            .contentType(MessageProperties.CONTENT_TYPE_JSON)
+            .contentEncoding("UTF-8")
+            .deliveryMode(2)
+            .build();
+
+    private static final Logger logger = LoggerFactory.getLogger(GerarPedidosRunner.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CachingConnectionFactory connectionFactory;
+
+    @Value("${pedidos.gerador.quantidade:1000000}")
+    private long quantidade;
+
+    @Value("${pedidos.gerador.destino:fila}")
+    private String destino;
+
+    @Value("${pedidos.gerador.arquivo:pedidos-sinteticos.jsonl}")
+    private String arquivo;
+
+    @Value("${pedidos.gerador.url:http://localhost:8080/pedidos}")
+    private String url;
+
+    @Value("${pedidos.gerador.http.concorrencia:32}")
+    private int concorrenciaHttp;
+
+    @Value("${pedidos.gerador.semente:42}")
+    private long semente;
+
+    @Value("${pedidos.gerador.prefixo:SINT}")
+    private String prefixo;
+
+    @Value("${pedidos.gerador.itens.minimo:1}")
+    private int itensMinimo;
+
+    @Value("${pedidos.gerador.itens.maximo:5}")
+    private int itensMaximo;
+
+    @Value("${pedidos.gerador.itens.pedido-grande.proporcao:0}")
+    private double proporcaoPedidoGrande;
+
+    @Value("${pedidos.gerador.itens.pedido-grande.quantidade:500}")
+    private int itensPedidoGrande;
+
+    @Value("${pedidos.gerador.itens.quantidade-maxima:10}")
+    private int quantidadeMaximaPorItem;
+
+    @Value("${pedidos.gerador.produtos.cardinalidade:10000}")
+    private int cardinalidadeProdutos;
+
+    @Value("${pedidos.gerador.produtos.concentracao:0}")
+    private double concentracaoProdutos;
+
+    @Value("${pedidos.gerador.preco.minimo:1.00}")
+    private BigDecimal precoMinimo;
+
+    @Value("${pedidos.gerador.preco.maximo:500.00}")
+    private BigDecimal precoMaximo;
+
+    @Value("${pedidos.gerador.duplicados.proporcao:0}")
+    private double proporcaoDuplicados;
+
+    @Override
+    public void run(String... args) throws Exception {
+        GeradorPedidosSinteticos gerador = new GeradorPedidosSinteticos(GeradorPedidosSinteticos.Parametros.builder()
+                .semente(semente)
+                .prefixo(prefixo)
+                .itensMinimo(itensMinimo)
+                .itensMaximo(itensMaximo)
+                .proporcaoPedidoGrande(proporcaoPedidoGrande)
+                .itensPedidoGrande(itensPedidoGrande)
+                .quantidadeMaximaPorItem(quantidadeMaximaPorItem)
+                .cardinalidadeProdutos(cardinalidadeProdutos)
+                .concentracaoProdutos(concentracaoProdutos)
+                .precoMinimo(precoMinimo)
+                .precoMaximo(precoMaximo)
+                .proporcaoDuplicados(proporcaoDuplicados)
+                .build());
+
+        logger.info("-----------------------------------------------------");
+        logger.info("Iniciando GerarPedidosRunner (profile 'gerador' ativo)");
+        logger.info("Gerando {} pedidos com semente {} para o destino '{}'", quantidade, semente, destino);
+        logger.info("-----------------------------------------------------");
+
+        long inicio = System.nanoTime();
+        try {
+            switch (destino) {
+                case "fila" -> publicarNaFila(gerador);
+                case "http" -> enviarPorHttp(gerador);
+                case "arquivo" -> gravarArquivo(gerador);
+                default -> throw new IllegalArgumentException("Destino desconhecido: " + destino + " (use fila, http ou arquivo).");
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            logger.info("--- Concluída a geração de {} pedidos em {} s ({} pedidos/s). ---", quantidade,
+                    String.format("%.1f", segundos), Math.round(quantidade / segundos));
+        } catch (Exception e) {
+            logger.error("Ocorreu um erro inesperado durante a geração: {}", e.getMessage(), e);
+        } finally {
+            logger.info("-----------------------------------------------------");
+        }
+    }
+
+    private void publicarNaFila(GeradorPedidosSinteticos gerador) throws Exception {
+        try (Connection conexao = connectionFactory.getRabbitConnectionFactory().newConnection("pedidos-gerador");
+             Channel canal = conexao.createChannel()) {
+            canal.confirmSelect();
+            for (long i = 1; i <= quantidade; i++) {
+                canal.basicPublish("", QUEUE_NAME, EnviarMessagePedidoRunner.carimbar(PROPRIEDADES), objectMapper.writeValueAsBytes(gerador.proximo()));
+                if (i % CONFIRMACOES_POR_LOTE == 0 || i == quantidade) {
+                    canal.waitForConfirmsOrDie(TimeUnit.SECONDS.toMillis(30));
+                }
+            }
+        }
+    }
+
+    private void enviarPorHttp(GeradorPedidosSinteticos gerador) throws Exception {
+        HttpClient cliente = HttpClient.newHttpClient();
+        Semaphore emVoo = new Semaphore(concorrenciaHttp);
+        LongAdder falhas = new LongAdder();
+        for (long i = 0; i < quantidade; i++) {
+            PedidoRequestDto pedido = gerador.proximo();
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(pedido)))
+                    .build();
+            emVoo.acquire();
+            cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, erro) -> {
+                        if (erro != null || resposta.statusCode() >= 400) {
+                            falhas.increment();
+                        }
+                        emVoo.release();
+                    });
+        }
+        emVoo.acquire(concorrenciaHttp);
+        logger.info("{} requisições responderam com erro (duplicados esperados entram aqui).", falhas.sum());
+    }
+
+    private void gravarArquivo(GeradorPedidosSinteticos gerador) throws Exception {
+        try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(Path.of(arquivo)), 1 << 16)) {
+            for (long i = 0; i < quantidade; i++) {
+                saida.write(objectMapper.writeValueAsBytes(gerador.proximo()));
+                saida.write('\n');
+            }
+        }
+        logger.info("Arquivo gravado em {}", Path.of(arquivo).toAbsolutePath());
+    }
+}
@@ -0,0 +1,263 @@
+package com.myproject.orders.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.myproject.orders.infrastructure.messaging.in.EncaminhadorRetentativas;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Devolve para {@code pedidos.entrada} as mensagens paradas em {@code pedidos.entrada.dlq} (profile 'replay').
+ * <p>
+ * Lê a DLQ em lotes, republica com confirmação do broker e só então dá ack no lote, então uma queda no meio
+ * repete no máximo um lote. Mensagens que não passam no filtro voltam para o fim da DLQ. O total processado fica
+ * num arquivo de checkpoint a cada lote; rodar de novo continua de onde parou, já que o que foi confirmado saiu da DLQ.
+ */
+@Component
+@Profile("replay")
+public class ReprocessarDlqRunner implements CommandLineRunner {
+
+    public static final String HEADER_REPROCESSAMENTOS = "x-pedidos-reprocessamentos";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReprocessarDlqRunner.class);
+
+    private static final long ESPERA_ENTREGA_MS = 2000;
+
+    @Autowired
+    private CachingConnectionFactory connectionFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int tamanhoLote;
+    private final int taxaPorSegundo;
+    private final long limite;
+    private final long timeoutConfirmacaoMs;
+    private final Pattern filtroIdExterno;
+    private final String filtroHeaderNome;
+    private final String filtroHeaderValor;
+    private final Path arquivoCheckpoint;
+
+    public ReprocessarDlqRunner(@Value("${pedidos.replay.tamanho-lote:500}") int tamanhoLote,
+                                @Value("${pedidos.replay.taxa-por-segundo:2000}") int taxaPorSegundo,
+                                @Value("${pedidos.replay.limite:0}") long limite,
+                                @Value("${pedidos.replay.timeout-confirmacao-ms:10000}") long timeoutConfirmacaoMs,
+                                @Value("${pedidos.replay.filtro.id-externo:}") String filtroIdExterno,
+                                @Value("${pedidos.replay.filtro.header-nome:}") String filtroHeaderNome,
+                                @Value("${pedidos.replay.filtro.header-valor:}") String filtroHeaderValor,
+                                @Value("${pedidos.replay.checkpoint:replay-dlq.checkpoint}") String arquivoCheckpoint) {
+        this.tamanhoLote = tamanhoLote;
+        this.taxaPorSegundo = taxaPorSegundo;
+        this.limite = limite;
+        this.timeoutConfirmacaoMs = timeoutConfirmacaoMs;
+        this.filtroIdExterno = filtroIdExterno.isBlank() ? null : Pattern.compile(filtroIdExterno);
+        this.filtroHeaderNome = filtroHeaderNome.isBlank() ? null : filtroHeaderNome;
+        this.filtroHeaderValor = filtroHeaderValor;
+        this.arquivoCheckpoint = Path.of(arquivoCheckpoint);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        logger.info("-----------------------------------------------------");
+        logger.info("Iniciando ReprocessarDlqRunner (profile 'replay' ativo)");
+        logger.info("Lendo de {} e republicando em {} a até {} msg/s", RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ,
+                RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA, taxaPorSegundo);
+        logger.info("-----------------------------------------------------");
+
+        // Conexão nativa e dedicada: os canais do CachingConnectionFactory já vêm com confirmação correlacionada,
+        // e aqui a confirmação é esperada lote a lote com waitForConfirmsOrDie.
+        try (Connection conexao = connectionFactory.getRabbitConnectionFactory().newConnection("pedidos-replay-dlq");
+             Channel consumo = conexao.createChannel();
+             Channel publicacao = conexao.createChannel()) {
+            Checkpoint checkpoint = reprocessar(consumo, publicacao);
+            logger.info("--- Reprocessamento concluído: {} republicadas, {} mantidas na DLQ (total acumulado). ---",
+                    checkpoint.republicadas, checkpoint.mantidas);
+        } catch (Exception e) {
+            logger.error("Reprocessamento interrompido; rode de novo para continuar do checkpoint {}: {}",
+                    arquivoCheckpoint, e.getMessage(), e);
+        }
+    }
+
+    Checkpoint reprocessar(Channel consumo, Channel publicacao) throws Exception {
+        Checkpoint checkpoint = Checkpoint.carregar(arquivoCheckpoint);
+        publicacao.confirmSelect();
+
+        long alvo = consumo.queueDeclarePassive(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ).getMessageCount();
+        if (limite > 0) {
+            alvo = Math.min(alvo, limite);
+        }
+        logger.info("{} mensagens a examinar nesta execução (checkpoint anterior: {} republicadas, {} mantidas).",
+                alvo, checkpoint.republicadas, checkpoint.mantidas);
+
+        BlockingQueue<Entrega> entregas = new LinkedBlockingQueue<>();
+        consumo.basicQos(tamanhoLote);
+        String consumerTag = consumo.basicConsume(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ, false, new DefaultConsumer(consumo) {
+            @Override
+            public void handleDelivery(String tag, Envelope envelope, AMQP.BasicProperties propriedades, byte[] corpo) {
+                entregas.add(new Entrega(envelope.getDeliveryTag(), propriedades, corpo));
+            }
+        });
+
+        long inicio = System.nanoTime();
+        long examinadas = 0;
+        try {
+            while (examinadas < alvo) {
+                List<Entrega> lote = proximoLote(entregas, (int) Math.min(tamanhoLote, alvo - examinadas));
+                if (lote.isEmpty()) {
+                    logger.warn("A DLQ esvaziou antes do previsto; {} de {} mensagens examinadas.", examinadas, alvo);
+                    break;
+                }
+                int republicadas = 0;
+                for (Entrega entrega : lote) {
+                    if (aceita(entrega)) {
+                        publicacao.basicPublish(RabbitMQConfig.EXCHANGE_PEDIDOS, RabbitMQConfig.ROUTING_KEY_ENTRADA,
+                                propriedadesParaReprocessar(entrega.propriedades()), entrega.corpo());
+                        republicadas++;
+                    } else {
+                        publicacao.basicPublish("", RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ, entrega.propriedades(), entrega.corpo());
+                    }
+                }
+                publicacao.waitForConfirmsOrDie(timeoutConfirmacaoMs);
+                consumo.basicAck(lote.get(lote.size() - 1).deliveryTag(), true);
+
+                examinadas += lote.size();
+                checkpoint.registrar(republicadas, lote.size() - republicadas);
+                checkpoint.salvar(arquivoCheckpoint);
+                logger.info("Lote confirmado: {} de {} examinadas, {} republicadas no lote.", examinadas, alvo, republicadas);
+
+                aguardarTaxa(inicio, examinadas);
+            }
+        } finally {
+            consumo.basicCancel(consumerTag);
+        }
+        return checkpoint;
+    }
+
+    boolean aceita(Entrega entrega) {
+        if (filtroHeaderNome != null) {
+            Map<String, Object> headers = entrega.propriedades().getHeaders();
+            Object valor = headers == null ? null : headers.get(filtroHeaderNome);
+            if (valor == null || !valor.toString().equals(filtroHeaderValor)) {
+                return false;
+            }
+        }
+        if (filtroIdExterno != null) {
+            try {
+                String idExterno = objectMapper.readTree(entrega.corpo()).path("idExterno").asText("");
+                return filtroIdExterno.matcher(idExterno).matches();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Zera o contador de retentativas, para a mensagem ter de novo as esperas de 1s/10s/60s, e conta quantas
+     * vezes ela já foi reprocessada.
+     */
+    private static AMQP.BasicProperties propriedadesParaReprocessar(AMQP.BasicProperties originais) {
+        Map<String, Object> headers = originais.getHeaders() == null ? new HashMap<>() : new HashMap<>(originais.getHeaders());
+        headers.remove(EncaminhadorRetentativas.HEADER_TENTATIVAS);
+        Object reprocessamentos = headers.get(HEADER_REPROCESSAMENTOS);
+        headers.put(HEADER_REPROCESSAMENTOS, reprocessamentos instanceof Number numero ? numero.intValue() + 1 : 1);
+        return originais.builder().headers(headers).deliveryMode(2).build();
+    }
+
+    private static List<Entrega> proximoLote(BlockingQueue<Entrega> entregas, int tamanho) throws InterruptedException {
+        List<Entrega> lote = new ArrayList<>(tamanho);
+        Entrega primeira = entregas.poll(ESPERA_ENTREGA_MS, TimeUnit.MILLISECONDS);
+        if (primeira == null) {
+            return lote;
+        }
+        lote.add(primeira);
+        while (lote.size() < tamanho) {
+            Entrega proxima = entregas.poll(ESPERA_ENTREGA_MS, TimeUnit.MILLISECONDS);
+            if (proxima == null) {
+                break;
+            }
+            lote.add(proxima);
+        }
+        return lote;
+    }
+
+    private void aguardarTaxa(long inicio, long examinadas) throws InterruptedException {
+        if (taxaPorSegundo <= 0) {
+            return;
+        }
+        long previsto = inicio + TimeUnit.SECONDS.toNanos(examinadas) / taxaPorSegundo;
+        long espera = previsto - System.nanoTime();
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+
+    record Entrega(long deliveryTag, AMQP.BasicProperties propriedades, byte[] corpo) {
+    }
+
+    static final class Checkpoint {
+        long republicadas;
+        long mantidas;
+
+        static Checkpoint carregar(Path arquivo) throws IOException {
+            Checkpoint checkpoint = new Checkpoint();
+            if (Files.exists(arquivo)) {
+                Properties propriedades = new Properties();
+                try (Reader leitor = Files.newBufferedReader(arquivo)) {
+                    propriedades.load(leitor);
+                }
+                checkpoint.republicadas = Long.parseLong(propriedades.getProperty("republicadas", "0"));
+                checkpoint.mantidas = Long.parseLong(propriedades.getProperty("mantidas", "0"));
+            }
+            return checkpoint;
+        }
+
+        void registrar(long republicadas, long mantidas) {
+            this.republicadas += republicadas;
+            this.mantidas += mantidas;
+        }
+
+        /**
+         * Grava num arquivo temporário e troca de uma vez, para uma queda no meio não deixar o checkpoint pela metade.
+         */
+        void salvar(Path arquivo) throws IOException {
+            Properties propriedades = new Properties();
+            propriedades.setProperty("republicadas", Long.toString(republicadas));
+            propriedades.setProperty("mantidas", Long.toString(mantidas));
+            propriedades.setProperty("atualizadoEm", LocalDateTime.now().toString());
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            try (Writer escritor = Files.newBufferedWriter(temporario)) {
+                propriedades.store(escritor, "Checkpoint do reprocessamento de " + RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ);
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
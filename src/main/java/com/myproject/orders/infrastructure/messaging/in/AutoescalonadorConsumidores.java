@@ -0,0 +1,258 @@
+package com.myproject.orders.infrastructure.messaging.in;
+
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ajusta periodicamente o número de consumidores e o prefetch do listener de entrada ativo a partir da
+ * profundidade de {@code pedidos.entrada} e da ocupação do pool do Hikari. Com o pool esgotado (todas as conexões
+ * em uso e threads esperando), o consumo é pausado em vez de acumular timeouts de conexão.
+ */
+@Component
+@ConditionalOnProperty(name = "pedidos.entrada.autoescalonamento.habilitado", havingValue = "true", matchIfMissing = true)
+public class AutoescalonadorConsumidores {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoescalonadorConsumidores.class);
+
+    private static final List<String> LISTENERS_ENTRADA = List.of("pedidosEntradaListener", "pedidosEntradaLoteListener",
+            "pedidosEntradaPipelineListener", "pedidosEntradaGravacaoAdiadaListener");
+    private static final String LISTENER_LOTE = "pedidosEntradaLoteListener";
+    private static final String LISTENER_PIPELINE = "pedidosEntradaPipelineListener";
+    private static final String LISTENER_GRAVACAO_ADIADA = "pedidosEntradaGravacaoAdiadaListener";
+
+    @Autowired
+    private RabbitListenerEndpointRegistry rabbitListenerEndpointRegistry;
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final int consumidoresMinimo;
+    private final int consumidoresMaximo;
+    private final int mensagensPorConsumidor;
+    private final int prefetchMinimo;
+    private final int prefetchMaximo;
+    private final double limiteUtilizacaoPool;
+    private final double limiteRetomadaPool;
+    private final int tamanhoLote;
+    private final int prefetchPipeline;
+
+    private final AtomicInteger consumidores = new AtomicInteger();
+    private final AtomicInteger prefetch = new AtomicInteger();
+    private final AtomicLong profundidade = new AtomicLong();
+    private final AtomicLong utilizacaoPoolPercentual = new AtomicLong();
+    private final AtomicInteger pausado = new AtomicInteger();
+
+    private final MeterRegistry registry;
+
+    public AutoescalonadorConsumidores(MeterRegistry registry,
+                                       @Value("${pedidos.entrada.consumidores.minimo:1}") int consumidoresMinimo,
+                                       @Value("${pedidos.entrada.consumidores.maximo:10}") int consumidoresMaximo,
+                                       @Value("${pedidos.entrada.autoescalonamento.mensagens-por-consumidor:500}") int mensagensPorConsumidor,
+                                       @Value("${pedidos.entrada.prefetch.minimo:10}") int prefetchMinimo,
+                                       @Value("${pedidos.entrada.prefetch.maximo:250}") int prefetchMaximo,
+                                       @Value("${pedidos.entrada.autoescalonamento.limite-utilizacao-pool:0.9}") double limiteUtilizacaoPool,
+                                       @Value("${pedidos.entrada.autoescalonamento.limite-retomada-pool:0.7}") double limiteRetomadaPool,
+                                       @Value("${pedidos.entrada.lote.tamanho:100}") int tamanhoLote,
+                                       @Value("${pedidos.entrada.pipeline.prefetch:500}") int prefetchPipeline) {
+        this.registry = registry;
+        this.consumidoresMinimo = consumidoresMinimo;
+        this.consumidoresMaximo = consumidoresMaximo;
+        this.mensagensPorConsumidor = mensagensPorConsumidor;
+        this.prefetchMinimo = prefetchMinimo;
+        this.prefetchMaximo = prefetchMaximo;
+        this.limiteUtilizacaoPool = limiteUtilizacaoPool;
+        this.limiteRetomadaPool = limiteRetomadaPool;
+        this.tamanhoLote = tamanhoLote;
+        this.prefetchPipeline = prefetchPipeline;
+        this.consumidores.set(consumidoresMinimo);
+
+        Gauge.builder("pedidos.entrada.consumidores", consumidores, AtomicInteger::get).register(registry);
+        Gauge.builder("pedidos.entrada.prefetch", prefetch, AtomicInteger::get).register(registry);
+        Gauge.builder("pedidos.entrada.profundidade", profundidade, AtomicLong::get)
+                .description("Mensagens prontas em pedidos.entrada na última leitura")
+                .register(registry);
+        Gauge.builder("pedidos.entrada.pool.utilizacao", utilizacaoPoolPercentual, AtomicLong::get)
+                .baseUnit("percent")
+                .register(registry);
+        Gauge.builder("pedidos.entrada.pausado", pausado, AtomicInteger::get).register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${pedidos.entrada.autoescalonamento.intervalo-ms:5000}")
+    public void ajustar() {
+        SimpleMessageListenerContainer container = listenerAtivo();
+        if (container == null) {
+            return;
+        }
+        long mensagensProntas = lerProfundidade();
+        LeituraPool pool = lerPool();
+        long percentualPool = Math.round(pool.utilizacao() * 100);
+        profundidade.set(mensagensProntas);
+        utilizacaoPoolPercentual.set(percentualPool);
+
+        if (pausado.get() == 1) {
+            if (container.isRunning()) {
+                // A parada assíncrona ainda espera os consumidores terminarem.
+                return;
+            }
+            if (pool.utilizacao() <= limiteRetomadaPool && pool.aguardando() == 0) {
+                logger.info("Autoescalonamento: retomando consumo de {} com pool em {}%.", container.getListenerId(), percentualPool);
+                registrarDecisao("retomar");
+                pausado.set(0);
+                container.start();
+            }
+            return;
+        }
+        // No pipeline e na gravação adiada o ack é assíncrono, dado por outra thread: parar o container devolveria
+        // à fila mensagens já em processamento.
+        if (pool.esgotado() && !ackAssincrono(container.getListenerId())) {
+            logger.warn("Autoescalonamento: pausando {}, pool esgotado ({} conexões ativas, {} threads esperando).",
+                    container.getListenerId(), pool.ativas(), pool.aguardando());
+            registrarDecisao("pausar");
+            pausado.set(1);
+            // stop() síncrono seguraria a thread do agendador (compartilhada com o relay do outbox) enquanto os
+            // consumidores esperam conexão do pool esgotado; com callback, a espera roda no executor do container.
+            container.stop(() -> logger.info("Autoescalonamento: {} parado.", container.getListenerId()));
+            return;
+        }
+
+        int atuais = consumidores.get();
+        int alvo = calcularConsumidores(atuais, mensagensProntas, pool.utilizacao());
+        int novoPrefetch = calcularPrefetch(mensagensProntas, alvo, pisoPrefetch(container.getListenerId()));
+        if (novoPrefetch != prefetch.get()) {
+            // O container só aplica o prefetch novo aos consumidores criados depois da mudança.
+            container.setPrefetchCount(novoPrefetch);
+            prefetch.set(novoPrefetch);
+        }
+        if (alvo != atuais) {
+            logger.info("Autoescalonamento: consumidores de {} {} -> {} (profundidade {}, pool {}%, prefetch {}).",
+                    container.getListenerId(), atuais, alvo, mensagensProntas, percentualPool, novoPrefetch);
+            registrarDecisao(alvo > atuais ? "aumentar" : "reduzir");
+            container.setConcurrentConsumers(alvo);
+            consumidores.set(alvo);
+        }
+    }
+
+    /**
+     * Cresce dobrando e encolhe de um em um, para reagir rápido a picos sem oscilar quando a fila esvazia.
+     * Com o pool acima do limite de utilização, encolhe um consumidor por ciclo, seja qual for o backlog: mais
+     * consumidores só disputariam as mesmas conexões, e menos aliviam o pool antes de ele esgotar e pausar o consumo.
+     */
+    int calcularConsumidores(int atuais, long mensagensProntas, double utilizacaoPool) {
+        int desejados = (int) Math.min(Math.max((mensagensProntas + mensagensPorConsumidor - 1) / mensagensPorConsumidor, consumidoresMinimo),
+                consumidoresMaximo);
+        if (utilizacaoPool >= limiteUtilizacaoPool) {
+            return Math.max(atuais - 1, consumidoresMinimo);
+        }
+        if (desejados > atuais) {
+            return Math.min(Math.max(atuais * 2, consumidoresMinimo), desejados);
+        }
+        if (desejados < atuais) {
+            return atuais - 1;
+        }
+        return atuais;
+    }
+
+    /**
+     * Divide o backlog entre os consumidores, sem passar do máximo configurado nem ficar abaixo do piso.
+     */
+    int calcularPrefetch(long mensagensProntas, int consumidoresAlvo, int piso) {
+        long porConsumidor = mensagensProntas / Math.max(consumidoresAlvo, 1);
+        return (int) Math.max(Math.min(porConsumidor, prefetchMaximo), piso);
+    }
+
+    /**
+     * No modo lote o piso é o tamanho do lote, senão o container nunca monta um lote cheio. No pipeline é o prefetch
+     * da própria factory, também usada pela gravação adiada: com menos mensagens em voo, a persistência não junta
+     * lotes inteiros.
+     */
+    private int pisoPrefetch(String listenerId) {
+        if (LISTENER_LOTE.equals(listenerId)) {
+            return tamanhoLote;
+        }
+        if (ackAssincrono(listenerId)) {
+            return prefetchPipeline;
+        }
+        return prefetchMinimo;
+    }
+
+    /**
+     * Os dois listeners usam a factory do pipeline: ack manual, dado depois por outra thread.
+     */
+    private static boolean ackAssincrono(String listenerId) {
+        return LISTENER_PIPELINE.equals(listenerId) || LISTENER_GRAVACAO_ADIADA.equals(listenerId);
+    }
+
+    /**
+     * Só o listener do modo configurado tem auto-startup; os outros nunca sobem.
+     */
+    private SimpleMessageListenerContainer listenerAtivo() {
+        for (String id : LISTENERS_ENTRADA) {
+            MessageListenerContainer container = rabbitListenerEndpointRegistry.getListenerContainer(id);
+            if (container instanceof SimpleMessageListenerContainer simples && container.isAutoStartup()) {
+                return simples;
+            }
+        }
+        return null;
+    }
+
+    private long lerProfundidade() {
+        QueueInformation informacao = amqpAdmin.getQueueInfo(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA);
+        return informacao == null ? 0 : informacao.getMessageCount();
+    }
+
+    private LeituraPool lerPool() {
+        try {
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+            if (mxBean == null) {
+                return new LeituraPool(0, hikari.getMaximumPoolSize(), 0);
+            }
+            return new LeituraPool(mxBean.getActiveConnections(), hikari.getMaximumPoolSize(), mxBean.getThreadsAwaitingConnection());
+        } catch (SQLException e) {
+            return new LeituraPool(0, 1, 0);
+        }
+    }
+
+    private void registrarDecisao(String acao) {
+        Counter.builder("pedidos.entrada.autoescalonamento.decisoes")
+                .tag("acao", acao)
+                .register(registry)
+                .increment();
+    }
+
+    record LeituraPool(int ativas, int maximo, int aguardando) {
+
+        double utilizacao() {
+            return maximo == 0 ? 0 : (double) ativas / maximo;
+        }
+
+        boolean esgotado() {
+            return ativas >= maximo && aguardando > 0;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.myproject.orders.infrastructure.messaging.in;
+
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
+import com.myproject.orders.domain.exception.PedidoDuplicadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decide o destino de uma mensagem de {@code pedidos.entrada} que falhou. Erros transitórios (timeout de banco,
+ * lock) voltam para a fila principal passando pelas filas de espera de 1s, 10s e 60s, com o número da tentativa
+ * no cabeçalho {@link #HEADER_TENTATIVAS}. Erros permanentes (duplicidade, validação, conversão) e a falha depois
+ * da última espera vão direto para a DLQ. A cópia reagendada só conta depois de confirmada pelo broker: sem isso,
+ * o ack da entrega original perderia o pedido quando a cópia fosse recusada ou devolvida.
+ */
+@Component
+public class EncaminhadorRetentativas implements MessageRecoverer {
+
+    public static final String HEADER_TENTATIVAS = "x-pedidos-tentativas";
+
+    private static final Logger logger = LoggerFactory.getLogger(EncaminhadorRetentativas.class);
+
+    private static final List<Class<? extends Throwable>> ERROS_PERMANENTES = List.of(
+            PedidoDuplicadoException.class,
+            ValidationException.class,
+            MessageConversionException.class,
+            org.springframework.messaging.converter.MessageConversionException.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    private final Counter reagendadas;
+    private final Counter descartadas;
+    private final long timeoutConfirmacaoMs;
+
+    public EncaminhadorRetentativas(MeterRegistry registry,
+                                    @Value("${pedidos.entrada.retentativas.timeout-confirmacao-ms:5000}") long timeoutConfirmacaoMs) {
+        this.timeoutConfirmacaoMs = timeoutConfirmacaoMs;
+        this.reagendadas = Counter.builder("pedidos.entrada.retentativas")
+                .tag("destino", "espera")
+                .register(registry);
+        this.descartadas = Counter.builder("pedidos.entrada.retentativas")
+                .tag("destino", "dlq")
+                .register(registry);
+    }
+
+    /**
+     * Usado pelo listener unitário (advice de retry do container): lançar a exceção faz o container rejeitar
+     * a mensagem, que cai na DLQ pelo dead-letter de {@code pedidos.entrada}.
+     */
+    @Override
+    public void recover(Message mensagem, Throwable causa) {
+        if (!reagendar(mensagem, ehPermanente(causa))) {
+            throw new AmqpRejectAndDontRequeueException("Mensagem enviada para a DLQ", causa);
+        }
+    }
+
+    /**
+     * Publica a mensagem na próxima fila de espera e espera a confirmação do broker. Retorna {@code false} quando
+     * ela deve ir para a DLQ, inclusive se a cópia for recusada (nack), devolvida sem rota (mandatory) ou não for
+     * confirmada em {@code timeoutConfirmacaoMs}; com {@code true}, quem chamou deve dar ack na entrega original.
+     */
+    public boolean reagendar(Message mensagem, boolean permanente) {
+        MessageProperties propriedades = mensagem.getMessageProperties();
+        int tentativas = tentativas(mensagem);
+        if (permanente || tentativas >= RabbitMQConfig.QUEUES_PEDIDOS_ENTRADA_ESPERA.size()) {
+            descartadas.increment();
+            return false;
+        }
+        String filaEspera = RabbitMQConfig.QUEUES_PEDIDOS_ENTRADA_ESPERA.get(tentativas);
+        propriedades.setHeader(HEADER_TENTATIVAS, tentativas + 1);
+        try {
+            enviarConfirmado(filaEspera, mensagem);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrompido ao reagendar mensagem em {}; ela seguirá para a DLQ.", filaEspera);
+            descartadas.increment();
+            return false;
+        } catch (Exception e) {
+            logger.error("Falha ao reagendar mensagem em {}; ela seguirá para a DLQ: {}", filaEspera, e.getMessage(), e);
+            descartadas.increment();
+            return false;
+        }
+        logger.warn("Mensagem reagendada em {} (tentativa {} de {}).", filaEspera, tentativas + 1, RabbitMQConfig.QUEUES_PEDIDOS_ENTRADA_ESPERA.size());
+        reagendadas.increment();
+        return true;
+    }
+
+    private void enviarConfirmado(String filaEspera, Message mensagem) throws Exception {
+        CorrelationData correlacao = new CorrelationData();
+        rabbitTemplate.send(RabbitMQConfig.EXCHANGE_RETENTATIVAS, filaEspera, mensagem, correlacao);
+        CorrelationData.Confirm confirmacao = correlacao.getFuture().get(timeoutConfirmacaoMs, TimeUnit.MILLISECONDS);
+        if (!confirmacao.isAck()) {
+            throw new IllegalStateException("Broker recusou a cópia: " + confirmacao.getReason());
+        }
+        // Com mandatory, a devolução chega antes do ack da mesma mensagem.
+        if (correlacao.getReturned() != null) {
+            throw new IllegalStateException("Cópia devolvida sem fila de destino: " + correlacao.getReturned().getReplyText());
+        }
+    }
+
+    public static int tentativas(Message mensagem) {
+        Object valor = mensagem.getMessageProperties().getHeader(HEADER_TENTATIVAS);
+        return valor instanceof Number numero ? numero.intValue() : 0;
+    }
+
+    public static boolean ehPermanente(Throwable causa) {
+        for (Throwable atual = causa; atual != null; atual = atual.getCause()) {
+            for (Class<? extends Throwable> tipo : ERROS_PERMANENTES) {
+                if (tipo.isInstance(atual)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean ehPermanente(SituacaoProcessamento situacao) {
+        return situacao != SituacaoProcessamento.ERRO;
+    }
+}
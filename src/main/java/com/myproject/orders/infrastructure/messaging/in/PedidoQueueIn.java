@@ -1,17 +1,30 @@
 package com.myproject.orders.infrastructure.messaging.in;
 
+import com.myproject.orders.application.adapters.PedidoPersistanceGravacaoAdiada;
 import com.myproject.orders.application.config.RabbitMQConfig;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
 import com.myproject.orders.domain.ports.in.PedidoQueueInPort;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
 import com.myproject.orders.domain.useCases.PedidoUseCase;
+import com.rabbitmq.client.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class PedidoQueueIn implements PedidoQueueInPort {
 
@@ -21,10 +34,31 @@ public class PedidoQueueIn implements PedidoQueueInPort {
     @Autowired
     private PedidoMapper pedidoMapper;
 
+    @Autowired
+    private MessageConverter jsonMessageConverter;
+
+    @Autowired(required = false)
+    private PipelinePedidos pipelinePedidos;
+
+    @Autowired(required = false)
+    private PedidoPersistanceGravacaoAdiada gravacaoAdiada;
+
+    @Autowired
+    private EncaminhadorRetentativas encaminhadorRetentativas;
+
+    @Autowired
+    private RastreamentoPort rastreamentoPort;
+
     private static final Logger logger = LoggerFactory.getLogger(PedidoQueueIn.class);
 
 
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA)
+    @RabbitListener(id = "pedidosEntradaListener", queues = RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA,
+            autoStartup = "#{'${pedidos.entrada.modo:unitario}' == 'unitario'}")
+    @Override
+    public void receiveRawMessage(Message mensagem) {
+        receiveMessage(decodificar(mensagem));
+    }
+
     @Override
     public void receiveMessage(@Payload PedidoRequestDto pedidoRequestDto) {
         logger.info("Recebido pedido do Produto Externo: {}", pedidoRequestDto.getIdExterno());
@@ -36,7 +70,151 @@ public class PedidoQueueIn implements PedidoQueueInPort {
             var errorMessage = "Houve um problema ao receber o pedido: " + ex.getMessage();
             logger.error(errorMessage, ex);
 
-            throw new RuntimeException(errorMessage);
+            throw new RuntimeException(errorMessage, ex);
+        }
+    }
+
+    @RabbitListener(id = "pedidosEntradaLoteListener", queues = RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA,
+            containerFactory = "rabbitBatchListenerContainerFactory", autoStartup = "#{'${pedidos.entrada.modo:unitario}' == 'lote'}")
+    @Override
+    public void receiveMessages(List<Message> mensagens, Channel channel) {
+        logger.info("Recebido lote com {} pedidos do Produto Externo", mensagens.size());
+        List<PedidoRequestDto> pedidosRequestDto = new ArrayList<>(mensagens.size());
+        List<Message> mensagensConvertidas = new ArrayList<>(mensagens.size());
+
+        for (Message mensagem : mensagens) {
+            long deliveryTag = mensagem.getMessageProperties().getDeliveryTag();
+            try {
+                pedidosRequestDto.add(decodificar(mensagem));
+                mensagensConvertidas.add(mensagem);
+            } catch (Exception ex) {
+                logger.error("Mensagem {} do lote não pôde ser convertida e será rejeitada: {}", deliveryTag, ex.getMessage());
+                rejeitar(channel, deliveryTag);
+            }
+        }
+
+        if (pedidosRequestDto.isEmpty()) {
+            return;
+        }
+
+        List<ResultadoProcessamento> resultados;
+        try {
+            resultados = pedidoUseCase.processarPedidosEmLote(pedidosRequestDto);
+        } catch (Exception ex) {
+            logger.error("Houve um problema ao processar o lote de pedidos: {}", ex.getMessage(), ex);
+            boolean permanente = EncaminhadorRetentativas.ehPermanente(ex);
+            mensagensConvertidas.forEach(mensagem -> reagendarOuRejeitar(channel, mensagem, permanente));
+            return;
+        }
+
+        for (int i = 0; i < resultados.size(); i++) {
+            ResultadoProcessamento resultado = resultados.get(i);
+            Message mensagem = mensagensConvertidas.get(i);
+            if (resultado.processadoComSucesso()) {
+                confirmar(channel, mensagem.getMessageProperties().getDeliveryTag());
+            } else {
+                logger.error("Pedido com ID Externo {} rejeitado ({}): {}", resultado.getIdExterno(), resultado.getSituacao(), resultado.getMensagem());
+                reagendarOuRejeitar(channel, mensagem, EncaminhadorRetentativas.ehPermanente(resultado.getSituacao()));
+            }
+        }
+    }
+
+    @RabbitListener(id = "pedidosEntradaPipelineListener", queues = RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA,
+            containerFactory = "rabbitPipelineListenerContainerFactory", autoStartup = "#{'${pedidos.entrada.modo:unitario}' == 'pipeline'}")
+    @Override
+    public void receiveMessagePipeline(Message mensagem, Channel channel) {
+        pipelinePedidos.submeter(mensagem, channel);
+    }
+
+    /**
+     * Valida e precifica na thread do listener e só agenda a gravação. O ack sai do executor de conclusão da gravação
+     * adiada, depois do commit do grupo em que o pedido entrou; o listener já segue para a próxima mensagem.
+     */
+    @RabbitListener(id = "pedidosEntradaGravacaoAdiadaListener", queues = RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA,
+            containerFactory = "rabbitPipelineListenerContainerFactory", autoStartup = "#{'${pedidos.entrada.modo:unitario}' == 'gravacao-adiada'}")
+    @Override
+    public void receiveMessageGravacaoAdiada(Message mensagem, Channel channel) {
+        long deliveryTag = mensagem.getMessageProperties().getDeliveryTag();
+        try {
+            Pedido pedido = pedidoUseCase.prepararPedidoParaGravacao(decodificar(mensagem));
+            long inicio = System.nanoTime();
+            gravacaoAdiada.agendarGravacao(pedido).whenCompleteAsync((pedidoSalvo, erro) -> {
+                if (erro == null) {
+                    concluirGravacao(channel, mensagem, pedidoSalvo, System.nanoTime() - inicio);
+                } else {
+                    logger.error("Pedido com ID Externo {} não foi gravado: {}", pedido.getIdExterno(), erro.getMessage());
+                    reagendarOuRejeitar(channel, mensagem, EncaminhadorRetentativas.ehPermanente(erro));
+                }
+            }, gravacaoAdiada.executorDeConclusao());
+        } catch (Exception ex) {
+            logger.error("Pedido da mensagem {} não será gravado: {}", deliveryTag, ex.getMessage());
+            reagendarOuRejeitar(channel, mensagem, EncaminhadorRetentativas.ehPermanente(ex));
+        }
+    }
+
+    private void concluirGravacao(Channel channel, Message mensagem, Pedido pedidoSalvo, long duracaoGravacaoNanos) {
+        try {
+            pedidoUseCase.concluirPedidoGravado(pedidoSalvo, duracaoGravacaoNanos);
+            confirmar(channel, mensagem.getMessageProperties().getDeliveryTag());
+        } catch (Exception ex) {
+            logger.error("Pedido com ID Externo {} gravado, mas não concluído: {}", pedidoSalvo.getIdExterno(), ex.getMessage(), ex);
+            reagendarOuRejeitar(channel, mensagem, false);
+        }
+    }
+
+    private PedidoRequestDto decodificar(Message mensagem) {
+        return decodificar(mensagem, jsonMessageConverter, rastreamentoPort);
+    }
+
+    /**
+     * Converte a mensagem medindo quanto ela esperou na fila desde o carimbo do produtor e quanto levou a decodificação.
+     * Também usado pelo estágio de decodificação do {@link PipelinePedidos}.
+     */
+    static PedidoRequestDto decodificar(Message mensagem, MessageConverter conversor, RastreamentoPort rastreamentoPort) {
+        Rastreamento rastreamento = lerRastreamento(mensagem);
+        rastreamentoPort.registrarDesdeProducao(EstagioLatencia.FILA, rastreamento);
+        long inicio = System.nanoTime();
+        mensagem.getMessageProperties().setInferredArgumentType(PedidoRequestDto.class);
+        PedidoRequestDto pedidoRequestDto = (PedidoRequestDto) conversor.fromMessage(mensagem);
+        rastreamentoPort.registrar(EstagioLatencia.DECODIFICACAO, System.nanoTime() - inicio);
+        pedidoRequestDto.setRastreamento(rastreamento);
+        return pedidoRequestDto;
+    }
+
+    /**
+     * Mensagens de produtores que não carimbam os cabeçalhos seguem sem rastreamento.
+     */
+    private static Rastreamento lerRastreamento(Message mensagem) {
+        Object traceId = mensagem.getMessageProperties().getHeader(RabbitMQConfig.HEADER_TRACE_ID);
+        if (traceId == null) {
+            return null;
+        }
+        Object produzidoEm = mensagem.getMessageProperties().getHeader(RabbitMQConfig.HEADER_PRODUZIDO_EM);
+        return new Rastreamento(traceId.toString(), produzidoEm instanceof Number numero ? numero.longValue() : null);
+    }
+
+    private void reagendarOuRejeitar(Channel channel, Message mensagem, boolean permanente) {
+        long deliveryTag = mensagem.getMessageProperties().getDeliveryTag();
+        if (encaminhadorRetentativas.reagendar(mensagem, permanente)) {
+            confirmar(channel, deliveryTag);
+        } else {
+            rejeitar(channel, deliveryTag);
+        }
+    }
+
+    private void confirmar(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException e) {
+            logger.error("Falha ao confirmar mensagem {}: {}", deliveryTag, e.getMessage(), e);
+        }
+    }
+
+    private void rejeitar(Channel channel, long deliveryTag) {
+        try {
+            channel.basicReject(deliveryTag, false);
+        } catch (IOException e) {
+            logger.error("Falha ao rejeitar mensagem {}: {}", deliveryTag, e.getMessage(), e);
         }
     }
 }
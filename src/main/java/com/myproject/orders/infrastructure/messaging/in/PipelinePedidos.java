@@ -0,0 +1,337 @@
+package com.myproject.orders.infrastructure.messaging.in;
+
+import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
+import com.myproject.orders.domain.helpers.CalculadoraPedidoService;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
+import com.myproject.orders.domain.useCases.PedidoUseCase;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Pipeline de entrada do modo {@code pedidos.entrada.modo=pipeline}: decodificação, precificação, persistência
+ * e confirmação rodam em estágios separados, cada um com seu pool de threads, ligados por filas limitadas.
+ * Fila cheia bloqueia o estágio anterior e, no fim da cadeia, a thread do listener, que deixa de receber
+ * mensagens além do prefetch. A persistência agrupa vários pedidos por transação (group commit) e a mensagem
+ * só recebe ack depois do commit do seu pedido.
+ * <p>
+ * Não há estágio de publicação: o caminho previsto é o outbox ({@code pedidos.saida.outbox.habilitado}, padrão),
+ * em que o evento de saída entra na transação do grupo e o relay publica depois, fora do pipeline. Com o outbox
+ * desligado, a publicação acontece dentro do estágio de persistência, logo depois do commit, e ocupa a thread dele.
+ */
+@Component
+@ConditionalOnProperty(name = "pedidos.entrada.modo", havingValue = "pipeline")
+public class PipelinePedidos {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelinePedidos.class);
+
+    private static final long ESPERA_POLL_MS = 100;
+
+    @Autowired
+    private PedidoUseCase pedidoUseCase;
+
+    @Autowired
+    private PedidoMapper pedidoMapper;
+
+    @Autowired
+    private CalculadoraPedidoService calculadoraPedidoService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MessageConverter jsonMessageConverter;
+
+    @Autowired
+    private EncaminhadorRetentativas encaminhadorRetentativas;
+
+    @Autowired
+    private RastreamentoPort rastreamentoPort;
+
+    private final MeterRegistry registry;
+    private final int tamanhoLotePersistencia;
+    private final long esperaMaximaLoteMs;
+
+    private final Estagio decodificacao;
+    private final Estagio precificacao;
+    private final Estagio persistencia;
+    private final Estagio confirmacao;
+
+    private final DistributionSummary tamanhoDoLote;
+    private volatile boolean ativo;
+
+    public PipelinePedidos(MeterRegistry registry,
+                           @Value("${pedidos.entrada.pipeline.capacidade-fila:1024}") int capacidadeFila,
+                           @Value("${pedidos.entrada.pipeline.decodificacao.threads:2}") int threadsDecodificacao,
+                           @Value("${pedidos.entrada.pipeline.precificacao.threads:2}") int threadsPrecificacao,
+                           @Value("${pedidos.entrada.pipeline.persistencia.threads:2}") int threadsPersistencia,
+                           @Value("${pedidos.entrada.pipeline.confirmacao.threads:1}") int threadsConfirmacao,
+                           @Value("${pedidos.entrada.pipeline.persistencia.lote:100}") int tamanhoLotePersistencia,
+                           @Value("${pedidos.entrada.pipeline.persistencia.espera-maxima-ms:20}") long esperaMaximaLoteMs) {
+        this.registry = registry;
+        this.tamanhoLotePersistencia = tamanhoLotePersistencia;
+        this.esperaMaximaLoteMs = esperaMaximaLoteMs;
+        this.decodificacao = new Estagio("decodificacao", capacidadeFila, threadsDecodificacao);
+        this.precificacao = new Estagio("precificacao", capacidadeFila, threadsPrecificacao);
+        this.persistencia = new Estagio("persistencia", capacidadeFila, threadsPersistencia);
+        this.confirmacao = new Estagio("confirmacao", capacidadeFila, threadsConfirmacao);
+        this.tamanhoDoLote = DistributionSummary.builder("pedidos.entrada.pipeline.lote.tamanho")
+                .description("Pedidos gravados por transação no estágio de persistência")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        decodificacao.iniciar(this::decodificar);
+        precificacao.iniciar(this::precificar);
+        persistencia.iniciarEmLote(this::persistir);
+        confirmacao.iniciar(this::confirmar);
+        logger.info("Pipeline de entrada iniciado (lote de persistência: {}, espera máxima: {} ms).", tamanhoLotePersistencia, esperaMaximaLoteMs);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        for (Estagio estagio : List.of(decodificacao, precificacao, persistencia, confirmacao)) {
+            estagio.executor.shutdown();
+            if (!estagio.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                estagio.executor.shutdownNow();
+            }
+        }
+        logger.info("Pipeline de entrada parado; mensagens sem ack serão reentregues pelo broker.");
+    }
+
+    /**
+     * Chamado pela thread do listener; bloqueia enquanto a fila de decodificação estiver cheia.
+     */
+    public void submeter(Message mensagem, Channel canal) {
+        encaminhar(decodificacao, new ItemPipeline(mensagem, canal));
+    }
+
+    private void decodificar(ItemPipeline item) {
+        PedidoRequestDto pedidoRequestDto;
+        try {
+            pedidoRequestDto = PedidoQueueIn.decodificar(item.mensagem, jsonMessageConverter, rastreamentoPort);
+        } catch (Exception ex) {
+            item.falhar(null, SituacaoProcessamento.INVALIDO, "Mensagem não pôde ser convertida: " + ex.getMessage());
+            encaminhar(confirmacao, item);
+            return;
+        }
+        Set<ConstraintViolation<PedidoRequestDto>> violacoes = validator.validate(pedidoRequestDto);
+        if (!violacoes.isEmpty()) {
+            String mensagem = violacoes.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(" "));
+            item.falhar(pedidoRequestDto.getIdExterno(), SituacaoProcessamento.INVALIDO, mensagem);
+            encaminhar(confirmacao, item);
+            return;
+        }
+        item.pedido = pedidoMapper.toDomain(pedidoRequestDto);
+        encaminhar(precificacao, item);
+    }
+
+    private void precificar(ItemPipeline item) {
+        long inicio = System.nanoTime();
+        item.pedido.setValorTotal(calculadoraPedidoService.calcularValorTotalPedido(item.pedido));
+        rastreamentoPort.registrar(EstagioLatencia.CALCULO, System.nanoTime() - inicio);
+        encaminhar(persistencia, item);
+    }
+
+    private void persistir(List<ItemPipeline> itens) {
+        tamanhoDoLote.record(itens.size());
+        List<Pedido> pedidos = itens.stream().map(item -> item.pedido).collect(Collectors.toList());
+        try {
+            List<ResultadoProcessamento> resultados = pedidoUseCase.processarPedidosPrecificados(pedidos);
+            for (int i = 0; i < itens.size(); i++) {
+                itens.get(i).resultado = resultados.get(i);
+            }
+        } catch (Exception ex) {
+            logger.error("Houve um problema ao gravar o lote de {} pedidos do pipeline: {}", itens.size(), ex.getMessage(), ex);
+            itens.forEach(item -> item.falhar(item.pedido.getIdExterno(), SituacaoProcessamento.ERRO, ex.getMessage()));
+        }
+        itens.forEach(item -> encaminhar(confirmacao, item));
+    }
+
+    private void confirmar(ItemPipeline item) {
+        long deliveryTag = item.mensagem.getMessageProperties().getDeliveryTag();
+        try {
+            if (item.resultado.processadoComSucesso()) {
+                item.canal.basicAck(deliveryTag, false);
+            } else {
+                logger.error("Pedido com ID Externo {} rejeitado ({}): {}", item.resultado.getIdExterno(), item.resultado.getSituacao(), item.resultado.getMensagem());
+                if (encaminhadorRetentativas.reagendar(item.mensagem, EncaminhadorRetentativas.ehPermanente(item.resultado.getSituacao()))) {
+                    item.canal.basicAck(deliveryTag, false);
+                } else {
+                    item.canal.basicReject(deliveryTag, false);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Falha ao confirmar mensagem {}: {}", deliveryTag, e.getMessage(), e);
+        }
+    }
+
+    private void encaminhar(Estagio destino, ItemPipeline item) {
+        try {
+            destino.fila.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pipeline interrompido ao encaminhar para " + destino.nome, e);
+        }
+    }
+
+    private static final class ItemPipeline {
+        private final Message mensagem;
+        private final Channel canal;
+        private Pedido pedido;
+        private ResultadoProcessamento resultado;
+
+        private ItemPipeline(Message mensagem, Channel canal) {
+            this.mensagem = mensagem;
+            this.canal = canal;
+        }
+
+        private void falhar(String idExterno, SituacaoProcessamento situacao, String mensagem) {
+            this.resultado = ResultadoProcessamento.falha(idExterno, situacao, mensagem);
+        }
+    }
+
+    private final class Estagio {
+        private final String nome;
+        private final BlockingQueue<ItemPipeline> fila;
+        private final int threads;
+        private final ExecutorService executor;
+        private final Timer tempoDeServico;
+
+        private Estagio(String nome, int capacidadeFila, int threads) {
+            this.nome = nome;
+            this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+            this.threads = threads;
+            AtomicInteger contador = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, tarefa -> {
+                Thread thread = new Thread(tarefa, "pipeline-" + nome + "-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.tempoDeServico = Timer.builder("pedidos.entrada.pipeline.servico")
+                    .tag("estagio", nome)
+                    .description("Tempo gasto por cada execução do estágio")
+                    .register(registry);
+            Gauge.builder("pedidos.entrada.pipeline.fila", fila, BlockingQueue::size)
+                    .tag("estagio", nome)
+                    .description("Itens aguardando o estágio")
+                    .register(registry);
+        }
+
+        private void iniciar(Consumer<ItemPipeline> processador) {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    while (ativo) {
+                        ItemPipeline item = proximo();
+                        if (item != null) {
+                            executar(() -> processador.accept(item), item);
+                        }
+                    }
+                });
+            }
+        }
+
+        private void iniciarEmLote(Consumer<List<ItemPipeline>> processador) {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    while (ativo) {
+                        ItemPipeline primeiro = proximo();
+                        if (primeiro == null) {
+                            continue;
+                        }
+                        List<ItemPipeline> lote = new ArrayList<>(tamanhoLotePersistencia);
+                        lote.add(primeiro);
+                        completarLote(lote);
+                        executar(() -> processador.accept(lote), null);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Junta o que já está na fila e espera no máximo {@code esperaMaximaLoteMs} pelo resto do lote.
+         */
+        private void completarLote(List<ItemPipeline> lote) {
+            long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaLoteMs);
+            while (lote.size() < tamanhoLotePersistencia) {
+                if (fila.drainTo(lote, tamanhoLotePersistencia - lote.size()) > 0) {
+                    continue;
+                }
+                long restante = prazo - System.nanoTime();
+                if (restante <= 0) {
+                    return;
+                }
+                try {
+                    ItemPipeline item = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (item == null) {
+                        return;
+                    }
+                    lote.add(item);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private ItemPipeline proximo() {
+            try {
+                return fila.poll(ESPERA_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ativo = false;
+                return null;
+            }
+        }
+
+        /**
+         * Um erro inesperado não pode deixar a mensagem sem ack nem reject: o item segue direto para a confirmação.
+         */
+        private void executar(Runnable tarefa, ItemPipeline item) {
+            try {
+                tempoDeServico.record(tarefa);
+            } catch (Exception ex) {
+                logger.error("Erro inesperado no estágio {} do pipeline: {}", nome, ex.getMessage(), ex);
+                if (item != null && this != confirmacao) {
+                    item.falhar(item.pedido != null ? item.pedido.getIdExterno() : null, SituacaoProcessamento.ERRO, ex.getMessage());
+                    encaminhar(confirmacao, item);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.myproject.orders.infrastructure.messaging.out;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import com.myproject.orders.domain.ports.out.PedidoQueueOutPort;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
+import com.myproject.orders.infrastructure.entity.PedidoOutboxEntity;
+import com.myproject.orders.infrastructure.repositories.PedidoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drena a tabela {@code pedido_outbox} em lotes e publica em {@code pedidos.saida} com confirmação do broker.
+ * Uma linha só é marcada como enviada depois do ack; em caso de falha ela volta a ser lida no próximo ciclo,
+ * então o consumidor precisa tolerar entrega repetida (at-least-once). Depois de {@code tentativas-maximas} falhas
+ * a linha fica estacionada na tabela, fora da leitura do relay, para não travar os eventos seguintes.
+ */
+@Component
+@ConditionalOnProperty(name = "pedidos.saida.outbox.habilitado", havingValue = "true", matchIfMissing = true)
+public class PedidoOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(PedidoOutboxRelay.class);
+
+    @Autowired
+    private PedidoOutboxRepository pedidoOutboxRepository;
+
+    @Autowired
+    private PedidoQueueOutPort pedidoQueueOutPort;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RastreamentoPort rastreamentoPort;
+
+    private final int tamanhoLote;
+    private final int lotesPorCiclo;
+    private final long timeoutConfirmacaoMs;
+    private final long retencaoHoras;
+    private final int tentativasMaximas;
+
+    private final AtomicLong atrasoMs = new AtomicLong();
+    private final AtomicLong pendentes = new AtomicLong();
+    private final AtomicLong estacionados = new AtomicLong();
+
+    private final Counter publicados;
+    private final Counter falhas;
+    private final Counter esgotados;
+    private final DistributionSummary tamanhoDoLote;
+    private final Timer duracaoDoLote;
+
+    public PedidoOutboxRelay(MeterRegistry registry,
+                             @Value("${pedidos.saida.outbox.tamanho-lote:200}") int tamanhoLote,
+                             @Value("${pedidos.saida.outbox.lotes-por-ciclo:10}") int lotesPorCiclo,
+                             @Value("${pedidos.saida.outbox.timeout-confirmacao-ms:5000}") long timeoutConfirmacaoMs,
+                             @Value("${pedidos.saida.outbox.retencao-horas:24}") long retencaoHoras,
+                             @Value("${pedidos.saida.outbox.tentativas-maximas:10}") int tentativasMaximas) {
+        this.tamanhoLote = tamanhoLote;
+        this.lotesPorCiclo = lotesPorCiclo;
+        this.timeoutConfirmacaoMs = timeoutConfirmacaoMs;
+        this.retencaoHoras = retencaoHoras;
+        this.tentativasMaximas = tentativasMaximas;
+
+        this.publicados = Counter.builder("pedidos.outbox.publicados")
+                .description("Eventos do outbox confirmados pelo broker")
+                .register(registry);
+        this.falhas = Counter.builder("pedidos.outbox.falhas")
+                .description("Eventos do outbox que ficaram para o próximo ciclo")
+                .register(registry);
+        this.esgotados = Counter.builder("pedidos.outbox.tentativas.esgotadas")
+                .description("Eventos do outbox estacionados por esgotarem as tentativas")
+                .register(registry);
+        this.tamanhoDoLote = DistributionSummary.builder("pedidos.outbox.lote.tamanho")
+                .register(registry);
+        this.duracaoDoLote = Timer.builder("pedidos.outbox.lote.duracao")
+                .register(registry);
+        Gauge.builder("pedidos.outbox.atraso", atrasoMs, AtomicLong::get)
+                .description("Idade do evento pendente mais antigo")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("pedidos.outbox.pendentes", pendentes, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("pedidos.outbox.estacionados", estacionados, AtomicLong::get)
+                .description("Eventos que esgotaram as tentativas e aguardam intervenção")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${pedidos.saida.outbox.intervalo-ms:200}")
+    public void drenar() {
+        for (int i = 0; i < lotesPorCiclo; i++) {
+            Integer confirmados = transactionTemplate.execute(status -> duracaoDoLote.record(this::enviarLote));
+            if (confirmados == null || confirmados < tamanhoLote) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * As contagens varrem os pendentes, então rodam num intervalo próprio, bem mais longo que o do envio.
+     */
+    @Scheduled(fixedDelayString = "${pedidos.saida.outbox.intervalo-metricas-ms:5000}")
+    public void atualizarMetricas() {
+        pendentes.set(pedidoOutboxRepository.countByEnviadoEmIsNullAndTentativasLessThan(tentativasMaximas));
+        estacionados.set(pedidoOutboxRepository.countByEnviadoEmIsNullAndTentativasGreaterThanEqual(tentativasMaximas));
+        atrasoMs.set(pedidoOutboxRepository.buscarCriacaoMaisAntigaPendente(tentativasMaximas)
+                .map(criadoEm -> Math.max(Duration.between(criadoEm, LocalDateTime.now()).toMillis(), 0))
+                .orElse(0L));
+    }
+
+    @Scheduled(fixedDelayString = "${pedidos.saida.outbox.intervalo-limpeza-ms:3600000}")
+    public void removerEnviados() {
+        Integer removidos = transactionTemplate.execute(status ->
+                pedidoOutboxRepository.removerEnviadosAntesDe(LocalDateTime.now().minusHours(retencaoHoras)));
+        if (removidos != null && removidos > 0) {
+            logger.info("{} eventos já enviados removidos do outbox.", removidos);
+        }
+    }
+
+    /**
+     * Publica o lote inteiro antes de esperar qualquer confirmação, para pagar a latência do broker uma vez por lote.
+     */
+    int enviarLote() {
+        List<PedidoOutboxEntity> eventos = pedidoOutboxRepository.buscarPendentesParaEnvio(tamanhoLote, tentativasMaximas);
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+        tamanhoDoLote.record(eventos.size());
+
+        List<CompletableFuture<Void>> confirmacoes = new ArrayList<>(eventos.size());
+        for (PedidoOutboxEntity evento : eventos) {
+            confirmacoes.add(publicar(evento));
+        }
+
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutConfirmacaoMs);
+        List<Long> enviados = new ArrayList<>(eventos.size());
+        for (int i = 0; i < eventos.size(); i++) {
+            PedidoOutboxEntity evento = eventos.get(i);
+            try {
+                confirmacoes.get(i).get(Math.max(prazo - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                enviados.add(evento.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                registrarFalha(evento);
+            } catch (Exception e) {
+                logger.warn("Evento {} do pedido {} não foi confirmado pelo broker (tentativa {}): {}",
+                        evento.getId(), evento.getPedidoId(), evento.getTentativas() + 1, e.getMessage());
+                registrarFalha(evento);
+            }
+        }
+
+        if (!enviados.isEmpty()) {
+            pedidoOutboxRepository.marcarComoEnviados(enviados, LocalDateTime.now());
+            publicados.increment(enviados.size());
+        }
+        logger.debug("Lote do outbox com {} eventos: {} confirmados.", eventos.size(), enviados.size());
+        return enviados.size();
+    }
+
+    /**
+     * A entidade está gerenciada pela transação do lote, então a nova contagem vai para o banco no commit.
+     */
+    private void registrarFalha(PedidoOutboxEntity evento) {
+        evento.setTentativas(evento.getTentativas() + 1);
+        falhas.increment();
+        if (evento.getTentativas() >= tentativasMaximas) {
+            esgotados.increment();
+            logger.error("Evento {} do pedido {} (ID Externo {}) esgotou {} tentativas e ficou estacionado no outbox.",
+                    evento.getId(), evento.getPedidoId(), evento.getIdExterno(), tentativasMaximas);
+        }
+    }
+
+    private CompletableFuture<Void> publicar(PedidoOutboxEntity evento) {
+        try {
+            PedidoResponseDto pedidoResponseDto = objectMapper.readValue(evento.getPayload(), PedidoResponseDto.class);
+            if (evento.getTraceId() != null) {
+                pedidoResponseDto.setRastreamento(new Rastreamento(evento.getTraceId(), evento.getProduzidoEm()));
+            }
+            if (evento.getCreatedAt() != null) {
+                rastreamentoPort.registrar(EstagioLatencia.OUTBOX,
+                        Math.max(Duration.between(evento.getCreatedAt(), LocalDateTime.now()).toNanos(), 0));
+            }
+            return pedidoQueueOutPort.publishMessageAsync(pedidoResponseDto);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
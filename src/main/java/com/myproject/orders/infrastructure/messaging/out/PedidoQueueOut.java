@@ -2,31 +2,168 @@ package com.myproject.orders.infrastructure.messaging.out;
 
 import com.myproject.orders.application.config.RabbitMQConfig;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
 import com.myproject.orders.domain.ports.out.PedidoQueueOutPort;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.text.MessageFormat.format;
+
 @Component
-public class PedidoQueueOut implements PedidoQueueOutPort {
+public class PedidoQueueOut implements PedidoQueueOutPort, MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(PedidoQueueOut.class);
 
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private RastreamentoPort rastreamentoPort;
+
+    private final int maximoEmVoo;
+    private final Semaphore mensagensEmVoo;
+    private final long esperaMaximaMs;
+    private final long timeoutConfirmacaoMs;
+
+    private final LongAdder confirmadas = new LongAdder();
+    private final LongAdder recusadas = new LongAdder();
+    private final LongAdder devolvidas = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+
+    public PedidoQueueOut(@Value("${pedidos.saida.publicacao.maximo-em-voo:1000}") int maximoEmVoo,
+                          @Value("${pedidos.saida.publicacao.espera-maxima-ms:5000}") long esperaMaximaMs,
+                          @Value("${pedidos.saida.publicacao.timeout-confirmacao-ms:10000}") long timeoutConfirmacaoMs) {
+        this.maximoEmVoo = maximoEmVoo;
+        this.mensagensEmVoo = new Semaphore(maximoEmVoo);
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.timeoutConfirmacaoMs = timeoutConfirmacaoMs;
+    }
 
+    /**
+     * Publica e espera a confirmação do broker pelo mesmo caminho de {@link #publishMessageAsync}: nack, devolução
+     * por falta de rota e timeout de confirmação viram exceção para quem chamou, em vez de se perderem.
+     */
     @Override
     public void publishMessage(PedidoResponseDto pedidoResponseDto) {
         try {
-            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_PEDIDOS, RabbitMQConfig.ROUTING_KEY_SAIDA, pedidoResponseDto);
-            logger.info("Pedido {} (ID Externo: {}) enviado com sucesso para o Produto Externo B.", pedidoResponseDto.getId(), pedidoResponseDto.getIdExterno());
+            publishMessageAsync(pedidoResponseDto).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException("Erro ao publicar mensagem para o RabbitMQ", e.getCause());
+        }
+        logger.info("Pedido {} (ID Externo: {}) enviado com sucesso para o Produto Externo B.", pedidoResponseDto.getId(), pedidoResponseDto.getIdExterno());
+    }
+
+    /**
+     * Publica sem bloquear; o future só completa quando o broker confirmar (publisher confirms correlacionados).
+     * Nack, mensagem devolvida por falta de rota (mandatory) e timeout de confirmação completam o future com erro.
+     * Quando já há {@code maximoEmVoo} mensagens sem confirmação, espera até {@code esperaMaximaMs} por uma vaga.
+     */
+    @Override
+    public CompletableFuture<Void> publishMessageAsync(PedidoResponseDto pedidoResponseDto) {
+        try {
+            if (!mensagensEmVoo.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                falhas.increment();
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                        format("Limite de {0} mensagens aguardando confirmação atingido.", maximoEmVoo)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
 
+        CorrelationData correlacao = new CorrelationData(String.valueOf(pedidoResponseDto.getId()));
+        Rastreamento rastreamento = pedidoResponseDto.getRastreamento();
+        long inicio = System.nanoTime();
+        try {
+            if (rastreamento == null) {
+                rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_PEDIDOS, RabbitMQConfig.ROUTING_KEY_SAIDA, pedidoResponseDto, correlacao);
+            } else {
+                rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_PEDIDOS, RabbitMQConfig.ROUTING_KEY_SAIDA, pedidoResponseDto, carimbar(rastreamento), correlacao);
+            }
         } catch (Exception e) {
-            logger.error("Falha ao enviar pedido {} (ID Externo: {}) para o RabbitMQ: {}", pedidoResponseDto.getId(), pedidoResponseDto.getIdExterno(), e.getMessage(), e);
-            throw new RuntimeException("Erro ao publicar mensagem para o RabbitMQ", e);
+            mensagensEmVoo.release();
+            falhas.increment();
+            logger.error("Falha ao enviar pedido {} (ID Externo: {}) para o RabbitMQ: {}", pedidoResponseDto.getId(), pedidoResponseDto.getIdExterno(), e.getMessage());
+            return CompletableFuture.failedFuture(new RuntimeException("Erro ao publicar mensagem para o RabbitMQ", e));
         }
+
+        return correlacao.getFuture()
+                .orTimeout(timeoutConfirmacaoMs, TimeUnit.MILLISECONDS)
+                .whenComplete((confirmacao, erro) -> mensagensEmVoo.release())
+                .handle((confirmacao, erro) -> {
+                    if (erro != null) {
+                        falhas.increment();
+                        throw new IllegalStateException(format("Pedido {0} sem confirmação do broker: {1}", pedidoResponseDto.getId(), erro.getMessage()), erro);
+                    }
+                    if (!confirmacao.isAck()) {
+                        recusadas.increment();
+                        throw new IllegalStateException(format("Broker recusou o pedido {0}: {1}", pedidoResponseDto.getId(), confirmacao.getReason()));
+                    }
+                    // Com mandatory, a devolução chega antes do ack da mesma mensagem.
+                    if (correlacao.getReturned() != null) {
+                        devolvidas.increment();
+                        throw new IllegalStateException(format("Pedido {0} devolvido pelo broker sem fila de destino: {1}",
+                                pedidoResponseDto.getId(), correlacao.getReturned().getReplyText()));
+                    }
+                    confirmadas.increment();
+                    rastreamentoPort.registrar(EstagioLatencia.PUBLICACAO, System.nanoTime() - inicio);
+                    rastreamentoPort.registrarDesdeProducao(EstagioLatencia.TOTAL, rastreamento);
+                    return null;
+                });
+    }
+
+    /**
+     * Repassa para pedidos.saida o trace-id e o carimbo do produtor da mensagem de entrada.
+     */
+    private static MessagePostProcessor carimbar(Rastreamento rastreamento) {
+        return mensagem -> {
+            mensagem.getMessageProperties().setHeader(RabbitMQConfig.HEADER_TRACE_ID, rastreamento.getTraceId());
+            if (rastreamento.getProduzidoEm() != null) {
+                mensagem.getMessageProperties().setHeader(RabbitMQConfig.HEADER_PRODUZIDO_EM, rastreamento.getProduzidoEm());
+            }
+            return mensagem;
+        };
+    }
+
+    public int mensagensAguardandoConfirmacao() {
+        return maximoEmVoo - mensagensEmVoo.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registrarContador(registry, confirmadas, "confirmada");
+        registrarContador(registry, recusadas, "recusada");
+        registrarContador(registry, devolvidas, "devolvida");
+        registrarContador(registry, falhas, "falha");
+        Gauge.builder("pedidos.saida.publicacao.em.voo", this, PedidoQueueOut::mensagensAguardandoConfirmacao)
+                .description("Mensagens publicadas ainda sem confirmação do broker")
+                .register(registry);
+    }
+
+    private static void registrarContador(MeterRegistry registry, LongAdder contador, String resultado) {
+        FunctionCounter.builder("pedidos.saida.publicacao", contador, LongAdder::sum)
+                .tag("resultado", resultado)
+                .register(registry);
     }
 }
@@ -0,0 +1,39 @@
+package com.myproject.orders.infrastructure.repositories;
+
+import com.myproject.orders.infrastructure.entity.PedidoOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PedidoOutboxRepository extends JpaRepository<PedidoOutboxEntity, Long> {
+
+    /**
+     * Trava as linhas devolvidas até o fim da transação; outras instâncias do relay pulam as travadas em vez de esperar.
+     * Linhas que já esgotaram as tentativas ficam estacionadas e não voltam mais.
+     */
+    @Query(value = "SELECT * FROM pedido_outbox WHERE enviado_em IS NULL AND tentativas < :tentativasMaximas "
+            + "ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PedidoOutboxEntity> buscarPendentesParaEnvio(int limite, int tentativasMaximas);
+
+    @Modifying
+    @Query("UPDATE PedidoOutboxEntity o SET o.enviadoEm = :agora, o.updatedAt = :agora WHERE o.id IN :ids")
+    int marcarComoEnviados(Collection<Long> ids, LocalDateTime agora);
+
+    @Query("SELECT MIN(o.createdAt) FROM PedidoOutboxEntity o WHERE o.enviadoEm IS NULL AND o.tentativas < :tentativasMaximas")
+    Optional<LocalDateTime> buscarCriacaoMaisAntigaPendente(int tentativasMaximas);
+
+    long countByEnviadoEmIsNullAndTentativasLessThan(int tentativasMaximas);
+
+    long countByEnviadoEmIsNullAndTentativasGreaterThanEqual(int tentativasMaximas);
+
+    @Modifying
+    @Query("DELETE FROM PedidoOutboxEntity o WHERE o.enviadoEm < :limite")
+    int removerEnviadosAntesDe(LocalDateTime limite);
+}
@@ -1,15 +1,59 @@
 package com.myproject.orders.infrastructure.repositories;
 
+import com.myproject.orders.domain.enums.StatusPedido;
 import com.myproject.orders.infrastructure.entity.PedidoEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<PedidoEntity, Long> {
 
     @Query("SELECT p FROM PedidoEntity p WHERE p.idExterno = :idExterno")
     Optional<PedidoEntity> buscarPedidoPorIdExterno(String idExterno);
+
+    boolean existsByIdExterno(String idExterno);
+
+    @Query(value = "SELECT p.id FROM PedidoEntity p", countQuery = "SELECT count(p) FROM PedidoEntity p")
+    Page<Long> buscarIdsPaginados(Pageable pageable);
+
+    @Query("SELECT p.id FROM PedidoEntity p ORDER BY p.createdAt, p.id")
+    List<Long> buscarPrimeirosIdsPorCriacao(Limit limite);
+
+    @Query("SELECT p.id FROM PedidoEntity p WHERE p.createdAt >= :criadoEm " +
+            "AND (p.createdAt > :criadoEm OR p.id > :id) ORDER BY p.createdAt, p.id")
+    List<Long> buscarIdsAposCursor(LocalDateTime criadoEm, Long id, Limit limite);
+
+    @Query("SELECT DISTINCT p FROM PedidoEntity p LEFT JOIN FETCH p.itens WHERE p.id IN :ids")
+    List<PedidoEntity> buscarComItensPorIds(Collection<Long> ids);
+
+    @Query("SELECT p.idExterno FROM PedidoEntity p WHERE p.idExterno IN :idsExternos")
+    List<String> buscarIdsExternosExistentes(Collection<String> idsExternos);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT p.idExterno FROM PedidoEntity p")
+    Stream<String> listarTodosIdsExternos();
+
+    @Query(value = "INSERT INTO pedido (id, id_externo, status, valor_total, created_at, updated_at) " +
+            "VALUES (nextval('pedido_seq'), :idExterno, :status, :valorTotal, :agora, :agora) " +
+            "ON CONFLICT (id_externo) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> inserirSeNaoExistir(String idExterno, String status, BigDecimal valorTotal, LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE PedidoEntity p SET p.status = :novo, p.updatedAt = :agora WHERE p.id = :id AND p.status = :atual")
+    int atualizarStatus(Long id, StatusPedido atual, StatusPedido novo, LocalDateTime agora);
 }
@@ -0,0 +1,132 @@
+package com.myproject.orders.application.adapters;
+
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PedidoPersistanceCacheTest {
+
+    private PedidoPersistancePort pedidoPersistance;
+    private PedidoPersistanceCache pedidoPersistanceCache;
+    private Pedido pedidoDomain;
+
+    @BeforeEach
+    void setUp() {
+        pedidoPersistance = mock(PedidoPersistancePort.class);
+        pedidoPersistanceCache = new PedidoPersistanceCache(100, 60);
+        ReflectionTestUtils.setField(pedidoPersistanceCache, "pedidoPersistance", pedidoPersistance);
+        pedidoDomain = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
+    }
+
+    @Test
+    @DisplayName("Deve buscar o pedido no banco uma única vez e servir as leituras seguintes do cache")
+    void buscarPedidoPorId_DeveServirDoCacheAposPrimeiraLeitura() {
+        when(pedidoPersistance.buscarPedidoPorId(1L)).thenReturn(Optional.of(pedidoDomain));
+
+        assertThat(pedidoPersistanceCache.buscarPedidoPorId(1L)).contains(pedidoDomain);
+        assertThat(pedidoPersistanceCache.buscarPedidoPorId(1L)).contains(pedidoDomain);
+
+        verify(pedidoPersistance, times(1)).buscarPedidoPorId(1L);
+    }
+
+    @Test
+    @DisplayName("Não deve guardar no cache pedidos inexistentes")
+    void buscarPedidoPorId_NaoDeveGuardarPedidoInexistente() {
+        when(pedidoPersistance.buscarPedidoPorId(99L)).thenReturn(Optional.empty());
+
+        assertThat(pedidoPersistanceCache.buscarPedidoPorId(99L)).isEmpty();
+        assertThat(pedidoPersistanceCache.buscarPedidoPorId(99L)).isEmpty();
+
+        verify(pedidoPersistance, times(2)).buscarPedidoPorId(99L);
+    }
+
+    @Test
+    @DisplayName("Deve remover o pedido do cache ao deletar")
+    void deletarPedido_DeveInvalidarCache() {
+        when(pedidoPersistance.buscarPedidoPorId(1L)).thenReturn(Optional.of(pedidoDomain), Optional.empty());
+        pedidoPersistanceCache.buscarPedidoPorId(1L);
+
+        pedidoPersistanceCache.deletarPedido(1L);
+
+        assertThat(pedidoPersistanceCache.buscarPedidoPorId(1L)).isEmpty();
+        verify(pedidoPersistance, times(1)).deletarPedido(1L);
+    }
+
+    @Test
+    @DisplayName("Deve remover o pedido do cache ao mudar o status")
+    void atualizarStatus_DeveInvalidarCache() {
+        when(pedidoPersistance.buscarPedidoPorId(1L)).thenReturn(Optional.of(pedidoDomain));
+        pedidoPersistanceCache.buscarPedidoPorId(1L);
+
+        pedidoPersistanceCache.atualizarStatus(1L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO);
+        pedidoPersistanceCache.buscarPedidoPorId(1L);
+
+        verify(pedidoPersistance, times(2)).buscarPedidoPorId(1L);
+    }
+
+    @Test
+    @DisplayName("Deve fazer uma única leitura no banco para falhas de cache simultâneas do mesmo pedido")
+    void buscarPedidoPorId_DeveCarregarUmaUnicaVezComLeiturasSimultaneas() throws Exception {
+        CountDownLatch carregando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(pedidoPersistance.buscarPedidoPorId(1L)).thenAnswer(invocation -> {
+            carregando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return Optional.of(pedidoDomain);
+        });
+
+        CompletableFuture<Optional<Pedido>> primeira = CompletableFuture.supplyAsync(() -> pedidoPersistanceCache.buscarPedidoPorId(1L));
+        assertThat(carregando.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Optional<Pedido>> segunda = CompletableFuture.supplyAsync(() -> pedidoPersistanceCache.buscarPedidoPorId(1L));
+        liberar.countDown();
+
+        assertThat(primeira.get(5, TimeUnit.SECONDS)).contains(pedidoDomain);
+        assertThat(segunda.get(5, TimeUnit.SECONDS)).contains(pedidoDomain);
+        verify(pedidoPersistance, times(1)).buscarPedidoPorId(1L);
+    }
+
+    @Test
+    @DisplayName("Não deve deixar a carga pendente quando o banco lançar Error")
+    void buscarPedidoPorId_DeveLiberarCargaQuandoDelegadoLancarError() throws Exception {
+        when(pedidoPersistance.buscarPedidoPorId(1L))
+                .thenThrow(new OutOfMemoryError("sem memória"))
+                .thenReturn(Optional.of(pedidoDomain));
+
+        assertThatThrownBy(() -> pedidoPersistanceCache.buscarPedidoPorId(1L)).isInstanceOf(OutOfMemoryError.class);
+
+        CompletableFuture<Optional<Pedido>> segunda = CompletableFuture.supplyAsync(() -> pedidoPersistanceCache.buscarPedidoPorId(1L));
+        assertThat(segunda.get(5, TimeUnit.SECONDS)).contains(pedidoDomain);
+    }
+
+    @Test
+    @DisplayName("Deve exportar as métricas do cache")
+    void bindTo_DeveRegistrarMetricasDoCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        when(pedidoPersistance.buscarPedidoPorId(1L)).thenReturn(Optional.of(pedidoDomain));
+
+        pedidoPersistanceCache.bindTo(registry);
+        pedidoPersistanceCache.buscarPedidoPorId(1L);
+        pedidoPersistanceCache.buscarPedidoPorId(1L);
+
+        assertThat(registry.get("cache.gets").tag("cache", "pedidos").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.evictions").tag("cache", "pedidos").functionCounter()).isNotNull();
+    }
+}
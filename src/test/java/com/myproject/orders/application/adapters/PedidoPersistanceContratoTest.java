@@ -0,0 +1,37 @@
+package com.myproject.orders.application.adapters;
+
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import com.myproject.orders.infrastructure.repositories.PedidoOutboxRepository;
+import com.myproject.orders.infrastructure.repositories.PedidoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class PedidoPersistanceContratoTest extends PedidoPersistancePortContrato {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private PedidoOutboxRepository pedidoOutboxRepository;
+
+    @Override
+    protected PedidoPersistancePort criarAdapter() {
+        PedidoPersistance pedidoPersistance = new PedidoPersistance();
+        ReflectionTestUtils.setField(pedidoPersistance, "pedidoRepository", pedidoRepository);
+        ReflectionTestUtils.setField(pedidoPersistance, "pedidoOutboxRepository", pedidoOutboxRepository);
+        ReflectionTestUtils.setField(pedidoPersistance, "pedidoMapper", pedidoMapper);
+        ReflectionTestUtils.setField(pedidoPersistance, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(pedidoPersistance, "entityManager", entityManager.getEntityManager());
+        ReflectionTestUtils.setField(pedidoPersistance, "jdbcTemplate", jdbcTemplate);
+        return pedidoPersistance;
+    }
+
+    /**
+     * {@code inserirSeNaoExistir} usa {@code RETURNING id}, que só existe no PostgreSQL; no H2 o caminho fica coberto
+     * pelos testes com mocks de {@link PedidoPersistanceTest}.
+     */
+    @Override
+    protected boolean inserirPedidoSeNovoRodaNoH2() {
+        return false;
+    }
+}
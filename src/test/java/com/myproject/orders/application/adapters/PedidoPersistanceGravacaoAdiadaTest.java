@@ -0,0 +1,144 @@
+package com.myproject.orders.application.adapters;
+
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.exception.PedidoDuplicadoException;
+import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class PedidoPersistanceGravacaoAdiadaTest {
+
+    private PedidoPersistancePort pedidoPersistance;
+    private SimpleMeterRegistry registry;
+    private PedidoPersistanceGravacaoAdiada gravacaoAdiada;
+
+    private void iniciar(int tamanhoLote, long esperaMaximaMs, boolean outboxHabilitado) {
+        pedidoPersistance = mock(PedidoPersistancePort.class);
+        registry = new SimpleMeterRegistry();
+        gravacaoAdiada = new PedidoPersistanceGravacaoAdiada(registry, 16, tamanhoLote, esperaMaximaMs, 1);
+        ReflectionTestUtils.setField(gravacaoAdiada, "pedidoPersistance", pedidoPersistance);
+        ReflectionTestUtils.setField(gravacaoAdiada, "outboxHabilitado", outboxHabilitado);
+        gravacaoAdiada.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gravacaoAdiada.parar();
+    }
+
+    @Test
+    @DisplayName("Deve gravar os pedidos agendados numa única transação e concluir os futuros depois do commit")
+    void agendarGravacao_DeveGravarGrupoNumaTransacao() throws Exception {
+        iniciar(3, 1000, true);
+        when(pedidoPersistance.salvarPedidosERegistrarEventos(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Pedido pedido1 = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
+        Pedido pedido2 = MassaDeDadosFactory.criarExemploPedidoDomain(2L);
+        Pedido pedido3 = MassaDeDadosFactory.criarExemploPedidoDomain(3L);
+
+        CompletableFuture<Pedido> futuro1 = gravacaoAdiada.agendarGravacao(pedido1);
+        CompletableFuture<Pedido> futuro2 = gravacaoAdiada.agendarGravacao(pedido2);
+        CompletableFuture<Pedido> futuro3 = gravacaoAdiada.agendarGravacao(pedido3);
+
+        assertThat(futuro1.get(2, TimeUnit.SECONDS)).isSameAs(pedido1);
+        assertThat(futuro2.get(2, TimeUnit.SECONDS)).isSameAs(pedido2);
+        assertThat(futuro3.get(2, TimeUnit.SECONDS)).isSameAs(pedido3);
+        verify(pedidoPersistance, times(1)).salvarPedidosERegistrarEventos(List.of(pedido1, pedido2, pedido3));
+        assertThat(registry.get("pedidos.persistencia.gravacao-adiada.grupo").summary().count()).isEqualTo(1);
+        assertThat(registry.get("pedidos.persistencia.gravacao-adiada.grupo").summary().totalAmount()).isEqualTo(3);
+        assertThat(registry.get("pedidos.persistencia.gravacao-adiada.latencia").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve gravar o grupo incompleto quando o pedido mais antigo atinge a espera máxima")
+    void agendarGravacao_DeveGravarGrupoIncompletoAposEsperaMaxima() throws Exception {
+        iniciar(100, 20, false);
+        when(pedidoPersistance.salvarPedidos(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Pedido pedido = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
+
+        assertThat(gravacaoAdiada.agendarGravacao(pedido).get(2, TimeUnit.SECONDS)).isSameAs(pedido);
+
+        verify(pedidoPersistance).salvarPedidos(List.of(pedido));
+        verify(pedidoPersistance, never()).salvarPedidosERegistrarEventos(any());
+    }
+
+    @Test
+    @DisplayName("Deve gravar pedido a pedido quando a transação do grupo falhar e apontar o duplicado")
+    void agendarGravacao_DeveGravarIndividualmenteQuandoGrupoFalhar() throws Exception {
+        iniciar(2, 1000, true);
+        Pedido pedidoValido = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
+        Pedido pedidoDuplicado = MassaDeDadosFactory.criarExemploPedidoDomain(2L);
+        when(pedidoPersistance.salvarPedidosERegistrarEventos(List.of(pedidoValido, pedidoDuplicado)))
+                .thenThrow(new DataIntegrityViolationException("uk_id_externo"));
+        when(pedidoPersistance.salvarPedidosERegistrarEventos(List.of(pedidoValido))).thenReturn(List.of(pedidoValido));
+        when(pedidoPersistance.salvarPedidosERegistrarEventos(List.of(pedidoDuplicado)))
+                .thenThrow(new DataIntegrityViolationException("uk_id_externo"));
+        when(pedidoPersistance.buscarPedidoPorIdExterno(pedidoDuplicado.getIdExterno())).thenReturn(true);
+
+        CompletableFuture<Pedido> futuroValido = gravacaoAdiada.agendarGravacao(pedidoValido);
+        CompletableFuture<Pedido> futuroDuplicado = gravacaoAdiada.agendarGravacao(pedidoDuplicado);
+
+        assertThat(futuroValido.get(2, TimeUnit.SECONDS)).isSameAs(pedidoValido);
+        assertThatThrownBy(() -> futuroDuplicado.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PedidoDuplicadoException.class);
+        assertThat(registry.get("pedidos.persistencia.gravacao-adiada.falhas").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve repassar o erro original quando o pedido isolado falhar sem ser duplicado")
+    void agendarGravacao_DeveRepassarErroQuandoNaoForDuplicidade() {
+        iniciar(1, 1000, true);
+        Pedido pedido = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
+        when(pedidoPersistance.salvarPedidosERegistrarEventos(anyList())).thenThrow(new IllegalStateException("timeout"));
+        when(pedidoPersistance.buscarPedidoPorIdExterno(pedido.getIdExterno())).thenReturn(false);
+
+        CompletableFuture<Pedido> futuro = gravacaoAdiada.agendarGravacao(pedido);
+
+        assertThatThrownBy(() -> futuro.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        verify(pedidoPersistance, times(2)).salvarPedidosERegistrarEventos(List.of(pedido));
+    }
+
+    @Test
+    @DisplayName("Deve falhar o grupo em andamento e recusar novos pedidos quando a thread de gravação morrer")
+    void agendarGravacao_DeveRecusarPedidoQuandoThreadDeGravacaoMorrer() {
+        iniciar(1, 1000, true);
+        Pedido pedido = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
+        when(pedidoPersistance.salvarPedidosERegistrarEventos(anyList())).thenReturn(List.of());
+
+        CompletableFuture<Pedido> futuro = gravacaoAdiada.agendarGravacao(pedido);
+
+        assertThatThrownBy(() -> futuro.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> gravacaoAdiada.agendarGravacao(MassaDeDadosFactory.criarExemploPedidoDomain(2L)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Deve recusar novos pedidos depois de parada")
+    void agendarGravacao_DeveRecusarPedidoDepoisDeParada() throws InterruptedException {
+        iniciar(10, 10, true);
+        gravacaoAdiada.parar();
+
+        assertThatThrownBy(() -> gravacaoAdiada.agendarGravacao(MassaDeDadosFactory.criarExemploPedidoDomain(1L)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
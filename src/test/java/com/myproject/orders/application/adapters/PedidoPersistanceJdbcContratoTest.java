@@ -0,0 +1,16 @@
+package com.myproject.orders.application.adapters;
+
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class PedidoPersistanceJdbcContratoTest extends PedidoPersistancePortContrato {
+
+    @Override
+    protected PedidoPersistancePort criarAdapter() {
+        PedidoPersistanceJdbc pedidoPersistanceJdbc = new PedidoPersistanceJdbc();
+        ReflectionTestUtils.setField(pedidoPersistanceJdbc, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(pedidoPersistanceJdbc, "pedidoMapper", pedidoMapper);
+        ReflectionTestUtils.setField(pedidoPersistanceJdbc, "objectMapper", objectMapper);
+        return pedidoPersistanceJdbc;
+    }
+}
@@ -0,0 +1,313 @@
+package com.myproject.orders.application.adapters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.myproject.orders.application.config.JpaAuditingConfig;
+import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.Item;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Comportamento esperado de qualquer {@link PedidoPersistancePort} sobre o banco; cada adaptador tem sua subclasse.
+ * Roda no H2 em modo PostgreSQL, que aceita o {@code ON CONFLICT DO NOTHING} de {@code inserirPedidoSeNovo}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:contrato;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@Import(JpaAuditingConfig.class)
+abstract class PedidoPersistancePortContrato {
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    @Autowired
+    protected DataSource dataSource;
+
+    protected JdbcTemplate jdbcTemplate;
+
+    protected final PedidoMapper pedidoMapper = new PedidoMapper();
+
+    /**
+     * Mesma configuração de datas do ObjectMapper do Spring Boot, que serializa as respostas do controller.
+     */
+    protected final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private PedidoPersistancePort adapter;
+
+    protected abstract PedidoPersistancePort criarAdapter();
+
+    /**
+     * O H2 não tem {@code INSERT ... RETURNING}; o adaptador que depende dele desliga os testes de
+     * {@code inserirPedidoSeNovo}.
+     */
+    protected boolean inserirPedidoSeNovoRodaNoH2() {
+        return true;
+    }
+
+    @BeforeEach
+    void montarAdapter() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        adapter = criarAdapter();
+    }
+
+    @Test
+    @DisplayName("Deve salvar pedidos com itens e devolvê-los com ids e datas de gravação")
+    void salvarPedidos_DeveGravarPedidosComItens() {
+        List<Pedido> salvos = adapter.salvarPedidos(List.of(novoPedido("CONTRATO-1", 2), novoPedido("CONTRATO-2", 1)));
+        confirmar();
+
+        assertThat(salvos).extracting(Pedido::getId).doesNotContainNull().doesNotHaveDuplicates();
+        Pedido lido = adapter.buscarPedidoPorId(salvos.get(0).getId()).orElseThrow();
+        assertThat(lido.getIdExterno()).isEqualTo("CONTRATO-1");
+        assertThat(lido.getStatus()).isEqualTo(StatusPedido.PROCESSANDO);
+        assertThat(lido.getValorTotal()).isEqualByComparingTo("100.00");
+        assertThat(lido.getCreatedAt()).isNotNull();
+        assertThat(lido.getItens()).extracting(Item::getProdutoId).containsExactlyInAnyOrder("PROD-0", "PROD-1");
+        assertThat(lido.getItens()).extracting(Item::getId).doesNotContainNull();
+        assertThat(adapter.buscarPedidoPorId(salvos.get(1).getId()).orElseThrow().getItens()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deve inserir o pedido novo com seus itens pelo inserirPedidoSeNovo")
+    void inserirPedidoSeNovo_DeveInserirPedidoEItens() {
+        assumeTrue(inserirPedidoSeNovoRodaNoH2());
+        Optional<Pedido> inserido = adapter.inserirPedidoSeNovo(novoPedido("CONTRATO-NOVO", 2));
+        confirmar();
+
+        assertThat(inserido).isPresent();
+        assertThat(inserido.get().getId()).isNotNull();
+        assertThat(inserido.get().getItens()).extracting(Item::getId).doesNotContainNull();
+        Pedido lido = adapter.buscarPedidoPorId(inserido.get().getId()).orElseThrow();
+        assertThat(lido.getIdExterno()).isEqualTo("CONTRATO-NOVO");
+        assertThat(lido.getStatus()).isEqualTo(StatusPedido.PROCESSANDO);
+        assertThat(lido.getItens()).extracting(Item::getProdutoId).containsExactlyInAnyOrder("PROD-0", "PROD-1");
+    }
+
+    @Test
+    @DisplayName("Deve devolver Optional vazio e não gravar itens quando o idExterno já existir")
+    void inserirPedidoSeNovo_DeveRetornarVazioQuandoDuplicado() {
+        assumeTrue(inserirPedidoSeNovoRodaNoH2());
+        Long id = adapter.inserirPedidoSeNovo(novoPedido("CONTRATO-DUP", 1)).orElseThrow().getId();
+        confirmar();
+
+        Optional<Pedido> duplicado = adapter.inserirPedidoSeNovo(novoPedido("CONTRATO-DUP", 3));
+        confirmar();
+
+        assertThat(duplicado).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pedido WHERE id_externo = ?", Long.class, "CONTRATO-DUP")).isEqualTo(1);
+        assertThat(adapter.buscarPedidoPorId(id).orElseThrow().getItens()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deve salvar um pedido novo pelo salvarPedido")
+    void salvarPedido_DeveGravarPedidoNovo() {
+        Pedido salvo = adapter.salvarPedido(novoPedido("CONTRATO-UNICO", 1));
+        confirmar();
+
+        assertThat(salvo.getId()).isNotNull();
+        assertThat(adapter.existsById(salvo.getId())).isTrue();
+        assertThat(adapter.buscarPedidoPorId(salvo.getId()).orElseThrow().getItens()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deve devolver Optional vazio ao buscar pedido inexistente")
+    void buscarPedidoPorId_DeveRetornarVazioQuandoNaoExiste() {
+        assertThat(adapter.buscarPedidoPorId(-1L)).isEmpty();
+        assertThat(adapter.buscarPedidoJsonPorId(-1L)).isEmpty();
+        assertThat(adapter.existsById(-1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve listar pedidos paginados na ordem pedida e com o total de registros")
+    void listarPedidos_DevePaginarNaOrdemPedida() {
+        List<Long> ids = idsDe(adapter.salvarPedidos(List.of(
+                novoPedido("CONTRATO-P1", 1), novoPedido("CONTRATO-P2", 2), novoPedido("CONTRATO-P3", 1))));
+        confirmar();
+
+        Page<Pedido> pagina = adapter.listarPedidos(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertThat(pagina.getTotalElements()).isEqualTo(3);
+        assertThat(idsDe(pagina.getContent())).containsExactly(ids.get(2), ids.get(1));
+        assertThat(pagina.getContent().get(1).getItens()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer os pedidos por cursor sem repetir nem pular registros")
+    void listarPedidosAposCursor_DevePercorrerTodosOsPedidos() {
+        List<Long> ids = idsDe(adapter.salvarPedidos(List.of(
+                novoPedido("CONTRATO-C1", 1), novoPedido("CONTRATO-C2", 1), novoPedido("CONTRATO-C3", 1))));
+        confirmar();
+
+        List<Pedido> primeira = adapter.listarPedidosAposCursor(null, 2);
+        List<Pedido> segunda = adapter.listarPedidosAposCursor(CursorPedido.posicaoDe(primeira.get(1)), 2);
+
+        List<Long> percorridos = new ArrayList<>(idsDe(primeira));
+        percorridos.addAll(idsDe(segunda));
+        assertThat(percorridos).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(segunda.get(0).getItens()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deve exportar só os pedidos do status filtrado, com seus itens")
+    void exportarPedidos_DeveFiltrarPorStatus() {
+        List<Long> ids = idsDe(adapter.salvarPedidos(List.of(novoPedido("CONTRATO-E1", 2), novoPedido("CONTRATO-E2", 1))));
+        confirmar();
+        adapter.atualizarStatus(ids.get(0), StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO);
+        confirmar();
+
+        List<Pedido> exportados = new ArrayList<>();
+        adapter.exportarPedidos(new FiltroExportacao(StatusPedido.PROCESSADO, null, null), exportados::add);
+
+        assertThat(idsDe(exportados)).containsExactly(ids.get(0));
+        assertThat(exportados.get(0).getItens()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Deve consultar e percorrer os idExterno gravados")
+    void idsExternos_DevemRefletirOsPedidosGravados() {
+        adapter.salvarPedidos(List.of(novoPedido("CONTRATO-X1", 1), novoPedido("CONTRATO-X2", 1)));
+        confirmar();
+
+        assertThat(adapter.buscarPedidoPorIdExterno("CONTRATO-X1")).isTrue();
+        assertThat(adapter.buscarPedidoPorIdExterno("CONTRATO-INEXISTENTE")).isFalse();
+        assertThat(adapter.buscarIdsExternosExistentes(List.of("CONTRATO-X2", "CONTRATO-INEXISTENTE")))
+                .containsExactly("CONTRATO-X2");
+        assertThat(adapter.buscarIdsExternosExistentes(List.of())).isEmpty();
+        List<String> percorridos = new ArrayList<>();
+        adapter.percorrerIdsExternos(percorridos::add);
+        assertThat(percorridos).containsExactlyInAnyOrder("CONTRATO-X1", "CONTRATO-X2");
+    }
+
+    @Test
+    @DisplayName("Deve trocar o status só a partir do status esperado")
+    void atualizarStatus_DeveRespeitarStatusAtual() {
+        Long id = adapter.salvarPedidos(List.of(novoPedido("CONTRATO-S1", 1))).get(0).getId();
+        confirmar();
+
+        assertThat(adapter.atualizarStatus(id, StatusPedido.PENDENTE, StatusPedido.PROCESSADO)).isFalse();
+        assertThat(adapter.atualizarStatus(id, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO)).isTrue();
+        confirmar();
+
+        assertThat(adapter.buscarPedidoPorId(id).orElseThrow().getStatus()).isEqualTo(StatusPedido.PROCESSADO);
+    }
+
+    @Test
+    @DisplayName("Deve registrar o evento no outbox só quando a troca de status acontece")
+    void atualizarStatusERegistrarEvento_DeveGravarEventoJuntoComStatus() {
+        Pedido salvo = adapter.salvarPedidos(List.of(novoPedido("CONTRATO-O1", 1))).get(0);
+        confirmar();
+
+        assertThat(adapter.atualizarStatusERegistrarEvento(salvo.getId(), StatusPedido.PENDENTE, StatusPedido.PROCESSADO,
+                pedidoMapper.toResponseDto(salvo))).isFalse();
+        assertThat(adapter.atualizarStatusERegistrarEvento(salvo.getId(), StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO,
+                pedidoMapper.toResponseDto(salvo))).isTrue();
+        confirmar();
+
+        assertThat(payloadsDoOutbox()).singleElement().asString().contains("CONTRATO-O1");
+    }
+
+    @Test
+    @DisplayName("Deve salvar os pedidos e um evento de outbox por pedido na mesma chamada")
+    void salvarPedidosERegistrarEventos_DeveGravarUmEventoPorPedido() {
+        List<Pedido> salvos = adapter.salvarPedidosERegistrarEventos(List.of(novoPedido("CONTRATO-L1", 1), novoPedido("CONTRATO-L2", 3)));
+        confirmar();
+
+        assertThat(salvos).hasSize(2);
+        List<String> payloads = payloadsDoOutbox();
+        assertThat(payloads).hasSize(2);
+        assertThat(payloads).anySatisfy(payload -> assertThat(payload).contains("CONTRATO-L1"));
+        assertThat(payloads).anySatisfy(payload -> assertThat(payload).contains("CONTRATO-L2"));
+    }
+
+    @Test
+    @DisplayName("Deve deletar o pedido junto com seus itens")
+    void deletarPedido_DeveRemoverPedidoEItens() {
+        Long id = adapter.salvarPedidos(List.of(novoPedido("CONTRATO-D1", 2))).get(0).getId();
+        confirmar();
+
+        adapter.deletarPedido(id);
+        confirmar();
+
+        assertThat(adapter.existsById(id)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item WHERE pedido_id = ?", Long.class, id)).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve escrever o JSON do pedido igual ao do PedidoResponseDto do mesmo pedido")
+    void buscarPedidoJsonPorId_DeveEscreverMesmoJsonDoResponseDto() throws Exception {
+        Long id = adapter.salvarPedidos(List.of(novoPedido("CONTRATO-J1", 2))).get(0).getId();
+        confirmar();
+
+        Optional<byte[]> json = adapter.buscarPedidoJsonPorId(id);
+
+        assertThat(json).isPresent();
+        Pedido lido = adapter.buscarPedidoPorId(id).orElseThrow();
+        lido.getItens().sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        assertThat(new String(json.get(), StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(pedidoMapper.toResponseDto(lido)));
+    }
+
+    /**
+     * Faz as escritas pendentes do JPA chegarem ao banco antes das leituras em JDBC, como no commit de produção.
+     */
+    private void confirmar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private List<String> payloadsDoOutbox() {
+        return jdbcTemplate.queryForList("SELECT payload FROM pedido_outbox", String.class);
+    }
+
+    private static List<Long> idsDe(List<Pedido> pedidos) {
+        return pedidos.stream().map(Pedido::getId).collect(Collectors.toList());
+    }
+
+    private static Pedido novoPedido(String idExterno, int quantidadeItens) {
+        List<Item> itens = new ArrayList<>();
+        for (int i = 0; i < quantidadeItens; i++) {
+            Item item = MassaDeDadosFactory.criarItemDomain(null, "PROD-" + i, new BigDecimal("50.00"), 2);
+            item.setCreatedAt(null);
+            item.setUpdatedAt(null);
+            itens.add(item);
+        }
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, idExterno, new BigDecimal("100.00"), StatusPedido.PROCESSANDO, itens);
+        pedido.setCreatedAt(null);
+        pedido.setUpdatedAt(null);
+        return pedido;
+    }
+}
@@ -1,31 +1,62 @@
 package com.myproject.orders.application.adapters;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.Item;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.enums.StatusPedido;
 import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.infrastructure.entity.ItemEntity;
 import com.myproject.orders.infrastructure.entity.PedidoEntity;
+import com.myproject.orders.infrastructure.entity.PedidoOutboxEntity;
+import com.myproject.orders.infrastructure.repositories.PedidoOutboxRepository;
 import com.myproject.orders.infrastructure.repositories.PedidoRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,6 +70,18 @@ public class PedidoPersistanceTest {
     @Mock
     private PedidoMapper pedidoMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PedidoOutboxRepository pedidoOutboxRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private PedidoPersistance pedidoPersistance;
 
@@ -55,10 +98,10 @@ public class PedidoPersistanceTest {
     @DisplayName("Deve listar pedidos paginados")
     void listarPedidos_DeveRetornarPedidosPaginados() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<PedidoEntity> pedidosEntitiesPage = new PageImpl<>(List.of(pedidoEntity), pageable, 1);
-        Page<Pedido> expectedPedidosPage = new PageImpl<>(List.of(pedidoDomain), pageable, 1);
+        Page<Long> idsPage = new PageImpl<>(List.of(1L), pageable, 1);
 
-        when(pedidoRepository.findAll(pageable)).thenReturn(pedidosEntitiesPage);
+        when(pedidoRepository.buscarIdsPaginados(pageable)).thenReturn(idsPage);
+        when(pedidoRepository.buscarComItensPorIds(List.of(1L))).thenReturn(List.of(pedidoEntity));
         when(pedidoMapper.toDomain(any(PedidoEntity.class))).thenReturn(pedidoDomain);
 
         Page<Pedido> result = pedidoPersistance.listarPedidos(pageable);
@@ -68,10 +111,134 @@ public class PedidoPersistanceTest {
         assertEquals(pedidoDomain.getId(), result.getContent().get(0).getId());
         assertEquals(pedidoDomain.getIdExterno(), result.getContent().get(0).getIdExterno());
 
-        verify(pedidoRepository, times(1)).findAll(pageable);
+        verify(pedidoRepository, times(1)).buscarIdsPaginados(pageable);
+        verify(pedidoRepository, times(1)).buscarComItensPorIds(List.of(1L));
+        verify(pedidoMapper, times(1)).toDomain(any(PedidoEntity.class));
+    }
+
+    @Test
+    @DisplayName("Não deve buscar itens quando a página de pedidos vier vazia")
+    void listarPedidos_NaoDeveBuscarItensQuandoPaginaVazia() {
+        Pageable pageable = PageRequest.of(5, 10);
+        when(pedidoRepository.buscarIdsPaginados(pageable)).thenReturn(new PageImpl<>(List.of(), pageable, 1));
+
+        Page<Pedido> result = pedidoPersistance.listarPedidos(pageable);
+
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(1, result.getTotalElements());
+        verify(pedidoRepository, never()).buscarComItensPorIds(any());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar o pedido apagado entre a consulta dos ids e a dos pedidos")
+    void listarPedidos_DeveIgnorarPedidoApagadoEntreAsConsultas() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(pedidoRepository.buscarIdsPaginados(pageable)).thenReturn(new PageImpl<>(List.of(1L, 2L), pageable, 2));
+        when(pedidoRepository.buscarComItensPorIds(List.of(1L, 2L))).thenReturn(List.of(pedidoEntity));
+        when(pedidoMapper.toDomain(pedidoEntity)).thenReturn(pedidoDomain);
+
+        Page<Pedido> result = pedidoPersistance.listarPedidos(pageable);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(pedidoDomain.getId(), result.getContent().get(0).getId());
         verify(pedidoMapper, times(1)).toDomain(any(PedidoEntity.class));
     }
 
+    @Test
+    @DisplayName("Deve listar os pedidos seguintes ao cursor na ordem das chaves")
+    void listarPedidosAposCursor_DeveBuscarIdsAposCursorECarregarItens() {
+        LocalDateTime criadoEm = LocalDateTime.of(2025, 1, 1, 10, 0);
+        PedidoEntity outroPedidoEntity = MassaDeDadosFactory.criarExemploPedidoEntity(2L);
+        Pedido outroPedidoDomain = MassaDeDadosFactory.criarExemploPedidoDomain(2L);
+        when(pedidoRepository.buscarIdsAposCursor(criadoEm, 5L, Limit.of(3))).thenReturn(List.of(2L, 1L));
+        when(pedidoRepository.buscarComItensPorIds(List.of(2L, 1L))).thenReturn(List.of(pedidoEntity, outroPedidoEntity));
+        when(pedidoMapper.toDomain(pedidoEntity)).thenReturn(pedidoDomain);
+        when(pedidoMapper.toDomain(outroPedidoEntity)).thenReturn(outroPedidoDomain);
+
+        List<Pedido> result = pedidoPersistance.listarPedidosAposCursor(new CursorPedido(criadoEm, 5L), 3);
+
+        assertEquals(List.of(outroPedidoDomain, pedidoDomain), result);
+        verify(pedidoRepository, never()).buscarPrimeirosIdsPorCriacao(any());
+    }
+
+    @Test
+    @DisplayName("Deve exportar os pedidos agrupando as linhas de itens de cada pedido")
+    void exportarPedidos_DeveAgruparItensPorPedido() throws Exception {
+        ResultSet linha = mock(ResultSet.class);
+        when(linha.getLong("id")).thenReturn(1L, 1L, 2L);
+        when(linha.getString("id_externo")).thenReturn("PEDIDO-EXT-1", "PEDIDO-EXT-2");
+        when(linha.getString("status")).thenReturn("PROCESSADO");
+        when(linha.getLong("item_id")).thenReturn(10L, 11L, 0L);
+        when(linha.wasNull()).thenReturn(false, false, true);
+        doAnswer(invocation -> {
+            RowCallbackHandler agrupador = invocation.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                agrupador.processRow(linha);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        List<Pedido> exportados = new ArrayList<>();
+
+        pedidoPersistance.exportarPedidos(new FiltroExportacao(StatusPedido.PROCESSADO, null, null), exportados::add);
+
+        assertEquals(2, exportados.size());
+        assertEquals("PEDIDO-EXT-1", exportados.get(0).getIdExterno());
+        assertEquals(2, exportados.get(0).getItens().size());
+        assertEquals("PEDIDO-EXT-2", exportados.get(1).getIdExterno());
+        assertTrue(exportados.get(1).getItens().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve escrever o JSON do pedido por ID igual ao do PedidoResponseDto serializado pelo Spring")
+    void buscarPedidoJsonPorId_DeveEscreverMesmoJsonDoResponseDto() throws Exception {
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(1L, "PEDIDO-EXT-1", new BigDecimal("130.50"), StatusPedido.PROCESSADO,
+                List.of(MassaDeDadosFactory.criarItemDomain(10L, "PROD-1", new BigDecimal("50.00"), 2),
+                        MassaDeDadosFactory.criarItemDomain(11L, "PROD-2", new BigDecimal("30.50"), 1)));
+        pedido.getItens().forEach(item -> item.setValorTotalItem(item.getValorUnitario().multiply(BigDecimal.valueOf(item.getQuantidade()))));
+        Item primeiro = pedido.getItens().get(0);
+        Item segundo = pedido.getItens().get(1);
+        ResultSet linha = mock(ResultSet.class);
+        when(linha.getLong("id")).thenReturn(1L);
+        when(linha.getString("id_externo")).thenReturn(pedido.getIdExterno());
+        when(linha.getString("status")).thenReturn(pedido.getStatus().name());
+        when(linha.getBigDecimal("valor_total")).thenReturn(pedido.getValorTotal());
+        when(linha.getObject("created_at", LocalDateTime.class)).thenReturn(pedido.getCreatedAt());
+        when(linha.getObject("updated_at", LocalDateTime.class)).thenReturn(pedido.getUpdatedAt());
+        when(linha.getLong("item_id")).thenReturn(primeiro.getId(), segundo.getId());
+        when(linha.wasNull()).thenReturn(false);
+        when(linha.getString("produto_id")).thenReturn(primeiro.getProdutoId(), segundo.getProdutoId());
+        when(linha.getBigDecimal("valor_unitario")).thenReturn(primeiro.getValorUnitario(), segundo.getValorUnitario());
+        when(linha.getInt("quantidade")).thenReturn(primeiro.getQuantidade(), segundo.getQuantidade());
+        when(linha.getBigDecimal("valor_total_item")).thenReturn(primeiro.getValorTotalItem(), segundo.getValorTotalItem());
+        when(linha.getObject("item_created_at", LocalDateTime.class)).thenReturn(primeiro.getCreatedAt(), segundo.getCreatedAt());
+        when(linha.getObject("item_updated_at", LocalDateTime.class)).thenReturn(primeiro.getUpdatedAt(), segundo.getUpdatedAt());
+        doAnswer(invocation -> {
+            RowCallbackHandler escritor = invocation.getArgument(1);
+            escritor.processRow(linha);
+            escritor.processRow(linha);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(1L));
+        String esperado = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writeValueAsString(new PedidoMapper().toResponseDto(pedido));
+
+        Optional<byte[]> json = pedidoPersistance.buscarPedidoJsonPorId(1L);
+
+        assertTrue(json.isPresent());
+        assertEquals(esperado, new String(json.get(), StandardCharsets.UTF_8));
+        verify(pedidoRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar Optional vazio no JSON do pedido por ID quando não há linhas")
+    void buscarPedidoJsonPorId_DeveRetornarVazioQuandoNaoEncontrado() {
+        Optional<byte[]> json = pedidoPersistance.buscarPedidoJsonPorId(99L);
+
+        assertFalse(json.isPresent());
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), eq(99L));
+    }
+
     @Test
     @DisplayName("Deve buscar pedido por ID e retornar Optional com Pedido se encontrado")
     void buscarPedidoPorId_DeveRetornarOptionalDePedidoQuandoEncontradoPorId() {
@@ -107,24 +274,55 @@ public class PedidoPersistanceTest {
     @DisplayName("Deve buscar pedido por ID Externo e retornar true se encontrado")
     void buscarPedidoPorIdExterno_DeveBuscarPorIdExternoERetornarVerdadeiroQuandoEncontrado() {
         String idExterno = "PEDIDO-EXT-TESTE-001";
-        when(pedidoRepository.buscarPedidoPorIdExterno(idExterno)).thenReturn(Optional.of(pedidoEntity));
+        when(pedidoRepository.existsByIdExterno(idExterno)).thenReturn(true);
 
         boolean result = pedidoPersistance.buscarPedidoPorIdExterno(idExterno);
         assertTrue(result);
 
-        verify(pedidoRepository, times(1)).buscarPedidoPorIdExterno(idExterno);
+        verify(pedidoRepository, times(1)).existsByIdExterno(idExterno);
     }
 
     @Test
     @DisplayName("Deve buscar pedido por ID Externo e retornar false se não encontrado")
     void buscarPedidoPorIdExterno_DeveRetornarFalsoQuandoNaoEncontrado() {
         String idExterno = "PEDIDO-EXT-INEXISTENTE";
-        when(pedidoRepository.buscarPedidoPorIdExterno(idExterno)).thenReturn(Optional.empty());
+        when(pedidoRepository.existsByIdExterno(idExterno)).thenReturn(false);
 
         boolean result = pedidoPersistance.buscarPedidoPorIdExterno(idExterno);
         assertFalse(result);
 
-        verify(pedidoRepository, times(1)).buscarPedidoPorIdExterno(idExterno);
+        verify(pedidoRepository, times(1)).existsByIdExterno(idExterno);
+    }
+
+    @Test
+    @DisplayName("Deve inserir um pedido novo e seus itens quando o ID Externo ainda não existir")
+    void inserirPedidoSeNovo_DeveInserirPedidoEItensQuandoNovo() {
+        PedidoEntity referencia = new PedidoEntity();
+        when(pedidoRepository.inserirSeNaoExistir(eq(pedidoDomain.getIdExterno()), eq(pedidoDomain.getStatus().name()),
+                eq(pedidoDomain.getValorTotal()), any(LocalDateTime.class))).thenReturn(Optional.of(1L));
+        when(pedidoMapper.toEntity(pedidoDomain)).thenReturn(pedidoEntity);
+        when(pedidoRepository.getReferenceById(1L)).thenReturn(referencia);
+        when(pedidoMapper.toDomain(pedidoEntity)).thenReturn(pedidoDomain);
+
+        Optional<Pedido> result = pedidoPersistance.inserirPedidoSeNovo(pedidoDomain);
+
+        assertTrue(result.isPresent());
+        assertEquals(1L, pedidoEntity.getId());
+        verify(entityManager, times(pedidoEntity.getItens().size())).persist(any(ItemEntity.class));
+        assertEquals(referencia, pedidoEntity.getItens().get(0).getPedido());
+    }
+
+    @Test
+    @DisplayName("Não deve inserir nada quando o ID Externo já existir")
+    void inserirPedidoSeNovo_DeveRetornarVazioQuandoDuplicado() {
+        when(pedidoRepository.inserirSeNaoExistir(eq(pedidoDomain.getIdExterno()), eq(pedidoDomain.getStatus().name()),
+                eq(pedidoDomain.getValorTotal()), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        Optional<Pedido> result = pedidoPersistance.inserirPedidoSeNovo(pedidoDomain);
+
+        assertFalse(result.isPresent());
+        verify(pedidoMapper, never()).toEntity(any(Pedido.class));
+        verify(entityManager, never()).persist(any());
     }
 
     @Test
@@ -145,6 +343,99 @@ public class PedidoPersistanceTest {
         verify(pedidoMapper, times(1)).toDomain(pedidoEntity);
     }
 
+    @Test
+    @DisplayName("Deve atualizar apenas o status quando o pedido estiver no status esperado")
+    void atualizarStatus_DeveRetornarVerdadeiroQuandoAtualizado() {
+        when(pedidoRepository.atualizarStatus(eq(1L), eq(StatusPedido.PROCESSANDO), eq(StatusPedido.PROCESSADO), any(LocalDateTime.class))).thenReturn(1);
+
+        boolean result = pedidoPersistance.atualizarStatus(1L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO);
+
+        assertTrue(result);
+        verify(pedidoRepository, never()).save(any(PedidoEntity.class));
+    }
+
+    @Test
+    @DisplayName("Deve gravar o evento no outbox quando o status for atualizado")
+    void atualizarStatusERegistrarEvento_DeveGravarEventoNoOutbox() {
+        PedidoResponseDto evento = MassaDeDadosFactory.criarExemploPedidoResponseDto(1L, "PEDIDO-EXT-1");
+        when(pedidoRepository.atualizarStatus(eq(1L), eq(StatusPedido.PROCESSANDO), eq(StatusPedido.PROCESSADO), any(LocalDateTime.class))).thenReturn(1);
+
+        boolean result = pedidoPersistance.atualizarStatusERegistrarEvento(1L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO, evento);
+
+        assertTrue(result);
+        ArgumentCaptor<PedidoOutboxEntity> captor = ArgumentCaptor.forClass(PedidoOutboxEntity.class);
+        verify(pedidoOutboxRepository, times(1)).save(captor.capture());
+        assertEquals(1L, captor.getValue().getPedidoId());
+        assertEquals("PEDIDO-EXT-1", captor.getValue().getIdExterno());
+        assertTrue(captor.getValue().getPayload().contains("\"idExterno\":\"PEDIDO-EXT-1\""));
+    }
+
+    @Test
+    @DisplayName("Deve gravar o rastreamento em colunas próprias do outbox, fora do payload")
+    void atualizarStatusERegistrarEvento_DeveGravarRastreamentoForaDoPayload() {
+        PedidoResponseDto evento = MassaDeDadosFactory.criarExemploPedidoResponseDto(1L, "PEDIDO-EXT-1");
+        evento.setRastreamento(new Rastreamento("trace-1", 1_700_000_000_000L));
+        when(pedidoRepository.atualizarStatus(eq(1L), eq(StatusPedido.PROCESSANDO), eq(StatusPedido.PROCESSADO), any(LocalDateTime.class))).thenReturn(1);
+
+        pedidoPersistance.atualizarStatusERegistrarEvento(1L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO, evento);
+
+        ArgumentCaptor<PedidoOutboxEntity> captor = ArgumentCaptor.forClass(PedidoOutboxEntity.class);
+        verify(pedidoOutboxRepository, times(1)).save(captor.capture());
+        assertEquals("trace-1", captor.getValue().getTraceId());
+        assertEquals(1_700_000_000_000L, captor.getValue().getProduzidoEm());
+        assertFalse(captor.getValue().getPayload().contains("trace-1"));
+    }
+
+    @Test
+    @DisplayName("Não deve gravar o evento no outbox quando o status não for atualizado")
+    void atualizarStatusERegistrarEvento_NaoDeveGravarEventoQuandoStatusNaoAtualizado() {
+        PedidoResponseDto evento = MassaDeDadosFactory.criarExemploPedidoResponseDto(1L, "PEDIDO-EXT-1");
+        when(pedidoRepository.atualizarStatus(eq(1L), eq(StatusPedido.PROCESSANDO), eq(StatusPedido.PROCESSADO), any(LocalDateTime.class))).thenReturn(0);
+
+        boolean result = pedidoPersistance.atualizarStatusERegistrarEvento(1L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO, evento);
+
+        assertFalse(result);
+        verify(pedidoOutboxRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve buscar em uma única consulta os IDs Externos já existentes")
+    void buscarIdsExternosExistentes_DeveRetornarIdsEncontrados() {
+        List<String> idsExternos = List.of("PEDIDO-EXT-1", "PEDIDO-EXT-2");
+        when(pedidoRepository.buscarIdsExternosExistentes(idsExternos)).thenReturn(List.of("PEDIDO-EXT-1"));
+
+        Set<String> result = pedidoPersistance.buscarIdsExternosExistentes(idsExternos);
+
+        assertEquals(Set.of("PEDIDO-EXT-1"), result);
+        verify(pedidoRepository, times(1)).buscarIdsExternosExistentes(idsExternos);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer todos os IDs Externos gravados")
+    void percorrerIdsExternos_DeveEntregarCadaIdAoConsumidor() {
+        when(pedidoRepository.listarTodosIdsExternos()).thenReturn(Stream.of("PEDIDO-EXT-1", "PEDIDO-EXT-2"));
+        List<String> recebidos = new ArrayList<>();
+
+        pedidoPersistance.percorrerIdsExternos(recebidos::add);
+
+        assertEquals(List.of("PEDIDO-EXT-1", "PEDIDO-EXT-2"), recebidos);
+    }
+
+    @Test
+    @DisplayName("Deve salvar uma lista de pedidos de uma só vez")
+    void salvarPedidos_DeveSalvarTodosOsPedidos() {
+        List<PedidoEntity> entities = List.of(pedidoEntity);
+        when(pedidoMapper.toEntity(pedidoDomain)).thenReturn(pedidoEntity);
+        when(pedidoRepository.saveAll(entities)).thenReturn(entities);
+        when(pedidoMapper.toDomain(entities)).thenReturn(List.of(pedidoDomain));
+
+        List<Pedido> result = pedidoPersistance.salvarPedidos(List.of(pedidoDomain));
+
+        assertEquals(1, result.size());
+        assertEquals(pedidoDomain.getIdExterno(), result.get(0).getIdExterno());
+        verify(pedidoRepository, times(1)).saveAll(entities);
+    }
+
     @Test
     @DisplayName("Deve deletar um pedido por ID")
     void deletarPedido_DeveDeletarPedidoPorID() {
@@ -0,0 +1,49 @@
+package com.myproject.orders.application.adapters;
+
+import com.myproject.orders.application.presenters.responses.LatenciaEstagioResponseDto;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RastreamentoLatenciaTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RastreamentoLatencia rastreamentoLatencia = new RastreamentoLatencia(registry, 120);
+
+    @Test
+    @DisplayName("Deve resumir cada estágio com contagem, percentis e máximo em milissegundos")
+    void resumir_DeveCalcularPercentisPorEstagio() {
+        for (int i = 1; i <= 1000; i++) {
+            rastreamentoLatencia.registrar(EstagioLatencia.PERSISTENCIA, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        LatenciaEstagioResponseDto persistencia = rastreamentoLatencia.resumir().stream()
+                .filter(resumo -> resumo.getEstagio() == EstagioLatencia.PERSISTENCIA)
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(rastreamentoLatencia.resumir()).hasSize(EstagioLatencia.values().length);
+        assertThat(persistencia.getContagem()).isEqualTo(1000);
+        assertThat(persistencia.getP50Ms()).isCloseTo(500, within(25.0));
+        assertThat(persistencia.getP99Ms()).isCloseTo(990, within(25.0));
+        assertThat(persistencia.getMaximoMs()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Deve medir desde o carimbo do produtor e ignorar pedidos sem rastreamento ou com relógio adiantado")
+    void registrarDesdeProducao_DeveIgnorarRastreamentoAusenteOuNoFuturo() {
+        rastreamentoLatencia.registrarDesdeProducao(EstagioLatencia.TOTAL, new Rastreamento("trace-1", System.currentTimeMillis() - 250));
+        rastreamentoLatencia.registrarDesdeProducao(EstagioLatencia.TOTAL, null);
+        rastreamentoLatencia.registrarDesdeProducao(EstagioLatencia.TOTAL, new Rastreamento("trace-2", System.currentTimeMillis() + 60_000));
+
+        assertThat(registry.get("pedidos.latencia").tag("estagio", "total").timer().count()).isEqualTo(1);
+        assertThat(registry.get("pedidos.latencia").tag("estagio", "total").timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(250);
+    }
+}
@@ -0,0 +1,45 @@
+package com.myproject.orders.application.controller;
+
+import com.myproject.orders.application.presenters.responses.LatenciaEstagioResponseDto;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LatenciaController.class)
+public class LatenciaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RastreamentoPort rastreamentoPort;
+
+    @Test
+    @DisplayName("Deve retornar os percentis de latência por estágio e status 200 OK")
+    void listarLatencias_DeveRetornarPercentisPorEstagio() throws Exception {
+        when(rastreamentoPort.resumir()).thenReturn(List.of(LatenciaEstagioResponseDto.builder()
+                .estagio(EstagioLatencia.TOTAL)
+                .contagem(10)
+                .p50Ms(12.5)
+                .p99Ms(40.0)
+                .p999Ms(80.0)
+                .build()));
+
+        mockMvc.perform(get("/pedidos/latencias"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].estagio").value("TOTAL"))
+                .andExpect(jsonPath("$[0].p99Ms").value(40.0));
+    }
+}
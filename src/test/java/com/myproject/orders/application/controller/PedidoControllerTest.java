@@ -4,7 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.PaginaPorCursor;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
+import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.exception.CursorInvalidoException;
 import com.myproject.orders.domain.exception.PedidoDuplicadoException;
 import com.myproject.orders.domain.exception.RecursoNaoEncontratoException;
 import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
@@ -21,15 +27,24 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -48,6 +63,9 @@ public class PedidoControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PedidoController pedidoController;
+
     private PedidoRequestDto pedidoRequestDto;
     private Pedido pedidoDomain;
     private PedidoResponseDto pedidoResponseDto;
@@ -84,6 +102,93 @@ public class PedidoControllerTest {
         verify(pedidoMapper, times(1)).toResponseDto(any(Pedido.class));
     }
 
+    @Test
+    @DisplayName("Deve listar pedidos por cursor e retornar o próximo cursor")
+    void listarPedidosPorCursor_DeveRetornarPaginaEProximoCursor() throws Exception {
+        when(pedidoUseCasePort.listarPedidosPorCursor("CURSOR-ATUAL", 10))
+                .thenReturn(new PaginaPorCursor<>(List.of(pedidoDomain), "PROXIMO-CURSOR"));
+        when(pedidoMapper.toResponseDto(pedidoDomain)).thenReturn(pedidoResponseDto);
+
+        mockMvc.perform(get("/pedidos/cursor")
+                        .param("cursor", "CURSOR-ATUAL")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conteudo[0].idExterno").value(pedidoResponseDto.getIdExterno()))
+                .andExpect(jsonPath("$.proximoCursor").value("PROXIMO-CURSOR"));
+
+        verify(pedidoUseCasePort, times(1)).listarPedidosPorCursor("CURSOR-ATUAL", 10);
+    }
+
+    @Test
+    @DisplayName("Deve retornar status 400 Bad Request ao listar pedidos com cursor inválido")
+    void listarPedidosPorCursor_DeveRetornarBadRequestQuandoCursorInvalido() throws Exception {
+        when(pedidoUseCasePort.listarPedidosPorCursor("invalido", 10))
+                .thenThrow(new CursorInvalidoException("Cursor de paginação inválido: invalido"));
+
+        mockMvc.perform(get("/pedidos/cursor")
+                        .param("cursor", "invalido")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Deve exportar os pedidos filtrados em NDJSON, um pedido por linha")
+    void exportarPedidos_DeveTransmitirUmPedidoPorLinha() throws Exception {
+        Pedido outroPedido = MassaDeDadosFactory.criarExemploPedidoDomain(2L);
+        PedidoResponseDto outroPedidoResponseDto = MassaDeDadosFactory.criarExemploPedidoResponseDto(2L, "PEDIDO-EXT-002");
+        FiltroExportacao filtro = new FiltroExportacao(StatusPedido.PROCESSADO, LocalDateTime.of(2025, 1, 1, 0, 0), null);
+        doAnswer(invocation -> {
+            Consumer<Pedido> consumidor = invocation.getArgument(1);
+            consumidor.accept(pedidoDomain);
+            consumidor.accept(outroPedido);
+            return null;
+        }).when(pedidoUseCasePort).exportarPedidos(eq(filtro), any());
+        when(pedidoMapper.toResponseDto(pedidoDomain)).thenReturn(pedidoResponseDto);
+        when(pedidoMapper.toResponseDto(outroPedido)).thenReturn(outroPedidoResponseDto);
+
+        MvcResult resultado = mockMvc.perform(get("/pedidos/export")
+                        .param("status", "PROCESSADO")
+                        .param("criadoDe", "2025-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(pedidoResponseDto) + "\n" + objectMapper.writeValueAsString(outroPedidoResponseDto) + "\n"));
+    }
+
+    @Test
+    @DisplayName("Deve processar um lote NDJSON e responder com o resultado de cada linha, inclusive das linhas ilegíveis")
+    void salvarPedidosEmLote_DeveResponderResultadoPorLinha() throws Exception {
+        PedidoRequestDto segundo = MassaDeDadosFactory.criarExemploPedidoRequestDto("PEDIDO-EXT-002");
+        String corpo = objectMapper.writeValueAsString(pedidoRequestDto) + "\n"
+                + "{\"idExterno\": \"PEDIDO-EXT-ERRO\", \"itens\": \"nao-e-uma-lista\"}\n"
+                + objectMapper.writeValueAsString(segundo) + "\n";
+        when(pedidoUseCasePort.processarPedidosEmLote(List.of(pedidoRequestDto)))
+                .thenReturn(List.of(ResultadoProcessamento.processado(pedidoDomain)));
+        when(pedidoUseCasePort.processarPedidosEmLote(List.of(segundo)))
+                .thenReturn(List.of(ResultadoProcessamento.falha("PEDIDO-EXT-002", SituacaoProcessamento.DUPLICADO, "Pedido duplicado")));
+        when(pedidoMapper.toResultadoLoteResponseDto(anyInt(), any(ResultadoProcessamento.class)))
+                .thenAnswer(invocation -> new PedidoMapper().toResultadoLoteResponseDto(invocation.getArgument(0), invocation.getArgument(1)));
+
+        MvcResult resultado = mockMvc.perform(post("/pedidos/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(corpo))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] linhas = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(linhas).hasSize(3);
+        assertThat(linhas[0]).contains("\"linha\":1", "\"situacao\":\"PROCESSADO\"");
+        assertThat(linhas[1]).contains("\"linha\":2", "\"situacao\":\"INVALIDO\"");
+        assertThat(linhas[2]).contains("\"linha\":3", "\"situacao\":\"DUPLICADO\"");
+    }
+
     @Test
     @DisplayName("Deve retornar status 404 Not Found ao buscar pedido por ID inexistente")
     void buscarPedidoPorId_DeveRetornarNotFound() throws Exception {
@@ -99,6 +204,26 @@ public class PedidoControllerTest {
         verify(pedidoUseCasePort, times(1)).buscarPedidoPorId(pedidoId);
     }
 
+    @Test
+    @DisplayName("Deve devolver o JSON projetado do banco ao buscar pedido por ID com a projeção direta ligada")
+    void buscarPedidoPorId_ComProjecaoDireta_DeveDevolverJsonSemMapper() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(pedidoResponseDto);
+        when(pedidoUseCasePort.buscarPedidoJsonPorId(1L)).thenReturn(json);
+        ReflectionTestUtils.setField(pedidoController, "projecaoDireta", true);
+        try {
+            mockMvc.perform(get("/pedidos/{id}", 1L)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().bytes(json));
+        } finally {
+            ReflectionTestUtils.setField(pedidoController, "projecaoDireta", false);
+        }
+
+        verify(pedidoUseCasePort, never()).buscarPedidoPorId(any());
+        verifyNoInteractions(pedidoMapper);
+    }
+
     @Test
     @DisplayName("Deve criar um novo pedido e retornar status 201 Created")
     void salvarPedido_DeveCriarPedidoComSucesso() throws Exception {
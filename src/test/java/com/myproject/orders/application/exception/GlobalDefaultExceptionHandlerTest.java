@@ -1,5 +1,6 @@
 package com.myproject.orders.application.exception;
 
+import com.myproject.orders.domain.exception.CursorInvalidoException;
 import com.myproject.orders.domain.exception.PedidoDuplicadoException;
 import com.myproject.orders.domain.exception.RecursoJaExisteException;
 import com.myproject.orders.domain.exception.RecursoNaoEncontratoException;
@@ -39,6 +40,19 @@ class GlobalDefaultExceptionHandlerTest {
         assertThat(problemDetail.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
     }
 
+    @Test
+    @DisplayName("Deve tratar CursorInvalidoException e retornar status 400 BAD_REQUEST")
+    void handleInvalidCursor_DeveRetornarBadRequest() {
+        String errorMessage = "Cursor de paginação inválido: abc";
+        CursorInvalidoException exception = new CursorInvalidoException(errorMessage);
+
+        ResponseEntity<ProblemDetail> response = handler.handleInvalidCursor(exception);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getDetail()).isEqualTo(errorMessage);
+    }
+
     @Test
     @DisplayName("Deve tratar RecursoJaExisteException e retornar status 400 BAD_REQUEST")
     void handleResourceBadRequest_DeveRetornarBadRequest() {
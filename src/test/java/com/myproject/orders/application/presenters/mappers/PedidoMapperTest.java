@@ -3,8 +3,11 @@ package com.myproject.orders.application.presenters.mappers;
 import com.myproject.orders.application.presenters.requests.ItemRequestDto;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.application.presenters.responses.ResultadoLoteResponseDto;
 import com.myproject.orders.domain.entities.Item;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
 import com.myproject.orders.domain.enums.StatusPedido;
 import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
 import com.myproject.orders.infrastructure.entity.ItemEntity;
@@ -292,4 +295,17 @@ public class PedidoMapperTest {
         assertNotNull(pedidos);
         assertThat(pedidos).isEmpty();
     }
+
+    @Test
+    @DisplayName("Deve mapear ResultadoProcessamento para ResultadoLoteResponseDto com o número da linha")
+    void toResultadoLoteResponseDto_DeveMapearComLinha() {
+        ResultadoProcessamento resultado = ResultadoProcessamento.falha("EXT-001", SituacaoProcessamento.DUPLICADO, "Pedido duplicado");
+
+        ResultadoLoteResponseDto dto = pedidoMapper.toResultadoLoteResponseDto(7, resultado);
+
+        assertEquals(7, dto.getLinha());
+        assertEquals("EXT-001", dto.getIdExterno());
+        assertEquals(SituacaoProcessamento.DUPLICADO, dto.getSituacao());
+        assertEquals("Pedido duplicado", dto.getMensagem());
+    }
 }
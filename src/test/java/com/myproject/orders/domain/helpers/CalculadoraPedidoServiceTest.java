@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -110,4 +111,77 @@ class CalculadoraPedidoServiceTest {
         assertThat(valorTotalCalculado).isEqualByComparingTo(BigDecimal.ZERO);
         assertThat(item.getValorTotalItem()).isEqualByComparingTo(BigDecimal.ZERO);
     }
+
+    @Test
+    @DisplayName("Deve produzir exatamente o mesmo resultado do cálculo em BigDecimal, inclusive a escala")
+    void calcularValorTotalPedido_DeveSerIdenticoAoCalculoEmBigDecimal() {
+        SplittableRandom aleatorio = new SplittableRandom(2024);
+
+        for (int i = 0; i < 20_000; i++) {
+            List<Item> itens = new ArrayList<>();
+            for (int j = aleatorio.nextInt(1, 8); j > 0; j--) {
+                Item item = MassaDeDadosFactory.criarItemDomain((long) j, "PROD-" + j, sortearValor(aleatorio), sortearQuantidade(aleatorio));
+                item.setValorTotalItem(null);
+                itens.add(item);
+            }
+            List<Item> copias = new ArrayList<>();
+            for (Item item : itens) {
+                copias.add(MassaDeDadosFactory.criarItemDomain(item.getId(), item.getProdutoId(), item.getValorUnitario(), item.getQuantidade()));
+            }
+
+            BigDecimal rapido = calculadoraPedidoService.calcularValorTotalPedido(
+                    MassaDeDadosFactory.criarPedidoDomain(1L, "PED-PROP", BigDecimal.ZERO, StatusPedido.PROCESSANDO, itens));
+            BigDecimal referencia = calculadoraPedidoService.calcularValorTotalPedidoEmBigDecimal(
+                    MassaDeDadosFactory.criarPedidoDomain(1L, "PED-PROP", BigDecimal.ZERO, StatusPedido.PROCESSANDO, copias));
+
+            assertThat(rapido).isEqualTo(referencia);
+            for (int j = 0; j < itens.size(); j++) {
+                assertThat(itens.get(j).getValorTotalItem()).isEqualTo(copias.get(j).getValorTotalItem());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recorrer ao BigDecimal quando o total estourar long ou o preço tiver mais de duas casas")
+    void calcularValorTotalPedido_DeveRecorrerAoBigDecimalForaDaFaixa() {
+        Item grande = MassaDeDadosFactory.criarItemDomain(1L, "PROD-G", new BigDecimal("999999999999"), Integer.MAX_VALUE);
+        Item outroGrande = MassaDeDadosFactory.criarItemDomain(2L, "PROD-H", new BigDecimal("999999999999"), Integer.MAX_VALUE);
+        Item fracionado = MassaDeDadosFactory.criarItemDomain(3L, "PROD-F", new BigDecimal("0.125"), 3);
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(8L, "PED-EXT-008", BigDecimal.ZERO, StatusPedido.PROCESSANDO,
+                Arrays.asList(grande, outroGrande, fracionado));
+
+        BigDecimal valorTotalCalculado = calculadoraPedidoService.calcularValorTotalPedido(pedido);
+
+        BigDecimal totalGrande = new BigDecimal("999999999999").multiply(BigDecimal.valueOf(Integer.MAX_VALUE));
+        assertThat(valorTotalCalculado).isEqualTo(totalGrande.add(totalGrande).add(new BigDecimal("0.375")));
+        assertThat(fracionado.getValorTotalItem()).isEqualTo(new BigDecimal("0.375"));
+    }
+
+    @Test
+    @DisplayName("Deve manter a maior escala entre os preços no total do pedido")
+    void calcularValorTotalPedido_DeveManterMaiorEscalaNoTotal() {
+        Item inteiro = MassaDeDadosFactory.criarItemDomain(1L, "PROD-I", new BigDecimal("10"), 2);
+        Item decimal = MassaDeDadosFactory.criarItemDomain(2L, "PROD-D", new BigDecimal("0.5"), 3);
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(9L, "PED-EXT-009", BigDecimal.ZERO, StatusPedido.PROCESSANDO,
+                Arrays.asList(inteiro, decimal));
+
+        BigDecimal valorTotalCalculado = calculadoraPedidoService.calcularValorTotalPedido(pedido);
+
+        assertThat(valorTotalCalculado).isEqualTo(new BigDecimal("21.5"));
+        assertThat(inteiro.getValorTotalItem()).isEqualTo(new BigDecimal("20"));
+        assertThat(decimal.getValorTotalItem()).isEqualTo(new BigDecimal("1.5"));
+    }
+
+    private static BigDecimal sortearValor(SplittableRandom aleatorio) {
+        return switch (aleatorio.nextInt(10)) {
+            case 0 -> null;
+            case 1 -> BigDecimal.valueOf(aleatorio.nextLong(-999_999_999_999L, 1_000_000_000_000L), aleatorio.nextInt(0, 3));
+            case 2 -> BigDecimal.valueOf(aleatorio.nextLong(), aleatorio.nextInt(-1, 4));
+            default -> BigDecimal.valueOf(aleatorio.nextLong(0, 10_000_000), aleatorio.nextInt(0, 3));
+        };
+    }
+
+    private static int sortearQuantidade(SplittableRandom aleatorio) {
+        return aleatorio.nextInt(20) == 0 ? aleatorio.nextInt() : aleatorio.nextInt(0, 1000);
+    }
 }
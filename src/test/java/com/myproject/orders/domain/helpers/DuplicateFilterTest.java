@@ -0,0 +1,116 @@
+package com.myproject.orders.domain.helpers;
+
+import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DuplicateFilterTest {
+
+    private PedidoPersistancePort pedidoPersistancePort;
+    private DuplicateFilter duplicateFilter;
+
+    @BeforeEach
+    void setUp() {
+        pedidoPersistancePort = mock(PedidoPersistancePort.class);
+        duplicateFilter = criarFiltro(true, 1000, 64);
+    }
+
+    @Test
+    @DisplayName("Deve tratar toda consulta como talvez presente enquanto não estiver aquecido")
+    void talvezContenha_DeveRetornarVerdadeiroEnquantoNaoAquecido() {
+        assertThat(duplicateFilter.isAtivo()).isFalse();
+        assertThat(duplicateFilter.talvezContenha("PEDIDO-EXT-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve carregar os IDs externos gravados no aquecimento")
+    void aquecer_DeveCarregarIdsExternosGravados() {
+        doAnswer(invocation -> {
+            Consumer<String> consumidor = invocation.getArgument(0);
+            consumidor.accept("PEDIDO-EXT-1");
+            consumidor.accept("PEDIDO-EXT-2");
+            return null;
+        }).when(pedidoPersistancePort).percorrerIdsExternos(any());
+
+        duplicateFilter.aquecer();
+
+        assertThat(duplicateFilter.isAtivo()).isTrue();
+        assertThat(duplicateFilter.talvezContenha("PEDIDO-EXT-1")).isTrue();
+        assertThat(duplicateFilter.talvezContenha("PEDIDO-EXT-2")).isTrue();
+        assertThat(duplicateFilter.getConsultasTalvezPresentes()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Não deve gerar falso negativo e deve manter a taxa de falso positivo perto do alvo ao crescer")
+    void adicionar_DeveCrescerSemFalsoNegativo() {
+        duplicateFilter.aquecer();
+        for (int i = 0; i < 5000; i++) {
+            duplicateFilter.adicionar("PEDIDO-EXT-" + i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertThat(duplicateFilter.talvezContenha("PEDIDO-EXT-" + i)).isTrue();
+        }
+        long falsosPositivos = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (duplicateFilter.talvezContenha("OUTRO-EXT-" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertThat(falsosPositivos).isLessThan(300);
+        assertThat(duplicateFilter.getConsultasAusentes()).isEqualTo(10000 - falsosPositivos);
+    }
+
+    @Test
+    @DisplayName("Deve devolver apenas os IDs externos que talvez estejam presentes")
+    void talvezPresentes_DeveFiltrarIdsCertamenteAusentes() {
+        duplicateFilter.aquecer();
+        duplicateFilter.adicionar("PEDIDO-EXT-1");
+
+        List<String> talvezPresentes = duplicateFilter.talvezPresentes(List.of("PEDIDO-EXT-1", "PEDIDO-EXT-NOVO"));
+
+        assertThat(talvezPresentes).contains("PEDIDO-EXT-1");
+    }
+
+    @Test
+    @DisplayName("Não deve ultrapassar o limite de memória configurado")
+    void adicionar_DeveRespeitarLimiteDeMemoria() {
+        DuplicateFilter filtroPequeno = criarFiltro(true, 100_000, 1);
+        filtroPequeno.aquecer();
+        for (int i = 0; i < 300_000; i++) {
+            filtroPequeno.adicionar("PEDIDO-EXT-" + i);
+        }
+
+        assertThat(filtroPequeno.memoriaUtilizadaBytes()).isLessThanOrEqualTo(1024 * 1024);
+    }
+
+    @Test
+    @DisplayName("Não deve carregar nada quando estiver desabilitado")
+    void aquecer_NaoDeveCarregarQuandoDesabilitado() {
+        DuplicateFilter desabilitado = criarFiltro(false, 1000, 64);
+
+        desabilitado.aquecer();
+
+        assertThat(desabilitado.isAtivo()).isFalse();
+        assertThat(desabilitado.talvezContenha("PEDIDO-EXT-1")).isTrue();
+        verify(pedidoPersistancePort, never()).percorrerIdsExternos(any());
+    }
+
+    private DuplicateFilter criarFiltro(boolean habilitado, long capacidadeInicial, long memoriaMaximaMb) {
+        DuplicateFilter filtro = new DuplicateFilter(habilitado, capacidadeInicial, 0.01, memoriaMaximaMb);
+        ReflectionTestUtils.setField(filtro, "pedidoPersistancePort", pedidoPersistancePort);
+        return filtro;
+    }
+}
@@ -3,15 +3,27 @@ package com.myproject.orders.domain.useCases;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.CursorPedido;
+import com.myproject.orders.domain.entities.FiltroExportacao;
+import com.myproject.orders.domain.entities.PaginaPorCursor;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
 import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.domain.exception.CursorInvalidoException;
 import com.myproject.orders.domain.exception.PedidoDuplicadoException;
 import com.myproject.orders.domain.exception.RecursoNaoEncontratoException;
 import com.myproject.orders.domain.helpers.CalculadoraPedidoService;
+import com.myproject.orders.domain.helpers.DuplicateFilter;
 import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
 import com.myproject.orders.domain.ports.out.PedidoPersistancePort;
 import com.myproject.orders.domain.ports.out.PedidoQueueOutPort;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
 import com.myproject.orders.infrastructure.repositories.PedidoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,14 +35,22 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,6 +70,15 @@ public class PedidoUseCaseTest {
     @Mock
     private PedidoPersistancePort pedidoPersistancePort;
 
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private DuplicateFilter duplicateFilter;
+
+    @Mock
+    private RastreamentoPort rastreamentoPort;
+
     @InjectMocks
     private PedidoUseCase pedidoUseCase;
 
@@ -62,6 +91,8 @@ public class PedidoUseCaseTest {
         pedidoDomain = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
         pedidoRequestDto = MassaDeDadosFactory.criarExemploPedidoRequestDto("PEDIDO-EXT-1");
         pedidoResponseDto = MassaDeDadosFactory.criarExemploPedidoResponseDto(1L, "PEDIDO-EXT-1");
+        lenient().when(duplicateFilter.talvezPresentes(any()))
+                .thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<String>>getArgument(0)));
     }
 
     @Test
@@ -73,18 +104,13 @@ public class PedidoUseCaseTest {
         Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(1L, pedidoRequestDto.getIdExterno(), new BigDecimal("20.00"), StatusPedido.PROCESSANDO,
                 Collections.singletonList(MassaDeDadosFactory.criarItemDomain(1L, "PROD-A", new BigDecimal("10.00"), 2)));
 
-        Pedido finalProcessedPedido = MassaDeDadosFactory.criarPedidoDomain(1L, pedidoRequestDto.getIdExterno(), new BigDecimal("20.00"), StatusPedido.PROCESSADO,
-                Collections.singletonList(MassaDeDadosFactory.criarItemDomain(1L, "PROD-A", new BigDecimal("10.00"), 2)));
-
-
         when(pedidoMapper.toDomain(pedidoRequestDto)).thenReturn(pedidoRequest);
-        when(pedidoPersistancePort.buscarPedidoPorIdExterno(anyString())).thenReturn(false);
         when(calculadoraPedidoService.calcularValorTotalPedido(any(Pedido.class))).thenReturn(new BigDecimal("20.00"));
 
-        when(pedidoPersistancePort.salvarPedido(pedidoRequest)).thenReturn(pedidoSalvo);
-        when(pedidoPersistancePort.salvarPedido(pedidoSalvo)).thenReturn(finalProcessedPedido);
+        when(pedidoPersistancePort.inserirPedidoSeNovo(pedidoRequest)).thenReturn(Optional.of(pedidoSalvo));
+        when(pedidoPersistancePort.atualizarStatus(1L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO)).thenReturn(true);
 
-        when(pedidoMapper.toResponseDto(finalProcessedPedido)).thenReturn(pedidoResponseDto);
+        when(pedidoMapper.toResponseDto(any(Pedido.class))).thenReturn(pedidoResponseDto);
         doNothing().when(pedidoQueueOutPort).publishMessage(pedidoResponseDto);
 
         Pedido result = pedidoUseCase.processarPedidoRecebido(pedidoRequestDto);
@@ -95,11 +121,12 @@ public class PedidoUseCaseTest {
         assertEquals(new BigDecimal("20.00"), result.getValorTotal());
 
         verify(pedidoMapper, times(1)).toDomain(pedidoRequestDto);
-        verify(pedidoPersistancePort, times(1)).buscarPedidoPorIdExterno(pedidoRequestDto.getIdExterno());
+        verify(pedidoPersistancePort, never()).buscarPedidoPorIdExterno(anyString());
         verify(calculadoraPedidoService, times(1)).calcularValorTotalPedido(pedidoRequest);
-        verify(pedidoPersistancePort, times(1)).salvarPedido(pedidoRequest);
-        verify(pedidoPersistancePort, times(1)).salvarPedido(pedidoSalvo);
-        verify(pedidoMapper, times(1)).toResponseDto(finalProcessedPedido);
+        verify(pedidoPersistancePort, times(1)).inserirPedidoSeNovo(pedidoRequest);
+        verify(pedidoPersistancePort, times(1)).atualizarStatus(1L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO);
+        verify(pedidoPersistancePort, never()).salvarPedido(any(Pedido.class));
+        verify(pedidoMapper, times(1)).toResponseDto(argThat((Pedido pedido) -> pedido == pedidoSalvo && pedido.getStatus() == StatusPedido.PROCESSADO));
         verify(pedidoQueueOutPort, times(1)).publishMessage(pedidoResponseDto);
     }
 
@@ -107,18 +134,33 @@ public class PedidoUseCaseTest {
     @DisplayName("Deve lançar PedidoDuplicadoException se o ID externo já existir")
     void processarPedidoRecebido_DeveLancarPedidoDuplicadoException() {
         when(pedidoMapper.toDomain(pedidoRequestDto)).thenReturn(pedidoDomain);
-        when(pedidoPersistancePort.buscarPedidoPorIdExterno(anyString())).thenReturn(true);
+        when(pedidoPersistancePort.inserirPedidoSeNovo(pedidoDomain)).thenReturn(Optional.empty());
 
         assertThrows(PedidoDuplicadoException.class, () ->
                 pedidoUseCase.processarPedidoRecebido(pedidoRequestDto));
 
         verify(pedidoMapper, times(1)).toDomain(pedidoRequestDto);
-        verify(pedidoPersistancePort, times(1)).buscarPedidoPorIdExterno(pedidoRequestDto.getIdExterno());
-        verify(calculadoraPedidoService, never()).calcularValorTotalPedido(any(Pedido.class));
+        verify(pedidoPersistancePort, never()).buscarPedidoPorIdExterno(anyString());
+        verify(pedidoPersistancePort, times(1)).inserirPedidoSeNovo(pedidoDomain);
         verify(pedidoPersistancePort, never()).salvarPedido(any(Pedido.class));
         verify(pedidoQueueOutPort, never()).publishMessage(any(PedidoResponseDto.class));
     }
 
+    @Test
+    @DisplayName("Deve confirmar no banco e lançar PedidoDuplicadoException quando o filtro indicar que o ID externo talvez exista")
+    void processarPedidoRecebido_DeveConsultarBancoQuandoFiltroIndicarTalvezPresente() {
+        when(pedidoMapper.toDomain(pedidoRequestDto)).thenReturn(pedidoDomain);
+        when(duplicateFilter.isAtivo()).thenReturn(true);
+        when(duplicateFilter.talvezContenha(pedidoDomain.getIdExterno())).thenReturn(true);
+        when(pedidoPersistancePort.buscarPedidoPorIdExterno(pedidoDomain.getIdExterno())).thenReturn(true);
+
+        assertThrows(PedidoDuplicadoException.class, () ->
+                pedidoUseCase.processarPedidoRecebido(pedidoRequestDto));
+
+        verify(pedidoPersistancePort, never()).inserirPedidoSeNovo(any(Pedido.class));
+        verify(pedidoQueueOutPort, never()).publishMessage(any(PedidoResponseDto.class));
+    }
+
     @Test
     @DisplayName("processarPedidoCore deve calcular, salvar e publicar o pedido")
     void processarPedidoCore_DeveSalvarPedido() {
@@ -130,15 +172,12 @@ public class PedidoUseCaseTest {
         Pedido firstSavedPedido = MassaDeDadosFactory.criarPedidoDomain(2L, "EXT-CORE-001", calculatedValue, StatusPedido.PROCESSANDO,
                 Collections.singletonList(MassaDeDadosFactory.criarItemDomain(2L, "PROD-B", new BigDecimal("30.00"), 1)));
 
-        Pedido finalProcessedPedido = MassaDeDadosFactory.criarPedidoDomain(2L, "EXT-CORE-001", calculatedValue, StatusPedido.PROCESSADO,
-                Collections.singletonList(MassaDeDadosFactory.criarItemDomain(2L, "PROD-B", new BigDecimal("30.00"), 1)));
-
         PedidoResponseDto expectedResponseDto = MassaDeDadosFactory.criarExemploPedidoResponseDto(2L, "EXT-CORE-001");
 
         when(calculadoraPedidoService.calcularValorTotalPedido(any(Pedido.class))).thenReturn(calculatedValue);
-        when(pedidoPersistancePort.salvarPedido(initialPedidoForCore)).thenReturn(firstSavedPedido);
-        when(pedidoPersistancePort.salvarPedido(firstSavedPedido)).thenReturn(finalProcessedPedido);
-        when(pedidoMapper.toResponseDto(finalProcessedPedido)).thenReturn(expectedResponseDto);
+        when(pedidoPersistancePort.inserirPedidoSeNovo(initialPedidoForCore)).thenReturn(Optional.of(firstSavedPedido));
+        when(pedidoPersistancePort.atualizarStatus(2L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO)).thenReturn(true);
+        when(pedidoMapper.toResponseDto(any(Pedido.class))).thenReturn(expectedResponseDto);
         doNothing().when(pedidoQueueOutPort).publishMessage(expectedResponseDto);
 
         Pedido result = pedidoUseCase.processarPedidoCore(initialPedidoForCore);
@@ -148,10 +187,275 @@ public class PedidoUseCaseTest {
         assertEquals(StatusPedido.PROCESSADO, result.getStatus());
 
         verify(calculadoraPedidoService, times(1)).calcularValorTotalPedido(initialPedidoForCore);
-        verify(pedidoPersistancePort, times(1)).salvarPedido(initialPedidoForCore);
-        verify(pedidoPersistancePort, times(1)).salvarPedido(firstSavedPedido);
-        verify(pedidoMapper, times(1)).toResponseDto(finalProcessedPedido);
+        verify(pedidoPersistancePort, times(1)).inserirPedidoSeNovo(initialPedidoForCore);
+        verify(pedidoPersistancePort, times(1)).atualizarStatus(2L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO);
+        verify(pedidoPersistancePort, never()).salvarPedido(any(Pedido.class));
+        verify(pedidoMapper, times(1)).toResponseDto(argThat((Pedido pedido) -> pedido == firstSavedPedido && pedido.getStatus() == StatusPedido.PROCESSADO));
         verify(pedidoQueueOutPort, times(1)).publishMessage(expectedResponseDto);
+        verify(duplicateFilter, times(1)).adicionar("EXT-CORE-001");
+    }
+
+    @Test
+    @DisplayName("Não deve publicar o pedido quando a transição de status não for aplicada")
+    void processarPedidoCore_NaoDevePublicarQuandoStatusNaoForAtualizado() {
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-CORE-002", BigDecimal.ZERO, null, Collections.emptyList());
+        Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(5L, "EXT-CORE-002", new BigDecimal("30.00"), StatusPedido.PROCESSANDO, Collections.emptyList());
+
+        when(calculadoraPedidoService.calcularValorTotalPedido(pedido)).thenReturn(new BigDecimal("30.00"));
+        when(pedidoPersistancePort.inserirPedidoSeNovo(pedido)).thenReturn(Optional.of(pedidoSalvo));
+        when(pedidoPersistancePort.atualizarStatus(5L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO)).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> pedidoUseCase.processarPedidoCore(pedido));
+
+        verify(pedidoQueueOutPort, never()).publishMessage(any(PedidoResponseDto.class));
+    }
+
+    @Test
+    @DisplayName("Com o outbox habilitado, deve gravar o evento junto com o status e não publicar direto no broker")
+    void processarPedidoCore_DeveRegistrarEventoNoOutbox() {
+        ReflectionTestUtils.setField(pedidoUseCase, "outboxHabilitado", true);
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-OUTBOX-1", BigDecimal.ZERO, null, Collections.emptyList());
+        Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(8L, "EXT-OUTBOX-1", new BigDecimal("30.00"), StatusPedido.PROCESSANDO, Collections.emptyList());
+
+        when(calculadoraPedidoService.calcularValorTotalPedido(pedido)).thenReturn(new BigDecimal("30.00"));
+        when(pedidoPersistancePort.inserirPedidoSeNovo(pedido)).thenReturn(Optional.of(pedidoSalvo));
+        when(pedidoMapper.toResponseDto(any(Pedido.class))).thenReturn(pedidoResponseDto);
+        when(pedidoPersistancePort.atualizarStatusERegistrarEvento(8L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO, pedidoResponseDto))
+                .thenReturn(true);
+
+        Pedido result = pedidoUseCase.processarPedidoCore(pedido);
+
+        assertEquals(StatusPedido.PROCESSADO, result.getStatus());
+        verify(pedidoMapper, times(1)).toResponseDto(argThat((Pedido pedidoMapeado) -> pedidoMapeado == pedidoSalvo && pedidoMapeado.getStatus() == StatusPedido.PROCESSADO));
+        verify(pedidoPersistancePort, times(1)).atualizarStatusERegistrarEvento(8L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO, pedidoResponseDto);
+        verify(pedidoPersistancePort, never()).atualizarStatus(any(), any(), any());
+        verify(pedidoQueueOutPort, never()).publishMessage(any(PedidoResponseDto.class));
+    }
+
+    @Test
+    @DisplayName("Com o outbox habilitado, deve gravar os eventos do lote na mesma transação dos pedidos")
+    void processarPedidosEmLote_DeveRegistrarEventosNoOutbox() {
+        ReflectionTestUtils.setField(pedidoUseCase, "outboxHabilitado", true);
+        PedidoRequestDto requestDto = MassaDeDadosFactory.criarExemploPedidoRequestDto("EXT-OUTBOX-2");
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-OUTBOX-2", BigDecimal.ZERO, null, Collections.emptyList());
+        Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(9L, "EXT-OUTBOX-2", new BigDecimal("75.00"), StatusPedido.PROCESSADO, Collections.emptyList());
+
+        when(pedidoMapper.toDomain(requestDto)).thenReturn(pedido);
+        when(pedidoPersistancePort.buscarIdsExternosExistentes(any())).thenReturn(Collections.emptySet());
+        when(calculadoraPedidoService.calcularValorTotalPedido(pedido)).thenReturn(new BigDecimal("75.00"));
+        when(pedidoPersistancePort.salvarPedidosERegistrarEventos(List.of(pedido))).thenReturn(List.of(pedidoSalvo));
+
+        List<ResultadoProcessamento> resultados = pedidoUseCase.processarPedidosEmLote(List.of(requestDto));
+
+        assertEquals(SituacaoProcessamento.PROCESSADO, resultados.get(0).getSituacao());
+        verify(pedidoPersistancePort, never()).salvarPedidos(any());
+        verify(pedidoQueueOutPort, never()).publishMessage(any(PedidoResponseDto.class));
+    }
+
+    @Test
+    @DisplayName("Deve devolver a página pedida e o cursor do último pedido quando houver mais pedidos")
+    void listarPedidosPorCursor_DeveRetornarProximoCursorQuandoHouverMaisPedidos() {
+        CursorPedido cursorAtual = new CursorPedido(LocalDateTime.of(2025, 1, 1, 10, 0), 5L);
+        Pedido primeiro = MassaDeDadosFactory.criarPedidoDomain(6L, "EXT-CURSOR-6", BigDecimal.TEN, StatusPedido.PROCESSADO, Collections.emptyList());
+        primeiro.setCreatedAt(LocalDateTime.of(2025, 1, 1, 10, 1));
+        Pedido segundo = MassaDeDadosFactory.criarPedidoDomain(7L, "EXT-CURSOR-7", BigDecimal.TEN, StatusPedido.PROCESSADO, Collections.emptyList());
+        segundo.setCreatedAt(LocalDateTime.of(2025, 1, 1, 10, 2));
+        when(pedidoPersistancePort.listarPedidosAposCursor(cursorAtual, 2)).thenReturn(List.of(primeiro, segundo));
+
+        PaginaPorCursor<Pedido> pagina = pedidoUseCase.listarPedidosPorCursor(cursorAtual.codificar(), 1);
+
+        assertEquals(List.of(primeiro), pagina.getConteudo());
+        assertEquals(new CursorPedido(primeiro.getCreatedAt(), 6L), CursorPedido.decodificar(pagina.getProximoCursor()));
+    }
+
+    @Test
+    @DisplayName("Não deve devolver próximo cursor na última página")
+    void listarPedidosPorCursor_NaoDeveRetornarProximoCursorNaUltimaPagina() {
+        when(pedidoPersistancePort.listarPedidosAposCursor(null, 11)).thenReturn(List.of(pedidoDomain));
+
+        PaginaPorCursor<Pedido> pagina = pedidoUseCase.listarPedidosPorCursor(null, 10);
+
+        assertEquals(1, pagina.getConteudo().size());
+        assertNull(pagina.getProximoCursor());
+    }
+
+    @Test
+    @DisplayName("Deve lançar CursorInvalidoException quando o cursor não puder ser lido")
+    void listarPedidosPorCursor_DeveLancarCursorInvalidoException() {
+        assertThrows(CursorInvalidoException.class, () -> pedidoUseCase.listarPedidosPorCursor("nao-e-um-cursor", 10));
+
+        verify(pedidoPersistancePort, never()).listarPedidosAposCursor(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve repassar ao consumidor cada pedido exportado")
+    void exportarPedidos_DeveRepassarPedidosAoConsumidor() {
+        FiltroExportacao filtro = new FiltroExportacao(StatusPedido.PROCESSADO, null, null);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Pedido>>getArgument(1).accept(pedidoDomain);
+            return null;
+        }).when(pedidoPersistancePort).exportarPedidos(eq(filtro), any());
+        List<Pedido> exportados = new ArrayList<>();
+
+        pedidoUseCase.exportarPedidos(filtro, exportados::add);
+
+        assertEquals(List.of(pedidoDomain), exportados);
+    }
+
+    @Test
+    @DisplayName("Deve processar um lote consultando duplicidade uma única vez e gravando todos os pedidos novos juntos")
+    void processarPedidosEmLote_DeveGravarPedidosNovosEmUmaUnicaOperacao() {
+        PedidoRequestDto novo = MassaDeDadosFactory.criarExemploPedidoRequestDto("EXT-LOTE-1");
+        PedidoRequestDto existente = MassaDeDadosFactory.criarExemploPedidoRequestDto("EXT-LOTE-2");
+        PedidoRequestDto repetidoNoLote = MassaDeDadosFactory.criarPedidoRequestDto("EXT-LOTE-1",
+                Collections.singletonList(MassaDeDadosFactory.criarItemRequestDto("PROD-002", new BigDecimal("5.00"), 3)));
+
+        Pedido pedidoNovo = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-LOTE-1", BigDecimal.ZERO, null, Collections.emptyList());
+        Pedido pedidoExistente = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-LOTE-2", BigDecimal.ZERO, null, Collections.emptyList());
+        Pedido pedidoRepetido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-LOTE-1", BigDecimal.ZERO, null, null);
+        Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(10L, "EXT-LOTE-1", new BigDecimal("75.00"), StatusPedido.PROCESSADO, Collections.emptyList());
+
+        when(pedidoMapper.toDomain(novo)).thenReturn(pedidoNovo);
+        when(pedidoMapper.toDomain(existente)).thenReturn(pedidoExistente);
+        when(pedidoMapper.toDomain(repetidoNoLote)).thenReturn(pedidoRepetido);
+        when(pedidoPersistancePort.buscarIdsExternosExistentes(any())).thenReturn(Set.of("EXT-LOTE-2"));
+        when(calculadoraPedidoService.calcularValorTotalPedido(pedidoNovo)).thenReturn(new BigDecimal("75.00"));
+        when(pedidoPersistancePort.salvarPedidos(List.of(pedidoNovo))).thenReturn(List.of(pedidoSalvo));
+        when(pedidoMapper.toResponseDto(pedidoSalvo)).thenReturn(pedidoResponseDto);
+
+        List<ResultadoProcessamento> resultados = pedidoUseCase.processarPedidosEmLote(List.of(novo, existente, repetidoNoLote));
+
+        assertEquals(3, resultados.size());
+        assertEquals(SituacaoProcessamento.PROCESSADO, resultados.get(0).getSituacao());
+        assertEquals(10L, resultados.get(0).getPedidoId());
+        assertEquals(SituacaoProcessamento.DUPLICADO, resultados.get(1).getSituacao());
+        assertEquals(SituacaoProcessamento.DUPLICADO, resultados.get(2).getSituacao());
+        assertEquals(StatusPedido.PROCESSADO, pedidoNovo.getStatus());
+
+        verify(pedidoPersistancePort, times(1)).buscarIdsExternosExistentes(any());
+        verify(pedidoPersistancePort, times(1)).salvarPedidos(List.of(pedidoNovo));
+        verify(pedidoPersistancePort, never()).salvarPedido(any(Pedido.class));
+        verify(pedidoQueueOutPort, times(1)).publishMessage(pedidoResponseDto);
+    }
+
+    @Test
+    @DisplayName("Não deve consultar o banco quando o filtro garantir que nenhum ID externo do lote existe")
+    void processarPedidosEmLote_NaoDeveConsultarBancoQuandoFiltroIndicarAusencia() {
+        PedidoRequestDto requestDto = MassaDeDadosFactory.criarExemploPedidoRequestDto("EXT-LOTE-4");
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-LOTE-4", BigDecimal.ZERO, null, Collections.emptyList());
+        Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(4L, "EXT-LOTE-4", new BigDecimal("75.00"), StatusPedido.PROCESSADO, Collections.emptyList());
+
+        when(pedidoMapper.toDomain(requestDto)).thenReturn(pedido);
+        doReturn(Collections.emptyList()).when(duplicateFilter).talvezPresentes(any());
+        when(calculadoraPedidoService.calcularValorTotalPedido(pedido)).thenReturn(new BigDecimal("75.00"));
+        when(pedidoPersistancePort.salvarPedidos(List.of(pedido))).thenReturn(List.of(pedidoSalvo));
+        when(pedidoMapper.toResponseDto(pedidoSalvo)).thenReturn(pedidoResponseDto);
+
+        List<ResultadoProcessamento> resultados = pedidoUseCase.processarPedidosEmLote(List.of(requestDto));
+
+        assertEquals(SituacaoProcessamento.PROCESSADO, resultados.get(0).getSituacao());
+        verify(pedidoPersistancePort, never()).buscarIdsExternosExistentes(any());
+        verify(duplicateFilter, times(1)).adicionar("EXT-LOTE-4");
+    }
+
+    @Test
+    @DisplayName("Deve processar os pedidos individualmente quando a gravação do lote falhar")
+    void processarPedidosEmLote_DeveProcessarIndividualmenteQuandoLoteFalhar() {
+        PedidoRequestDto requestDto = MassaDeDadosFactory.criarExemploPedidoRequestDto("EXT-LOTE-3");
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-LOTE-3", BigDecimal.ZERO, null, Collections.emptyList());
+        Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(3L, "EXT-LOTE-3", new BigDecimal("75.00"), StatusPedido.PROCESSANDO, Collections.emptyList());
+
+        when(pedidoMapper.toDomain(requestDto)).thenReturn(pedido);
+        when(pedidoPersistancePort.buscarIdsExternosExistentes(any())).thenReturn(Collections.emptySet());
+        when(calculadoraPedidoService.calcularValorTotalPedido(pedido)).thenReturn(new BigDecimal("75.00"));
+        when(pedidoPersistancePort.salvarPedidos(any())).thenThrow(new RuntimeException("Erro de DB"));
+        when(pedidoPersistancePort.inserirPedidoSeNovo(pedido)).thenReturn(Optional.of(pedidoSalvo));
+        when(pedidoPersistancePort.atualizarStatus(3L, StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO)).thenReturn(true);
+        when(pedidoMapper.toResponseDto(any(Pedido.class))).thenReturn(pedidoResponseDto);
+
+        List<ResultadoProcessamento> resultados = pedidoUseCase.processarPedidosEmLote(List.of(requestDto));
+
+        assertEquals(SituacaoProcessamento.PROCESSADO, resultados.get(0).getSituacao());
+        assertEquals(3L, resultados.get(0).getPedidoId());
+        verify(pedidoMapper, times(1)).toResponseDto(argThat((Pedido pedidoPublicado) -> pedidoPublicado == pedidoSalvo && pedidoPublicado.getStatus() == StatusPedido.PROCESSADO));
+        verify(pedidoQueueOutPort, times(1)).publishMessage(pedidoResponseDto);
+    }
+
+    @Test
+    @DisplayName("Deve gravar pedidos já precificados sem recalcular o valor total")
+    void processarPedidosPrecificados_DeveGravarSemRecalcular() {
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-PIPE-1", new BigDecimal("75.00"), null, Collections.emptyList());
+        Pedido duplicado = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-PIPE-1", new BigDecimal("75.00"), null, Collections.emptyList());
+        Pedido pedidoSalvo = MassaDeDadosFactory.criarPedidoDomain(6L, "EXT-PIPE-1", new BigDecimal("75.00"), StatusPedido.PROCESSADO, Collections.emptyList());
+
+        when(pedidoPersistancePort.buscarIdsExternosExistentes(any())).thenReturn(Collections.emptySet());
+        when(pedidoPersistancePort.salvarPedidos(List.of(pedido))).thenReturn(List.of(pedidoSalvo));
+        when(pedidoMapper.toResponseDto(pedidoSalvo)).thenReturn(pedidoResponseDto);
+
+        List<ResultadoProcessamento> resultados = pedidoUseCase.processarPedidosPrecificados(List.of(pedido, duplicado));
+
+        assertEquals(SituacaoProcessamento.PROCESSADO, resultados.get(0).getSituacao());
+        assertEquals(6L, resultados.get(0).getPedidoId());
+        assertEquals(SituacaoProcessamento.DUPLICADO, resultados.get(1).getSituacao());
+        verify(calculadoraPedidoService, never()).calcularValorTotalPedido(any(Pedido.class));
+    }
+
+    @Test
+    @DisplayName("Deve marcar como inválido o pedido do lote que não passar na validação")
+    void processarPedidosEmLote_DeveMarcarPedidoInvalido() {
+        PedidoRequestDto invalido = MassaDeDadosFactory.criarPedidoRequestDto(null, null);
+        @SuppressWarnings("unchecked")
+        ConstraintViolation<PedidoRequestDto> violacao = mock(ConstraintViolation.class);
+        when(violacao.getMessage()).thenReturn("O ID externo do pedido é obrigatório e não pode ser vazio.");
+        when(validator.validate(invalido)).thenReturn(Set.of(violacao));
+
+        List<ResultadoProcessamento> resultados = pedidoUseCase.processarPedidosEmLote(List.of(invalido));
+
+        assertEquals(SituacaoProcessamento.INVALIDO, resultados.get(0).getSituacao());
+        verify(pedidoPersistancePort, never()).salvarPedidos(any());
+        verify(pedidoQueueOutPort, never()).publishMessage(any(PedidoResponseDto.class));
+    }
+
+    @Test
+    @DisplayName("Deve preparar o pedido para a gravação adiada já precificado e como PROCESSADO, sem gravar")
+    void prepararPedidoParaGravacao_DevePrecificarSemGravar() {
+        Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, pedidoRequestDto.getIdExterno(), BigDecimal.ZERO, null,
+                Collections.singletonList(MassaDeDadosFactory.criarItemDomain(null, "PROD-A", new BigDecimal("10.00"), 2)));
+        when(pedidoMapper.toDomain(pedidoRequestDto)).thenReturn(pedido);
+        when(calculadoraPedidoService.calcularValorTotalPedido(pedido)).thenReturn(new BigDecimal("20.00"));
+
+        Pedido preparado = pedidoUseCase.prepararPedidoParaGravacao(pedidoRequestDto);
+
+        assertEquals(new BigDecimal("20.00"), preparado.getValorTotal());
+        assertEquals(StatusPedido.PROCESSADO, preparado.getStatus());
+        verifyNoInteractions(pedidoPersistancePort);
+    }
+
+    @Test
+    @DisplayName("Deve lançar ConstraintViolationException ao preparar pedido inválido para a gravação adiada")
+    void prepararPedidoParaGravacao_DeveLancarExcecaoParaPedidoInvalido() {
+        PedidoRequestDto invalido = MassaDeDadosFactory.criarPedidoRequestDto(null, null);
+        @SuppressWarnings("unchecked")
+        ConstraintViolation<PedidoRequestDto> violacao = mock(ConstraintViolation.class);
+        when(violacao.getMessage()).thenReturn("O ID externo do pedido é obrigatório e não pode ser vazio.");
+        when(validator.validate(invalido)).thenReturn(Set.of(violacao));
+
+        assertThrows(ConstraintViolationException.class, () -> pedidoUseCase.prepararPedidoParaGravacao(invalido));
+
+        verify(pedidoMapper, never()).toDomain(any(PedidoRequestDto.class));
+    }
+
+    @Test
+    @DisplayName("Deve registrar o pedido gravado no filtro e publicar o evento quando o outbox estiver desabilitado")
+    void concluirPedidoGravado_DevePublicarSemOutbox() {
+        ReflectionTestUtils.setField(pedidoUseCase, "outboxHabilitado", false);
+        when(pedidoMapper.toResponseDto(pedidoDomain)).thenReturn(pedidoResponseDto);
+
+        pedidoUseCase.concluirPedidoGravado(pedidoDomain, 1_000L);
+
+        verify(duplicateFilter, times(1)).adicionar(pedidoDomain.getIdExterno());
+        verify(pedidoQueueOutPort, times(1)).publishMessage(pedidoResponseDto);
+        verify(rastreamentoPort, times(1)).registrar(EstagioLatencia.PERSISTENCIA, 1_000L);
     }
 
     @Test
@@ -222,6 +526,26 @@ public class PedidoUseCaseTest {
         verify(pedidoPersistancePort, times(1)).buscarPedidoPorId(pedidoId);
     }
 
+    @Test
+    @DisplayName("Deve buscar o JSON do pedido por ID quando encontrado")
+    void buscarPedidoJsonPorId_DeveRetornarJsonQuandoEncontrado() {
+        byte[] json = "{\"id\":1}".getBytes();
+        when(pedidoPersistancePort.buscarPedidoJsonPorId(1L)).thenReturn(Optional.of(json));
+
+        assertSame(json, pedidoUseCase.buscarPedidoJsonPorId(1L));
+
+        verify(pedidoPersistancePort, never()).buscarPedidoPorId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve lançar RecursoNaoEncontratoException ao buscar JSON de pedido por ID inexistente")
+    void buscarPedidoJsonPorId_DeveRetornarRecursoNaoEncontratoExceptionQuandoNaoEncontrado() {
+        when(pedidoPersistancePort.buscarPedidoJsonPorId(99L)).thenReturn(Optional.empty());
+
+        assertThrows(RecursoNaoEncontratoException.class, () ->
+                pedidoUseCase.buscarPedidoJsonPorId(99L));
+    }
+
     @Test
     @DisplayName("Deve deletar um pedido com sucesso se ele existir")
     void deletarPedido_DeveDeletarPedidoComSucesso() {
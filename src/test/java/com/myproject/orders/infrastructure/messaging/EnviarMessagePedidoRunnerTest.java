@@ -0,0 +1,70 @@
+package com.myproject.orders.infrastructure.messaging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnviarMessagePedidoRunnerTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Deve dividir o arquivo em trechos alinhados a linhas que, juntos, entregam cada linha uma única vez")
+    void dividirEmTrechos_DeveCobrirTodasAsLinhasSemRepetir() throws Exception {
+        List<String> esperadas = new ArrayList<>();
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            String linha = "{\"idExterno\":\"EXT-" + i + "\"}";
+            esperadas.add(linha);
+            conteudo.append(linha).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 100 == 0) {
+                conteudo.append("\n");
+            }
+        }
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.jsonl"), conteudo);
+
+        List<String> lidas = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            List<long[]> trechos = EnviarMessagePedidoRunner.dividirEmTrechos(canal, 7);
+            assertThat(trechos).hasSize(7);
+            for (long[] trecho : trechos) {
+                EnviarMessagePedidoRunner.percorrerLinhas(canal, trecho[0], trecho[1], linha -> lidas.add(new String(linha, StandardCharsets.UTF_8)));
+            }
+        }
+
+        assertThat(lidas).containsExactlyElementsOf(esperadas);
+    }
+
+    @Test
+    @DisplayName("Deve parar de ler quando o consumidor pedir e entregar a última linha sem quebra final")
+    void percorrerLinhas_DeveRespeitarParadaEUltimaLinha() throws Exception {
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.jsonl"), "a\nb\nc");
+
+        List<String> lidas = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            boolean completo = EnviarMessagePedidoRunner.percorrerLinhas(canal, 0, canal.size(),
+                    linha -> lidas.add(new String(linha, StandardCharsets.UTF_8)));
+            assertThat(completo).isTrue();
+            assertThat(lidas).containsExactly("a", "b", "c");
+
+            lidas.clear();
+            completo = EnviarMessagePedidoRunner.percorrerLinhas(canal, 0, canal.size(), linha -> {
+                lidas.add(new String(linha, StandardCharsets.UTF_8));
+                return lidas.size() < 2;
+            });
+            assertThat(completo).isFalse();
+            assertThat(lidas).containsExactly("a", "b");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.myproject.orders.infrastructure.messaging;
+
+import com.myproject.orders.application.presenters.requests.ItemRequestDto;
+import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeradorPedidosSinteticosTest {
+
+    @Test
+    @DisplayName("Deve gerar a mesma sequência de pedidos para a mesma semente")
+    void proximo_DeveSerDeterministicoPelaSemente() {
+        GeradorPedidosSinteticos.Parametros parametros = GeradorPedidosSinteticos.Parametros.builder()
+                .semente(7)
+                .proporcaoDuplicados(0.1)
+                .build();
+        GeradorPedidosSinteticos primeiro = new GeradorPedidosSinteticos(parametros);
+        GeradorPedidosSinteticos segundo = new GeradorPedidosSinteticos(parametros);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(primeiro.proximo()).isEqualTo(segundo.proximo());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve respeitar a faixa de itens, de quantidade e de preço, com preço fixo por produto")
+    void proximo_DeveRespeitarFaixasConfiguradas() {
+        GeradorPedidosSinteticos gerador = new GeradorPedidosSinteticos(GeradorPedidosSinteticos.Parametros.builder()
+                .itensMinimo(2)
+                .itensMaximo(4)
+                .quantidadeMaximaPorItem(3)
+                .cardinalidadeProdutos(50)
+                .precoMinimo(new BigDecimal("10.00"))
+                .precoMaximo(new BigDecimal("20.00"))
+                .build());
+        Map<String, BigDecimal> precos = new HashMap<>();
+
+        for (int i = 0; i < 2000; i++) {
+            PedidoRequestDto pedido = gerador.proximo();
+            assertThat(pedido.getItens()).hasSizeBetween(2, 4);
+            for (ItemRequestDto item : pedido.getItens()) {
+                assertThat(item.getQuantidade()).isBetween(1, 3);
+                assertThat(item.getValorUnitario()).isBetween(new BigDecimal("10.00"), new BigDecimal("20.00"));
+                BigDecimal anterior = precos.putIfAbsent(item.getProdutoId(), item.getValorUnitario());
+                assertThat(anterior == null || anterior.equals(item.getValorUnitario())).isTrue();
+            }
+        }
+        assertThat(precos).hasSizeLessThanOrEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Deve repetir idExterno na proporção configurada de duplicados")
+    void proximo_DeveGerarDuplicadosNaProporcaoConfigurada() {
+        GeradorPedidosSinteticos gerador = new GeradorPedidosSinteticos(GeradorPedidosSinteticos.Parametros.builder()
+                .proporcaoDuplicados(0.25)
+                .build());
+        Set<String> idsExternos = new HashSet<>();
+        int total = 20_000;
+        int duplicados = 0;
+
+        for (int i = 0; i < total; i++) {
+            if (!idsExternos.add(gerador.proximo().getIdExterno())) {
+                duplicados++;
+            }
+        }
+
+        assertThat((double) duplicados / total).isCloseTo(0.25, within(0.02));
+    }
+
+    @Test
+    @DisplayName("Deve concentrar os itens nos produtos mais populares quando a distribuição for Zipf")
+    void proximo_DeveConcentrarProdutosComZipf() {
+        GeradorPedidosSinteticos gerador = new GeradorPedidosSinteticos(GeradorPedidosSinteticos.Parametros.builder()
+                .cardinalidadeProdutos(10_000)
+                .concentracaoProdutos(1.2)
+                .build());
+        int itens = 0;
+        int produtoMaisQuente = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            for (ItemRequestDto item : gerador.proximo().getItens()) {
+                itens++;
+                if (item.getProdutoId().equals("PROD-0")) {
+                    produtoMaisQuente++;
+                }
+            }
+        }
+
+        assertThat((double) produtoMaisQuente / itens).isGreaterThan(0.15);
+    }
+}
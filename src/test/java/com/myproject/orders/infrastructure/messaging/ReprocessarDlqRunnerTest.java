@@ -0,0 +1,100 @@
+package com.myproject.orders.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.myproject.orders.infrastructure.messaging.in.EncaminhadorRetentativas;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReprocessarDlqRunnerTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Deve republicar só as mensagens do filtro, devolver as demais à DLQ e confirmar lote a lote")
+    void reprocessar_DeveFiltrarRepublicarEGravarCheckpoint() throws Exception {
+        Path checkpoint = diretorio.resolve("replay.checkpoint");
+        ReprocessarDlqRunner runner = criarRunner("EXT-1.*", checkpoint);
+        Channel consumo = mock(Channel.class);
+        Channel publicacao = mock(Channel.class);
+        dlqCom(consumo, "EXT-10", "EXT-20", "EXT-11");
+
+        ReprocessarDlqRunner.Checkpoint resultado = runner.reprocessar(consumo, publicacao);
+
+        ArgumentCaptor<AMQP.BasicProperties> propriedades = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        verify(publicacao, times(2)).basicPublish(eq(RabbitMQConfig.EXCHANGE_PEDIDOS), eq(RabbitMQConfig.ROUTING_KEY_ENTRADA),
+                propriedades.capture(), any(byte[].class));
+        verify(publicacao).basicPublish(eq(""), eq(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ), any(AMQP.BasicProperties.class), any(byte[].class));
+        verify(publicacao, times(2)).waitForConfirmsOrDie(1000);
+        verify(consumo).basicAck(2L, true);
+        verify(consumo).basicAck(3L, true);
+
+        Map<String, Object> headers = propriedades.getValue().getHeaders();
+        assertThat(headers).doesNotContainKey(EncaminhadorRetentativas.HEADER_TENTATIVAS);
+        assertThat(headers).containsEntry(ReprocessarDlqRunner.HEADER_REPROCESSAMENTOS, 1);
+
+        assertThat(resultado.republicadas).isEqualTo(2);
+        assertThat(resultado.mantidas).isEqualTo(1);
+        assertThat(Files.readString(checkpoint)).contains("republicadas=2").contains("mantidas=1");
+    }
+
+    @Test
+    @DisplayName("Deve continuar a contagem a partir do checkpoint de uma execução anterior")
+    void reprocessar_DeveRetomarDoCheckpoint() throws Exception {
+        Path checkpoint = diretorio.resolve("replay.checkpoint");
+        Files.writeString(checkpoint, "republicadas=100\nmantidas=5\n");
+        ReprocessarDlqRunner runner = criarRunner("", checkpoint);
+        Channel consumo = mock(Channel.class);
+        dlqCom(consumo, "EXT-1");
+
+        ReprocessarDlqRunner.Checkpoint resultado = runner.reprocessar(consumo, mock(Channel.class));
+
+        assertThat(resultado.republicadas).isEqualTo(101);
+        assertThat(resultado.mantidas).isEqualTo(5);
+    }
+
+    private ReprocessarDlqRunner criarRunner(String filtroIdExterno, Path checkpoint) {
+        ReprocessarDlqRunner runner = new ReprocessarDlqRunner(2, 0, 0, 1000, filtroIdExterno, "", "", checkpoint.toString());
+        ReflectionTestUtils.setField(runner, "objectMapper", new ObjectMapper());
+        return runner;
+    }
+
+    private void dlqCom(Channel consumo, String... idsExternos) throws Exception {
+        when(consumo.queueDeclarePassive(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ))
+                .thenReturn(new AMQP.Queue.DeclareOk.Builder().queue(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ)
+                        .messageCount(idsExternos.length).build());
+        when(consumo.basicConsume(eq(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ), anyBoolean(), any(Consumer.class))).thenAnswer(invocacao -> {
+            Consumer consumidor = invocacao.getArgument(2);
+            for (int i = 0; i < idsExternos.length; i++) {
+                AMQP.BasicProperties propriedades = new AMQP.BasicProperties.Builder()
+                        .headers(Map.of(EncaminhadorRetentativas.HEADER_TENTATIVAS, 3))
+                        .build();
+                byte[] corpo = ("{\"idExterno\":\"" + idsExternos[i] + "\"}").getBytes(StandardCharsets.UTF_8);
+                consumidor.handleDelivery("tag", new Envelope(i + 1, false, "", RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA_DLQ), propriedades, corpo);
+            }
+            return "tag";
+        });
+    }
+}
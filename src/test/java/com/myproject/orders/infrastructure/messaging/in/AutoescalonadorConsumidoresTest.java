@@ -0,0 +1,178 @@
+package com.myproject.orders.infrastructure.messaging.in;
+
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AutoescalonadorConsumidoresTest {
+
+    private AmqpAdmin amqpAdmin;
+    private HikariDataSource dataSource;
+    private HikariPoolMXBean pool;
+    private SimpleMessageListenerContainer container;
+    private RabbitListenerEndpointRegistry endpointRegistry;
+    private SimpleMeterRegistry registry;
+    private AutoescalonadorConsumidores autoescalonador;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        amqpAdmin = mock(AmqpAdmin.class);
+        dataSource = mock(HikariDataSource.class);
+        pool = mock(HikariPoolMXBean.class);
+        container = mock(SimpleMessageListenerContainer.class);
+        endpointRegistry = mock(RabbitListenerEndpointRegistry.class);
+
+        when(endpointRegistry.getListenerContainer("pedidosEntradaListener")).thenReturn(container);
+        when(container.isAutoStartup()).thenReturn(true);
+        when(container.getListenerId()).thenReturn("pedidosEntradaListener");
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(dataSource);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(dataSource.getMaximumPoolSize()).thenReturn(10);
+
+        registry = new SimpleMeterRegistry();
+        autoescalonador = new AutoescalonadorConsumidores(registry, 1, 8, 100, 10, 250, 0.9, 0.7, 100, 500);
+        ReflectionTestUtils.setField(autoescalonador, "rabbitListenerEndpointRegistry", endpointRegistry);
+        ReflectionTestUtils.setField(autoescalonador, "amqpAdmin", amqpAdmin);
+        ReflectionTestUtils.setField(autoescalonador, "dataSource", dataSource);
+    }
+
+    @Test
+    @DisplayName("Deve aumentar consumidores e prefetch quando a fila acumular mensagens")
+    void ajustar_DeveAumentarConsumidoresComBacklog() {
+        filaCom(1000);
+        poolCom(2, 0);
+
+        autoescalonador.ajustar();
+
+        verify(container).setConcurrentConsumers(2);
+        verify(container).setPrefetchCount(250);
+        assertThat(registry.get("pedidos.entrada.consumidores").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("pedidos.entrada.autoescalonamento.decisoes").tag("acao", "aumentar").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve pausar o consumo com o pool esgotado e retomar quando ele aliviar")
+    void ajustar_DevePausarERetomarConformePool() {
+        filaCom(1000);
+        poolCom(10, 5);
+
+        autoescalonador.ajustar();
+
+        verify(container).stop(any(Runnable.class));
+        verify(container, never()).stop();
+        verify(container, never()).setConcurrentConsumers(anyInt());
+        assertThat(registry.get("pedidos.entrada.pausado").gauge().value()).isEqualTo(1);
+
+        poolCom(3, 0);
+        autoescalonador.ajustar();
+
+        verify(container).start();
+        assertThat(registry.get("pedidos.entrada.pausado").gauge().value()).isZero();
+        assertThat(registry.get("pedidos.entrada.autoescalonamento.decisoes").tag("acao", "retomar").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve pausar o pipeline, cujo ack é assíncrono")
+    void ajustar_NaoDevePausarPipeline() {
+        when(container.getListenerId()).thenReturn("pedidosEntradaPipelineListener");
+        filaCom(1000);
+        poolCom(10, 5);
+
+        autoescalonador.ajustar();
+
+        verify(container, never()).stop(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Deve ajustar o listener da gravação adiada sem pausá-lo, porque o ack vem depois do commit do grupo")
+    void ajustar_DeveAjustarGravacaoAdiadaSemPausar() {
+        SimpleMessageListenerContainer gravacaoAdiada = mock(SimpleMessageListenerContainer.class);
+        when(container.isAutoStartup()).thenReturn(false);
+        when(endpointRegistry.getListenerContainer("pedidosEntradaGravacaoAdiadaListener")).thenReturn(gravacaoAdiada);
+        when(gravacaoAdiada.isAutoStartup()).thenReturn(true);
+        when(gravacaoAdiada.getListenerId()).thenReturn("pedidosEntradaGravacaoAdiadaListener");
+        filaCom(1000);
+        poolCom(10, 5);
+
+        autoescalonador.ajustar();
+
+        verify(gravacaoAdiada, never()).stop(any(Runnable.class));
+        verify(gravacaoAdiada).setPrefetchCount(500);
+        assertThat(registry.get("pedidos.entrada.profundidade").gauge().value()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Deve esperar a parada assíncrona terminar antes de retomar o consumo")
+    void ajustar_NaoDeveRetomarAntesDaParadaTerminar() {
+        filaCom(1000);
+        poolCom(10, 5);
+        autoescalonador.ajustar();
+
+        when(container.isRunning()).thenReturn(true);
+        poolCom(3, 0);
+        autoescalonador.ajustar();
+
+        verify(container, never()).start();
+        assertThat(registry.get("pedidos.entrada.pausado").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve usar o prefetch do pipeline como piso do listener do pipeline")
+    void ajustar_DeveUsarPrefetchDoPipelineComoPiso() {
+        when(container.getListenerId()).thenReturn("pedidosEntradaPipelineListener");
+        filaCom(0);
+        poolCom(2, 0);
+
+        autoescalonador.ajustar();
+
+        verify(container).setPrefetchCount(500);
+        assertThat(registry.get("pedidos.entrada.prefetch").gauge().value()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Deve crescer dobrando, encolher de um em um e encolher com o pool acima do limite mesmo com backlog")
+    void calcularConsumidores_DeveRespeitarLimitesEHisterese() {
+        assertThat(autoescalonador.calcularConsumidores(1, 10_000, 0.1)).isEqualTo(2);
+        assertThat(autoescalonador.calcularConsumidores(4, 10_000, 0.1)).isEqualTo(8);
+        assertThat(autoescalonador.calcularConsumidores(8, 10_000, 0.1)).isEqualTo(8);
+        assertThat(autoescalonador.calcularConsumidores(8, 0, 0.1)).isEqualTo(7);
+        assertThat(autoescalonador.calcularConsumidores(1, 0, 0.1)).isEqualTo(1);
+        assertThat(autoescalonador.calcularConsumidores(4, 10_000, 0.95)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve manter o prefetch entre o piso e o máximo configurado")
+    void calcularPrefetch_DeveRespeitarLimites() {
+        assertThat(autoescalonador.calcularPrefetch(0, 1, 10)).isEqualTo(10);
+        assertThat(autoescalonador.calcularPrefetch(400, 4, 10)).isEqualTo(100);
+        assertThat(autoescalonador.calcularPrefetch(100_000, 2, 10)).isEqualTo(250);
+        assertThat(autoescalonador.calcularPrefetch(0, 1, 100)).isEqualTo(100);
+    }
+
+    private void filaCom(int mensagens) {
+        when(amqpAdmin.getQueueInfo(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA))
+                .thenReturn(new QueueInformation(RabbitMQConfig.QUEUE_PEDIDOS_ENTRADA, mensagens, 1));
+    }
+
+    private void poolCom(int ativas, int aguardando) {
+        when(pool.getActiveConnections()).thenReturn(ativas);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(aguardando);
+    }
+}
@@ -0,0 +1,133 @@
+package com.myproject.orders.infrastructure.messaging.in;
+
+import com.myproject.orders.application.config.RabbitMQConfig;
+import com.myproject.orders.domain.exception.PedidoDuplicadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class EncaminhadorRetentativasTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry registry;
+    private EncaminhadorRetentativas encaminhador;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        registry = new SimpleMeterRegistry();
+        encaminhador = new EncaminhadorRetentativas(registry, 200);
+        ReflectionTestUtils.setField(encaminhador, "rabbitTemplate", rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve reagendar nas filas de 1s, 10s e 60s e mandar para a DLQ depois da última")
+    void reagendar_DevePercorrerFilasDeEsperaEmOrdem() {
+        brokerConfirma(true);
+        Message mensagem = new Message(new byte[0], new MessageProperties());
+
+        assertThat(encaminhador.reagendar(mensagem, false)).isTrue();
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.EXCHANGE_RETENTATIVAS), eq("pedidos.entrada.espera.1s"), eq(mensagem), any(CorrelationData.class));
+        assertThat(encaminhador.reagendar(mensagem, false)).isTrue();
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.EXCHANGE_RETENTATIVAS), eq("pedidos.entrada.espera.10s"), eq(mensagem), any(CorrelationData.class));
+        assertThat(encaminhador.reagendar(mensagem, false)).isTrue();
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.EXCHANGE_RETENTATIVAS), eq("pedidos.entrada.espera.60s"), eq(mensagem), any(CorrelationData.class));
+        assertThat(EncaminhadorRetentativas.tentativas(mensagem)).isEqualTo(3);
+
+        assertThat(encaminhador.reagendar(mensagem, false)).isFalse();
+        assertThat(registry.get("pedidos.entrada.retentativas").tag("destino", "espera").counter().count()).isEqualTo(3);
+        assertThat(registry.get("pedidos.entrada.retentativas").tag("destino", "dlq").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve mandar pedido duplicado direto para a DLQ sem passar pelas filas de espera")
+    void recover_DeveRejeitarErroPermanenteSemRetentativa() {
+        Message mensagem = new Message(new byte[0], new MessageProperties());
+        Throwable causa = new ListenerExecutionFailedException("falha",
+                new RuntimeException("Houve um problema ao receber o pedido", new PedidoDuplicadoException("duplicado")), mensagem);
+
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> encaminhador.recover(mensagem, causa));
+
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    @DisplayName("Deve reagendar quando a falha for transitória, como timeout de banco")
+    void recover_DeveReagendarErroTransitorio() {
+        brokerConfirma(true);
+        Message mensagem = new Message(new byte[0], new MessageProperties());
+        Throwable causa = new ListenerExecutionFailedException("falha",
+                new RuntimeException("Houve um problema ao receber o pedido", new QueryTimeoutException("timeout")), mensagem);
+
+        encaminhador.recover(mensagem, causa);
+
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.EXCHANGE_RETENTATIVAS), eq("pedidos.entrada.espera.1s"), eq(mensagem), any(CorrelationData.class));
+        assertThat(EncaminhadorRetentativas.ehPermanente(causa)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve mandar para a DLQ quando o broker recusar a cópia reagendada")
+    void reagendar_DeveRetornarFalsoQuandoBrokerRecusarCopia() {
+        brokerConfirma(false);
+        Message mensagem = new Message(new byte[0], new MessageProperties());
+
+        assertThat(encaminhador.reagendar(mensagem, false)).isFalse();
+
+        assertThat(registry.get("pedidos.entrada.retentativas").tag("destino", "espera").counter().count()).isZero();
+        assertThat(registry.get("pedidos.entrada.retentativas").tag("destino", "dlq").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar a mensagem no recover quando a cópia for devolvida sem fila de espera")
+    void recover_DeveRejeitarQuandoCopiaForDevolvida() {
+        doAnswer(invocation -> {
+            CorrelationData correlacao = invocation.getArgument(3);
+            correlacao.setReturned(new ReturnedMessage(invocation.getArgument(2), 312, "NO_ROUTE",
+                    RabbitMQConfig.EXCHANGE_RETENTATIVAS, invocation.getArgument(1)));
+            correlacao.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        Message mensagem = new Message(new byte[0], new MessageProperties());
+
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> encaminhador.recover(mensagem, new QueryTimeoutException("timeout")));
+    }
+
+    @Test
+    @DisplayName("Deve mandar para a DLQ quando o broker não confirmar a cópia dentro do prazo")
+    void reagendar_DeveRetornarFalsoSemConfirmacaoNoPrazo() {
+        Message mensagem = new Message(new byte[0], new MessageProperties());
+
+        assertThat(encaminhador.reagendar(mensagem, false)).isFalse();
+
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.EXCHANGE_RETENTATIVAS), eq("pedidos.entrada.espera.1s"), eq(mensagem), any(CorrelationData.class));
+    }
+
+    private void brokerConfirma(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlacao = invocation.getArgument(3);
+            correlacao.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+}
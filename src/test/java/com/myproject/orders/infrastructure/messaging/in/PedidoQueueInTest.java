@@ -1,11 +1,20 @@
 package com.myproject.orders.infrastructure.messaging.in;
 
+import com.myproject.orders.application.adapters.PedidoPersistanceGravacaoAdiada;
+import com.myproject.orders.application.config.RabbitMQConfig;
 import com.myproject.orders.application.presenters.mappers.PedidoMapper;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
+import com.myproject.orders.domain.enums.SituacaoProcessamento;
+import com.myproject.orders.domain.exception.PedidoDuplicadoException;
 import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
 import com.myproject.orders.domain.useCases.PedidoUseCase;
+import com.rabbitmq.client.Channel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,10 +22,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +46,24 @@ public class PedidoQueueInTest {
     @Mock
     private PedidoMapper pedidoMapper;
 
+    @Mock
+    private MessageConverter jsonMessageConverter;
+
+    @Mock
+    private Channel channel;
+
+    @Mock
+    private PipelinePedidos pipelinePedidos;
+
+    @Mock
+    private PedidoPersistanceGravacaoAdiada gravacaoAdiada;
+
+    @Mock
+    private EncaminhadorRetentativas encaminhadorRetentativas;
+
+    @Mock
+    private RastreamentoPort rastreamentoPort;
+
     @InjectMocks
     private PedidoQueueIn pedidoQueueIn;
 
@@ -63,4 +99,150 @@ public class PedidoQueueInTest {
         assertThat(thrown.getMessage()).contains(errorMessage);
         verify(pedidoUseCase, times(1)).processarPedidoRecebido(pedidoRequestDto);
     }
+
+    @Test
+    @DisplayName("Deve ler o rastreamento dos cabeçalhos e medir fila e decodificação antes de processar")
+    void receiveRawMessage_DeveRastrearPedidoPelosCabecalhos() {
+        Message mensagem = criarMensagem(1L);
+        mensagem.getMessageProperties().setHeader(RabbitMQConfig.HEADER_TRACE_ID, "trace-1");
+        mensagem.getMessageProperties().setHeader(RabbitMQConfig.HEADER_PRODUZIDO_EM, 1_700_000_000_000L);
+        when(jsonMessageConverter.fromMessage(mensagem)).thenReturn(pedidoRequestDto);
+
+        pedidoQueueIn.receiveRawMessage(mensagem);
+
+        Rastreamento esperado = new Rastreamento("trace-1", 1_700_000_000_000L);
+        assertThat(pedidoRequestDto.getRastreamento()).isEqualTo(esperado);
+        verify(rastreamentoPort).registrarDesdeProducao(EstagioLatencia.FILA, esperado);
+        verify(rastreamentoPort).registrar(eq(EstagioLatencia.DECODIFICACAO), anyLong());
+        verify(pedidoUseCase, times(1)).processarPedidoRecebido(pedidoRequestDto);
+    }
+
+    @Test
+    @DisplayName("Deve confirmar individualmente as mensagens processadas e rejeitar as que falharem no lote")
+    void receiveMessages_DeveConfirmarERejeitarIndividualmente() throws Exception {
+        Message mensagemValida = criarMensagem(1L);
+        Message mensagemDuplicada = criarMensagem(2L);
+        PedidoRequestDto duplicado = MassaDeDadosFactory.criarExemploPedidoRequestDto("PEDIDO-EXT-002");
+
+        when(jsonMessageConverter.fromMessage(mensagemValida)).thenReturn(pedidoRequestDto);
+        when(jsonMessageConverter.fromMessage(mensagemDuplicada)).thenReturn(duplicado);
+        when(pedidoUseCase.processarPedidosEmLote(List.of(pedidoRequestDto, duplicado))).thenReturn(List.of(
+                ResultadoProcessamento.processado(pedidoDomain),
+                ResultadoProcessamento.falha("PEDIDO-EXT-002", SituacaoProcessamento.DUPLICADO, "Pedido duplicado")));
+
+        pedidoQueueIn.receiveMessages(List.of(mensagemValida, mensagemDuplicada), channel);
+
+        verify(pedidoUseCase, times(1)).processarPedidosEmLote(List.of(pedidoRequestDto, duplicado));
+        verify(channel, times(1)).basicAck(1L, false);
+        verify(channel, times(1)).basicReject(2L, false);
+        verify(encaminhadorRetentativas).reagendar(mensagemDuplicada, true);
+    }
+
+    @Test
+    @DisplayName("Deve reagendar e confirmar as mensagens do lote quando a gravação falhar por erro transitório")
+    void receiveMessages_DeveReagendarLoteComErroTransitorio() throws Exception {
+        Message primeira = criarMensagem(1L);
+        Message segunda = criarMensagem(2L);
+        PedidoRequestDto outro = MassaDeDadosFactory.criarExemploPedidoRequestDto("PEDIDO-EXT-002");
+
+        when(jsonMessageConverter.fromMessage(primeira)).thenReturn(pedidoRequestDto);
+        when(jsonMessageConverter.fromMessage(segunda)).thenReturn(outro);
+        when(pedidoUseCase.processarPedidosEmLote(List.of(pedidoRequestDto, outro)))
+                .thenThrow(new RuntimeException("Timeout ao obter conexão"));
+        when(encaminhadorRetentativas.reagendar(any(Message.class), eq(false))).thenReturn(true);
+
+        pedidoQueueIn.receiveMessages(List.of(primeira, segunda), channel);
+
+        verify(channel, times(1)).basicAck(1L, false);
+        verify(channel, times(1)).basicAck(2L, false);
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar apenas a mensagem do lote que não puder ser convertida")
+    void receiveMessages_DeveRejeitarMensagemInvalidaSemAfetarLote() throws Exception {
+        Message mensagemInvalida = criarMensagem(1L);
+        Message mensagemValida = criarMensagem(2L);
+
+        when(jsonMessageConverter.fromMessage(mensagemInvalida)).thenThrow(new MessageConversionException("JSON inválido"));
+        when(jsonMessageConverter.fromMessage(mensagemValida)).thenReturn(pedidoRequestDto);
+        when(pedidoUseCase.processarPedidosEmLote(List.of(pedidoRequestDto)))
+                .thenReturn(List.of(ResultadoProcessamento.processado(pedidoDomain)));
+
+        pedidoQueueIn.receiveMessages(List.of(mensagemInvalida, mensagemValida), channel);
+
+        verify(channel, times(1)).basicReject(1L, false);
+        verify(channel, times(1)).basicAck(2L, false);
+    }
+
+    @Test
+    @DisplayName("Deve entregar a mensagem ao pipeline sem confirmá-la na thread do listener")
+    void receiveMessagePipeline_DeveEntregarMensagemAoPipeline() throws Exception {
+        Message mensagem = criarMensagem(5L);
+
+        pedidoQueueIn.receiveMessagePipeline(mensagem, channel);
+
+        verify(pipelinePedidos, times(1)).submeter(mensagem, channel);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Deve confirmar a mensagem da gravação adiada só depois do commit do grupo, fora da thread de gravação")
+    void receiveMessageGravacaoAdiada_DeveConfirmarDepoisDoCommit() throws Exception {
+        Message mensagem = criarMensagem(6L);
+        CompletableFuture<Pedido> gravacao = new CompletableFuture<>();
+        List<Runnable> conclusoes = new ArrayList<>();
+        when(jsonMessageConverter.fromMessage(mensagem)).thenReturn(pedidoRequestDto);
+        when(pedidoUseCase.prepararPedidoParaGravacao(pedidoRequestDto)).thenReturn(pedidoDomain);
+        when(gravacaoAdiada.agendarGravacao(pedidoDomain)).thenReturn(gravacao);
+        when(gravacaoAdiada.executorDeConclusao()).thenReturn(conclusoes::add);
+
+        pedidoQueueIn.receiveMessageGravacaoAdiada(mensagem, channel);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+
+        gravacao.complete(pedidoDomain);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+
+        assertThat(conclusoes).hasSize(1);
+        conclusoes.get(0).run();
+
+        verify(pedidoUseCase, times(1)).concluirPedidoGravado(eq(pedidoDomain), anyLong());
+        verify(channel, times(1)).basicAck(6L, false);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar sem agendar a gravação quando o pedido for duplicado")
+    void receiveMessageGravacaoAdiada_DeveRejeitarPedidoDuplicado() throws Exception {
+        Message mensagem = criarMensagem(7L);
+        when(jsonMessageConverter.fromMessage(mensagem)).thenReturn(pedidoRequestDto);
+        when(pedidoUseCase.prepararPedidoParaGravacao(pedidoRequestDto)).thenThrow(new PedidoDuplicadoException("duplicado"));
+
+        pedidoQueueIn.receiveMessageGravacaoAdiada(mensagem, channel);
+
+        verify(gravacaoAdiada, never()).agendarGravacao(any());
+        verify(encaminhadorRetentativas, times(1)).reagendar(mensagem, true);
+        verify(channel, times(1)).basicReject(7L, false);
+    }
+
+    @Test
+    @DisplayName("Deve reagendar a mensagem quando a gravação do pedido falhar por erro transitório")
+    void receiveMessageGravacaoAdiada_DeveReagendarQuandoGravacaoFalhar() throws Exception {
+        Message mensagem = criarMensagem(8L);
+        when(jsonMessageConverter.fromMessage(mensagem)).thenReturn(pedidoRequestDto);
+        when(pedidoUseCase.prepararPedidoParaGravacao(pedidoRequestDto)).thenReturn(pedidoDomain);
+        when(gravacaoAdiada.agendarGravacao(pedidoDomain)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("timeout")));
+        when(gravacaoAdiada.executorDeConclusao()).thenReturn(Runnable::run);
+        when(encaminhadorRetentativas.reagendar(mensagem, false)).thenReturn(true);
+
+        pedidoQueueIn.receiveMessageGravacaoAdiada(mensagem, channel);
+
+        verify(pedidoUseCase, never()).concluirPedidoGravado(any(), anyLong());
+        verify(channel, times(1)).basicAck(8L, false);
+    }
+
+    private Message criarMensagem(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(new byte[0], properties);
+    }
 }
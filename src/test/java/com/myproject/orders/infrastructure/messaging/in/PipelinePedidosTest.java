@@ -0,0 +1,135 @@
+package com.myproject.orders.infrastructure.messaging.in;
+
+import com.myproject.orders.application.presenters.mappers.PedidoMapper;
+import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
+import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.ResultadoProcessamento;
+import com.myproject.orders.domain.helpers.CalculadoraPedidoService;
+import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
+import com.myproject.orders.domain.useCases.PedidoUseCase;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PipelinePedidosTest {
+
+    private PedidoUseCase pedidoUseCase;
+    private PedidoMapper pedidoMapper;
+    private CalculadoraPedidoService calculadoraPedidoService;
+    private Validator validator;
+    private MessageConverter jsonMessageConverter;
+    private Channel channel;
+    private SimpleMeterRegistry registry;
+    private PipelinePedidos pipelinePedidos;
+
+    @BeforeEach
+    void setUp() {
+        pedidoUseCase = mock(PedidoUseCase.class);
+        pedidoMapper = mock(PedidoMapper.class);
+        calculadoraPedidoService = mock(CalculadoraPedidoService.class);
+        validator = mock(Validator.class);
+        jsonMessageConverter = mock(MessageConverter.class);
+        channel = mock(Channel.class);
+        registry = new SimpleMeterRegistry();
+
+        pipelinePedidos = new PipelinePedidos(registry, 16, 1, 1, 1, 1, 10, 200);
+        ReflectionTestUtils.setField(pipelinePedidos, "pedidoUseCase", pedidoUseCase);
+        ReflectionTestUtils.setField(pipelinePedidos, "pedidoMapper", pedidoMapper);
+        ReflectionTestUtils.setField(pipelinePedidos, "calculadoraPedidoService", calculadoraPedidoService);
+        ReflectionTestUtils.setField(pipelinePedidos, "validator", validator);
+        ReflectionTestUtils.setField(pipelinePedidos, "jsonMessageConverter", jsonMessageConverter);
+        ReflectionTestUtils.setField(pipelinePedidos, "encaminhadorRetentativas", mock(EncaminhadorRetentativas.class));
+        ReflectionTestUtils.setField(pipelinePedidos, "rastreamentoPort", mock(RastreamentoPort.class));
+        pipelinePedidos.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipelinePedidos.parar();
+    }
+
+    @Test
+    @DisplayName("Deve passar cada mensagem por todos os estágios e confirmar depois da gravação")
+    void submeter_DeveConfirmarMensagensDepoisDaGravacao() throws Exception {
+        when(validator.validate(any(PedidoRequestDto.class))).thenReturn(Set.of());
+        when(calculadoraPedidoService.calcularValorTotalPedido(any(Pedido.class))).thenReturn(new BigDecimal("10.00"));
+        when(pedidoUseCase.processarPedidosPrecificados(any())).thenAnswer(invocation -> invocation.<List<Pedido>>getArgument(0).stream()
+                .map(ResultadoProcessamento::processado)
+                .collect(Collectors.toList()));
+        List<Message> mensagens = new ArrayList<>();
+        for (long tag = 1; tag <= 3; tag++) {
+            Message mensagem = criarMensagem(tag);
+            PedidoRequestDto requestDto = MassaDeDadosFactory.criarExemploPedidoRequestDto("EXT-PIPE-" + tag);
+            Pedido pedido = MassaDeDadosFactory.criarPedidoDomain(null, "EXT-PIPE-" + tag, BigDecimal.ZERO, null, Collections.emptyList());
+            when(jsonMessageConverter.fromMessage(mensagem)).thenReturn(requestDto);
+            when(pedidoMapper.toDomain(requestDto)).thenReturn(pedido);
+            mensagens.add(mensagem);
+        }
+
+        mensagens.forEach(mensagem -> pipelinePedidos.submeter(mensagem, channel));
+
+
+        verify(channel, timeout(2000)).basicAck(1L, false);
+        verify(channel, timeout(2000)).basicAck(2L, false);
+        verify(channel, timeout(2000)).basicAck(3L, false);
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+        assertThat(registry.get("pedidos.entrada.pipeline.lote.tamanho").summary().totalAmount()).isEqualTo(3);
+        assertThat(registry.get("pedidos.entrada.pipeline.servico").tag("estagio", "precificacao").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar a mensagem que não puder ser convertida sem chegar à persistência")
+    void submeter_DeveRejeitarMensagemInvalida() throws Exception {
+        Message mensagem = criarMensagem(7L);
+        when(jsonMessageConverter.fromMessage(mensagem)).thenThrow(new MessageConversionException("JSON inválido"));
+
+        pipelinePedidos.submeter(mensagem, channel);
+
+        verify(channel, timeout(2000)).basicReject(7L, false);
+        verify(pedidoUseCase, never()).processarPedidosPrecificados(any());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar as mensagens do lote quando a gravação falhar")
+    void submeter_DeveRejeitarLoteQuandoGravacaoFalhar() throws Exception {
+        Message mensagem = criarMensagem(9L);
+        PedidoRequestDto requestDto = MassaDeDadosFactory.criarExemploPedidoRequestDto("EXT-PIPE-9");
+        when(jsonMessageConverter.fromMessage(mensagem)).thenReturn(requestDto);
+        when(validator.validate(requestDto)).thenReturn(Set.of());
+        when(pedidoMapper.toDomain(requestDto)).thenReturn(
+                MassaDeDadosFactory.criarPedidoDomain(null, "EXT-PIPE-9", BigDecimal.ZERO, null, Collections.emptyList()));
+        when(pedidoUseCase.processarPedidosPrecificados(any())).thenThrow(new RuntimeException("Erro de DB"));
+
+        pipelinePedidos.submeter(mensagem, channel);
+
+        verify(channel, timeout(2000)).basicReject(9L, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    private Message criarMensagem(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(new byte[0], properties);
+    }
+}
@@ -0,0 +1,148 @@
+package com.myproject.orders.infrastructure.messaging.out;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.orders.application.adapters.RastreamentoLatencia;
+import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.domain.ports.out.PedidoQueueOutPort;
+import com.myproject.orders.infrastructure.entity.PedidoOutboxEntity;
+import com.myproject.orders.infrastructure.repositories.PedidoOutboxRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PedidoOutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private PedidoOutboxRepository pedidoOutboxRepository;
+    private PedidoQueueOutPort pedidoQueueOutPort;
+    private SimpleMeterRegistry registry;
+    private PedidoOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        pedidoOutboxRepository = mock(PedidoOutboxRepository.class);
+        pedidoQueueOutPort = mock(PedidoQueueOutPort.class);
+        registry = new SimpleMeterRegistry();
+        relay = new PedidoOutboxRelay(registry, 10, 1, 1000, 24, 3);
+        ReflectionTestUtils.setField(relay, "pedidoOutboxRepository", pedidoOutboxRepository);
+        ReflectionTestUtils.setField(relay, "pedidoQueueOutPort", pedidoQueueOutPort);
+        ReflectionTestUtils.setField(relay, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(relay, "rastreamentoPort", new RastreamentoLatencia(registry, 120));
+    }
+
+    @Test
+    @DisplayName("Deve marcar como enviados apenas os eventos confirmados pelo broker")
+    void enviarLote_DeveMarcarApenasEventosConfirmados() throws Exception {
+        PedidoOutboxEntity confirmado = criarEvento(1L, MassaDeDadosFactory.criarExemploPedidoResponseDto(10L, "EXT-OUTBOX-10"));
+        PedidoOutboxEntity recusado = criarEvento(2L, MassaDeDadosFactory.criarExemploPedidoResponseDto(11L, "EXT-OUTBOX-11"));
+        when(pedidoOutboxRepository.buscarPendentesParaEnvio(10, 3)).thenReturn(List.of(confirmado, recusado));
+        when(pedidoQueueOutPort.publishMessageAsync(any(PedidoResponseDto.class))).thenAnswer(invocation -> {
+            PedidoResponseDto dto = invocation.getArgument(0);
+            return dto.getId() == 10L
+                    ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.failedFuture(new IllegalStateException("nack"));
+        });
+
+        int enviados = relay.enviarLote();
+
+        assertThat(enviados).isEqualTo(1);
+        verify(pedidoOutboxRepository).marcarComoEnviados(eq(List.of(1L)), any(LocalDateTime.class));
+        assertThat(recusado.getTentativas()).isEqualTo(1);
+        assertThat(registry.get("pedidos.outbox.publicados").counter().count()).isEqualTo(1);
+        assertThat(registry.get("pedidos.outbox.falhas").counter().count()).isEqualTo(1);
+        assertThat(registry.get("pedidos.outbox.lote.tamanho").summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve repassar o rastreamento gravado no outbox e medir o tempo de espera do evento")
+    void enviarLote_DeveRepassarRastreamentoEMedirEspera() throws Exception {
+        PedidoOutboxEntity evento = criarEvento(1L, MassaDeDadosFactory.criarExemploPedidoResponseDto(10L, "EXT-OUTBOX-10"));
+        evento.setTraceId("trace-1");
+        evento.setProduzidoEm(1_700_000_000_000L);
+        evento.setCreatedAt(LocalDateTime.now().minusSeconds(1));
+        when(pedidoOutboxRepository.buscarPendentesParaEnvio(10, 3)).thenReturn(List.of(evento));
+        when(pedidoQueueOutPort.publishMessageAsync(any(PedidoResponseDto.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.enviarLote();
+
+        ArgumentCaptor<PedidoResponseDto> captor = ArgumentCaptor.forClass(PedidoResponseDto.class);
+        verify(pedidoQueueOutPort).publishMessageAsync(captor.capture());
+        assertThat(captor.getValue().getRastreamento()).isEqualTo(new Rastreamento("trace-1", 1_700_000_000_000L));
+        Timer espera = registry.get("pedidos.latencia").tag("estagio", "outbox").timer();
+        assertThat(espera.count()).isEqualTo(1);
+        assertThat(espera.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Não deve publicar nada quando o outbox estiver vazio")
+    void enviarLote_NaoDevePublicarQuandoOutboxVazio() {
+        when(pedidoOutboxRepository.buscarPendentesParaEnvio(10, 3)).thenReturn(List.of());
+
+        int enviados = relay.enviarLote();
+
+        assertThat(enviados).isZero();
+        verify(pedidoQueueOutPort, never()).publishMessageAsync(any());
+        verify(pedidoOutboxRepository, never()).marcarComoEnviados(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve estacionar o evento que esgotar as tentativas sem marcá-lo como enviado")
+    void enviarLote_DeveEstacionarEventoQueEsgotarTentativas() throws Exception {
+        PedidoOutboxEntity evento = criarEvento(1L, MassaDeDadosFactory.criarExemploPedidoResponseDto(10L, "EXT-OUTBOX-10"));
+        evento.setTentativas(2);
+        when(pedidoOutboxRepository.buscarPendentesParaEnvio(10, 3)).thenReturn(List.of(evento));
+        when(pedidoQueueOutPort.publishMessageAsync(any(PedidoResponseDto.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("mensagem devolvida")));
+
+        int enviados = relay.enviarLote();
+
+        assertThat(enviados).isZero();
+        assertThat(evento.getTentativas()).isEqualTo(3);
+        verify(pedidoOutboxRepository, never()).marcarComoEnviados(any(), any());
+        assertThat(registry.get("pedidos.outbox.tentativas.esgotadas").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve separar pendentes e estacionados nas métricas do outbox")
+    void atualizarMetricas_DeveSepararPendentesEEstacionados() {
+        when(pedidoOutboxRepository.countByEnviadoEmIsNullAndTentativasLessThan(3)).thenReturn(7L);
+        when(pedidoOutboxRepository.countByEnviadoEmIsNullAndTentativasGreaterThanEqual(3)).thenReturn(2L);
+        when(pedidoOutboxRepository.buscarCriacaoMaisAntigaPendente(3)).thenReturn(Optional.empty());
+
+        relay.atualizarMetricas();
+
+        assertThat(registry.get("pedidos.outbox.pendentes").gauge().value()).isEqualTo(7);
+        assertThat(registry.get("pedidos.outbox.estacionados").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("pedidos.outbox.atraso").gauge().value()).isZero();
+    }
+
+    private PedidoOutboxEntity criarEvento(Long id, PedidoResponseDto evento) throws Exception {
+        return PedidoOutboxEntity.builder()
+                .id(id)
+                .pedidoId(evento.getId())
+                .idExterno(evento.getIdExterno())
+                .payload(objectMapper.writeValueAsString(evento))
+                .build();
+    }
+}
@@ -4,16 +4,27 @@ import com.myproject.orders.application.config.RabbitMQConfig;
 import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
 import com.myproject.orders.domain.entities.Pedido;
+import com.myproject.orders.domain.entities.Rastreamento;
+import com.myproject.orders.domain.enums.EstagioLatencia;
 import com.myproject.orders.domain.helpers.MassaDeDadosFactory;
+import com.myproject.orders.domain.ports.out.RastreamentoPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
 import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -27,7 +38,9 @@ public class PedidoQueueOutTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
-    @InjectMocks
+    @Mock
+    private RastreamentoPort rastreamentoPort;
+
     private PedidoQueueOut pedidoQueueOut;
 
     private PedidoRequestDto pedidoRequestDto;
@@ -36,21 +49,28 @@ public class PedidoQueueOutTest {
 
     @BeforeEach
     void setUp() {
+        pedidoQueueOut = new PedidoQueueOut(1, 50, 1000);
+        ReflectionTestUtils.setField(pedidoQueueOut, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(pedidoQueueOut, "rastreamentoPort", rastreamentoPort);
         pedidoRequestDto = MassaDeDadosFactory.criarExemploPedidoRequestDto("PEDIDO-EXT-001");
         pedidoDomain = MassaDeDadosFactory.criarExemploPedidoDomain(1L);
         pedidoResponseDto = MassaDeDadosFactory.criarExemploPedidoResponseDto(1L, "PEDIDO-EXT-001");
     }
 
     @Test
-    @DisplayName("Deve publicar a mensagem com sucesso quando nenhuma exceção ocorrer")
+    @DisplayName("Deve publicar a mensagem e esperar a confirmação do broker")
     void publishMessage_DevePublicarComSucesso() {
+        confirmarPublicacao(new CorrelationData.Confirm(true, null));
+
         pedidoQueueOut.publishMessage(pedidoResponseDto);
 
         verify(rabbitTemplate, times(1)).convertAndSend(
                 eq(RabbitMQConfig.EXCHANGE_PEDIDOS),
                 eq(RabbitMQConfig.ROUTING_KEY_SAIDA),
-                eq(pedidoResponseDto)
+                eq(pedidoResponseDto),
+                any(CorrelationData.class)
         );
+        assertThat(pedidoQueueOut.mensagensAguardandoConfirmacao()).isZero();
     }
 
     @Test
@@ -60,7 +80,8 @@ public class PedidoQueueOutTest {
         doThrow(new AmqpException(errorMessage)).when(rabbitTemplate).convertAndSend(
                 any(String.class),
                 any(String.class),
-                any(PedidoResponseDto.class)
+                any(PedidoResponseDto.class),
+                any(CorrelationData.class)
         );
 
         RuntimeException thrown = assertThrows(RuntimeException.class, () -> {
@@ -72,11 +93,101 @@ public class PedidoQueueOutTest {
         assertThat(thrown.getCause())
                 .isInstanceOf(AmqpException.class)
                 .hasMessageContaining(errorMessage);
+    }
 
-        verify(rabbitTemplate, times(1)).convertAndSend(
-                eq(RabbitMQConfig.EXCHANGE_PEDIDOS),
-                eq(RabbitMQConfig.ROUTING_KEY_SAIDA),
-                eq(pedidoResponseDto)
-        );
+    @Test
+    @DisplayName("Deve lançar exceção quando o broker recusar a publicação síncrona")
+    void publishMessage_DeveLancarExcecaoQuandoBrokerRecusar() {
+        confirmarPublicacao(new CorrelationData.Confirm(false, "fila cheia"));
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> pedidoQueueOut.publishMessage(pedidoResponseDto));
+
+        assertThat(thrown.getMessage()).contains("fila cheia");
+        assertThat(pedidoQueueOut.mensagensAguardandoConfirmacao()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve completar o future quando o broker confirmar a publicação")
+    void publishMessageAsync_DeveCompletarQuandoBrokerConfirmar() {
+        CompletableFuture<Void> resultado = pedidoQueueOut.publishMessageAsync(pedidoResponseDto);
+
+        ArgumentCaptor<CorrelationData> captor = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_PEDIDOS), eq(RabbitMQConfig.ROUTING_KEY_SAIDA),
+                eq(pedidoResponseDto), captor.capture());
+        assertThat(resultado).isNotDone();
+
+        captor.getValue().getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertThat(resultado).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Deve repassar o rastreamento nos cabeçalhos e medir a latência total quando o broker confirmar")
+    void publishMessageAsync_DeveRepassarRastreamentoNosCabecalhos() throws Exception {
+        Rastreamento rastreamento = new Rastreamento("trace-1", 1_700_000_000_000L);
+        pedidoResponseDto.setRastreamento(rastreamento);
+
+        CompletableFuture<Void> resultado = pedidoQueueOut.publishMessageAsync(pedidoResponseDto);
+
+        ArgumentCaptor<MessagePostProcessor> processador = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        ArgumentCaptor<CorrelationData> captor = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_PEDIDOS), eq(RabbitMQConfig.ROUTING_KEY_SAIDA),
+                eq(pedidoResponseDto), processador.capture(), captor.capture());
+        Message mensagem = processador.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        assertThat(mensagem.getMessageProperties().<String>getHeader(RabbitMQConfig.HEADER_TRACE_ID)).isEqualTo("trace-1");
+        assertThat(mensagem.getMessageProperties().<Long>getHeader(RabbitMQConfig.HEADER_PRODUZIDO_EM)).isEqualTo(1_700_000_000_000L);
+
+        captor.getValue().getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertThat(resultado).isCompleted();
+        verify(rastreamentoPort).registrarDesdeProducao(EstagioLatencia.TOTAL, rastreamento);
+    }
+
+    @Test
+    @DisplayName("Deve falhar o future quando o broker recusar a publicação")
+    void publishMessageAsync_DeveFalharQuandoBrokerRecusar() {
+        CompletableFuture<Void> resultado = pedidoQueueOut.publishMessageAsync(pedidoResponseDto);
+
+        ArgumentCaptor<CorrelationData> captor = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_PEDIDOS), eq(RabbitMQConfig.ROUTING_KEY_SAIDA),
+                eq(pedidoResponseDto), captor.capture());
+        captor.getValue().getFuture().complete(new CorrelationData.Confirm(false, "fila cheia"));
+
+        assertThat(resultado).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("Deve falhar o future quando a mensagem for devolvida por falta de rota")
+    void publishMessageAsync_DeveFalharQuandoMensagemDevolvida() {
+        CompletableFuture<Void> resultado = pedidoQueueOut.publishMessageAsync(pedidoResponseDto);
+
+        ArgumentCaptor<CorrelationData> captor = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_PEDIDOS), eq(RabbitMQConfig.ROUTING_KEY_SAIDA),
+                eq(pedidoResponseDto), captor.capture());
+        captor.getValue().setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()), 312, "NO_ROUTE",
+                RabbitMQConfig.EXCHANGE_PEDIDOS, RabbitMQConfig.ROUTING_KEY_SAIDA));
+        captor.getValue().getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertThat(resultado).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("Deve recusar nova publicação enquanto o limite de mensagens sem confirmação estiver atingido")
+    void publishMessageAsync_DeveRespeitarLimiteDeMensagensEmVoo() {
+        CompletableFuture<Void> primeira = pedidoQueueOut.publishMessageAsync(pedidoResponseDto);
+        CompletableFuture<Void> segunda = pedidoQueueOut.publishMessageAsync(pedidoResponseDto);
+
+        assertThat(primeira).isNotDone();
+        assertThat(segunda).isCompletedExceptionally();
+        assertThat(pedidoQueueOut.mensagensAguardandoConfirmacao()).isEqualTo(1);
+        verify(rabbitTemplate, times(1)).convertAndSend(any(String.class), any(String.class), any(Object.class), any(CorrelationData.class));
+    }
+
+    private void confirmarPublicacao(CorrelationData.Confirm confirmacao) {
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(3).getFuture().complete(confirmacao);
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_PEDIDOS), eq(RabbitMQConfig.ROUTING_KEY_SAIDA),
+                eq(pedidoResponseDto), any(CorrelationData.class));
     }
 }
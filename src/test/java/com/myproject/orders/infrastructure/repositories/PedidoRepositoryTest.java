@@ -4,21 +4,32 @@ import com.myproject.orders.application.presenters.requests.PedidoRequestDto;
 import com.myproject.orders.application.presenters.responses.PedidoResponseDto;
 import com.myproject.orders.domain.entities.Pedido;
 import com.myproject.orders.domain.enums.StatusPedido;
+import com.myproject.orders.infrastructure.entity.ItemEntity;
 import com.myproject.orders.infrastructure.entity.PedidoEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -78,4 +89,201 @@ public class PedidoRepositoryTest {
         assertThat(encontrado.get().getIdExterno()).isEqualTo("PEDIDO-EXT-1");
         assertThat(encontrado.get().getValorTotal()).isEqualTo(new BigDecimal("100.00"));
     }
+
+    @Test
+    @DisplayName("Deve retornar apenas os idExterno já cadastrados dentre os informados")
+    void buscarIdsExternosExistentes_DeveRetornarSomenteExistentes() {
+        entityManager.persist(this.pedidoSalvo);
+        entityManager.flush();
+
+        List<String> encontrados = pedidoRepository.buscarIdsExternosExistentes(List.of("PEDIDO-EXT-1", "PEDIDO-EXT-999"));
+
+        assertThat(encontrados).containsExactly("PEDIDO-EXT-1");
+    }
+
+    @Test
+    @DisplayName("Não deve permitir dois pedidos com o mesmo idExterno")
+    void salvarPedidoComIdExternoRepetido_DeveViolarIndiceUnico() {
+        pedidoRepository.saveAndFlush(this.pedidoSalvo);
+
+        PedidoEntity duplicado = new PedidoEntity();
+        duplicado.setIdExterno("PEDIDO-EXT-1");
+        duplicado.setStatus(StatusPedido.PROCESSANDO);
+        duplicado.setValorTotal(new BigDecimal("50.00"));
+        duplicado.setItens(new ArrayList<>());
+        duplicado.setCreatedAt(LocalDateTime.now());
+        duplicado.setUpdatedAt(LocalDateTime.now());
+
+        assertThatThrownBy(() -> pedidoRepository.saveAndFlush(duplicado))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Deve mudar o status com um único UPDATE, sem regravar o pedido e seus itens")
+    void atualizarStatus_DeveExecutarUmUnicoUpdate() {
+        PedidoEntity pedido = persistirPedidoComItens(50);
+        Statistics estatisticas = estatisticas();
+
+        estatisticas.clear();
+        int atualizados = pedidoRepository.atualizarStatus(pedido.getId(), StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO, LocalDateTime.now());
+        entityManager.flush();
+        long comandosUpdateDireto = estatisticas.getPrepareStatementCount();
+
+        entityManager.clear();
+        PedidoEntity agregado = copiarAgregado(pedidoRepository.findById(pedido.getId()).orElseThrow());
+        entityManager.clear();
+        estatisticas.clear();
+        agregado.setStatus(StatusPedido.PROCESSANDO);
+        pedidoRepository.saveAndFlush(agregado);
+        long comandosMerge = estatisticas.getPrepareStatementCount();
+
+        assertThat(atualizados).isEqualTo(1);
+        assertThat(comandosUpdateDireto).isEqualTo(1);
+        assertThat(comandosMerge).isGreaterThan(comandosUpdateDireto);
+    }
+
+    @Test
+    @DisplayName("Não deve mudar o status quando o pedido não estiver no status esperado")
+    void atualizarStatus_NaoDeveAtualizarQuandoStatusDiferente() {
+        this.pedidoSalvo.setStatus(StatusPedido.PROCESSADO);
+        entityManager.persist(this.pedidoSalvo);
+        entityManager.flush();
+
+        int atualizados = pedidoRepository.atualizarStatus(this.pedidoSalvo.getId(), StatusPedido.PROCESSANDO, StatusPedido.PROCESSADO, LocalDateTime.now());
+
+        assertThat(atualizados).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve gravar um pedido com 200 itens em lotes de INSERT, e não um comando por item")
+    void salvarPedidoComMuitosItens_DeveAgruparInserts() {
+        adicionarItens(200);
+        Statistics estatisticas = estatisticas();
+        estatisticas.clear();
+
+        pedidoRepository.saveAndFlush(this.pedidoSalvo);
+
+        assertThat(estatisticas.getEntityInsertCount()).isEqualTo(201);
+        assertThat(estatisticas.getPrepareStatementCount()).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("Deve listar uma página de pedidos com seus itens em número constante de comandos, qualquer que seja o tamanho da página")
+    void listarPaginaComItens_DeveExecutarNumeroConstanteDeComandos() {
+        for (int i = 0; i < 30; i++) {
+            persistirPedido("PEDIDO-LISTA-" + i, 3);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(comandosParaListarPagina(5)).isEqualTo(3);
+        assertThat(comandosParaListarPagina(25)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve manter a ordem da página ao buscar os pedidos com itens")
+    void buscarComItensPorIds_DeveCarregarItensDeTodosOsPedidos() {
+        for (int i = 0; i < 3; i++) {
+            persistirPedido("PEDIDO-ORDEM-" + i, 2);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Long> ids = pedidoRepository.buscarIdsPaginados(PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "id")));
+        List<PedidoEntity> pedidos = pedidoRepository.buscarComItensPorIds(ids.getContent());
+
+        assertThat(ids.getContent()).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(pedidos).hasSize(3).allSatisfy(pedido -> assertThat(pedido.getItens()).hasSize(2));
+    }
+
+    @Test
+    @DisplayName("Deve percorrer os pedidos por cursor de (created_at, id) sem repetir nem pular registros")
+    void buscarIdsAposCursor_DevePercorrerTodosOsPedidosEmOrdem() {
+        LocalDateTime mesmoInstante = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            persistirPedido("PEDIDO-CURSOR-" + i, 0, i < 3 ? mesmoInstante : mesmoInstante.plusMinutes(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> primeiraPagina = pedidoRepository.buscarPrimeirosIdsPorCriacao(Limit.of(2));
+        PedidoEntity ultimo = pedidoRepository.findById(primeiraPagina.get(1)).orElseThrow();
+        List<Long> segundaPagina = pedidoRepository.buscarIdsAposCursor(ultimo.getCreatedAt(), ultimo.getId(), Limit.of(2));
+        PedidoEntity ultimoDaSegunda = pedidoRepository.findById(segundaPagina.get(1)).orElseThrow();
+        List<Long> terceiraPagina = pedidoRepository.buscarIdsAposCursor(ultimoDaSegunda.getCreatedAt(), ultimoDaSegunda.getId(), Limit.of(2));
+
+        List<Long> todos = new ArrayList<>(primeiraPagina);
+        todos.addAll(segundaPagina);
+        todos.addAll(terceiraPagina);
+        assertThat(todos).hasSize(5).doesNotHaveDuplicates().isSorted();
+    }
+
+    private long comandosParaListarPagina(int tamanhoPagina) {
+        Statistics estatisticas = estatisticas();
+        estatisticas.clear();
+        Page<Long> ids = pedidoRepository.buscarIdsPaginados(PageRequest.of(0, tamanhoPagina));
+        pedidoRepository.buscarComItensPorIds(ids.getContent())
+                .forEach(pedido -> pedido.getItens().forEach(ItemEntity::getProdutoId));
+        entityManager.clear();
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private void persistirPedido(String idExterno, int quantidadeItens) {
+        persistirPedido(idExterno, quantidadeItens, LocalDateTime.now());
+    }
+
+    private void persistirPedido(String idExterno, int quantidadeItens, LocalDateTime criadoEm) {
+        PedidoEntity pedido = new PedidoEntity();
+        pedido.setIdExterno(idExterno);
+        pedido.setStatus(StatusPedido.PROCESSADO);
+        pedido.setValorTotal(new BigDecimal("10.00"));
+        pedido.setItens(new ArrayList<>());
+        pedido.setCreatedAt(criadoEm);
+        pedido.setUpdatedAt(criadoEm);
+        this.pedidoSalvo = pedido;
+        adicionarItens(quantidadeItens);
+        entityManager.persist(pedido);
+    }
+
+    private PedidoEntity persistirPedidoComItens(int quantidadeItens) {
+        adicionarItens(quantidadeItens);
+        entityManager.persist(this.pedidoSalvo);
+        entityManager.flush();
+        entityManager.clear();
+        return this.pedidoSalvo;
+    }
+
+    private void adicionarItens(int quantidadeItens) {
+        for (int i = 0; i < quantidadeItens; i++) {
+            ItemEntity item = new ItemEntity();
+            item.setProdutoId("PROD-" + i);
+            item.setValorUnitario(new BigDecimal("1.00"));
+            item.setQuantidade(1);
+            item.setValorTotalItem(new BigDecimal("1.00"));
+            item.setPedido(this.pedidoSalvo);
+            item.setCreatedAt(LocalDateTime.now());
+            item.setUpdatedAt(LocalDateTime.now());
+            this.pedidoSalvo.getItens().add(item);
+        }
+    }
+
+    private PedidoEntity copiarAgregado(PedidoEntity origem) {
+        PedidoEntity copia = new PedidoEntity(origem.getId(), origem.getIdExterno(), origem.getStatus(), origem.getValorTotal(), null);
+        copia.setCreatedAt(origem.getCreatedAt());
+        copia.setUpdatedAt(origem.getUpdatedAt());
+        copia.setItens(origem.getItens().stream()
+                .map(item -> {
+                    ItemEntity itemCopia = new ItemEntity(item.getId(), item.getProdutoId(), item.getValorUnitario(),
+                            item.getQuantidade(), item.getValorTotalItem(), copia);
+                    itemCopia.setCreatedAt(item.getCreatedAt());
+                    itemCopia.setUpdatedAt(item.getUpdatedAt());
+                    return itemCopia;
+                })
+                .collect(Collectors.toList()));
+        return copia;
+    }
+
+    private Statistics estatisticas() {
+        return entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
 }